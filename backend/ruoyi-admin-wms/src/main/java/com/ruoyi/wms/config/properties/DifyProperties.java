@@ -0,0 +1,56 @@
+package com.ruoyi.wms.config.properties;
+
+import com.ruoyi.common.core.factory.YmlPropertySourceFactory;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Dify 智能体配置
+ * <p>
+ * 配置项见 wms-dify.yml，未配置地址或 API Key 时启动失败
+ *
+ * @author zcc
+ */
+@Data
+@Component
+@Validated
+@PropertySource(value = "classpath:wms-dify.yml", factory = YmlPropertySourceFactory.class)
+@ConfigurationProperties(prefix = "wms.dify")
+public class DifyProperties {
+
+    /**
+     * 工作流运行地址
+     */
+    @NotBlank(message = "wms.dify.workflowUrl 未配置")
+    private String workflowUrl = "http://127.0.0.1/v1/workflows/run";
+
+    /**
+     * 应用 API Key
+     */
+    @NotBlank(message = "wms.dify.apiKey 未配置")
+    private String apiKey;
+
+    /**
+     * 建立连接超时时间，单位：毫秒
+     */
+    private long connectTimeout = 5000;
+
+    /**
+     * 单次工作流运行的最长时间，单位：毫秒，超时后断开上游和客户端
+     */
+    private long runTimeout = 300000;
+
+    /**
+     * 每个用户同时运行的工作流数
+     */
+    private int maxConcurrentPerUser = 2;
+
+    /**
+     * 全局同时运行的工作流数
+     */
+    private int maxConcurrent = 64;
+}
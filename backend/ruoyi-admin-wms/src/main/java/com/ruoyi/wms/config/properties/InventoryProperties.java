@@ -0,0 +1,161 @@
+package com.ruoyi.wms.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 库存相关配置
+ *
+ * @author zcc
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "wms.inventory")
+public class InventoryProperties {
+
+    /**
+     * 库存并发锁配置
+     */
+    private Lock lock = new Lock();
+
+    /**
+     * 库存记录流水写入配置
+     */
+    private History history = new History();
+
+    /**
+     * 出库自动分配库存明细配置
+     */
+    private Allocation allocation = new Allocation();
+
+    /**
+     * 临期预警配置
+     */
+    private Expiry expiry = new Expiry();
+
+    @Data
+    public static class Lock {
+
+        /**
+         * 锁模式 LOCAL 进程内分段锁 REDISSON 分布式锁
+         */
+        private LockMode mode = LockMode.LOCAL;
+
+        /**
+         * 进程内分段锁的段数，取2的幂
+         */
+        private int stripes = 1024;
+
+        /**
+         * 获取锁的最长等待时间，单位：毫秒
+         */
+        private long waitTime = 5000;
+
+        /**
+         * 分布式锁key前缀
+         */
+        private String keyPrefix = "wms:inventory:lock:";
+    }
+
+    @Data
+    public static class History {
+
+        /**
+         * 是否开启写后模式，关闭时在业务事务内同步写入库存记录
+         */
+        private boolean writeBehind = true;
+
+        /**
+         * 内存缓冲队列容量，队列满时不等待，记录留在日志中由后台线程补写
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * 单次批量写库的最大条数
+         */
+        private int batchSize = 500;
+
+        /**
+         * 缓冲队列为空时的最长等待时间，单位：毫秒
+         */
+        private long flushInterval = 200;
+
+        /**
+         * 本地预写日志目录
+         */
+        private String walDir = "./data/wal/inventory-history";
+
+        /**
+         * 单个日志文件的最大字节数，超过后切换新文件
+         */
+        private long segmentSize = 16 * 1024 * 1024;
+
+        /**
+         * 关闭时等待缓冲队列写完的最长时间，单位：毫秒，未写完的记录在下次启动时从日志重放
+         */
+        private long shutdownTimeout = 10000;
+    }
+
+    @Data
+    public static class Allocation {
+
+        /**
+         * 未指定时使用的分配策略
+         */
+        private AllocationStrategy strategy = AllocationStrategy.FEFO;
+
+        /**
+         * 是否跳过已过期的库存明细
+         */
+        private boolean skipExpired = true;
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * 是否开启临期预警
+         */
+        private boolean enabled = true;
+
+        /**
+         * 预警提前天数，剩余天数到达其中任一值时预警一次，0 表示已过期
+         */
+        private List<Integer> horizons = List.of(30, 7, 1, 0);
+
+        /**
+         * 预警扫描间隔，单位：毫秒
+         */
+        private long scanInterval = 60000;
+
+        /**
+         * 从数据库全量重建间隔，单位：毫秒，用于修正漏收的变动通知
+         */
+        private long rebuildInterval = 3600000;
+    }
+
+    public enum AllocationStrategy {
+        /**
+         * 先过期先出，无过期时间的排在最后，过期时间相同按入库先后
+         */
+        FEFO,
+        /**
+         * 先入先出，按入库时间
+         */
+        FIFO
+    }
+
+    public enum LockMode {
+        /**
+         * 进程内分段锁，仅单节点部署时使用
+         */
+        LOCAL,
+        /**
+         * 进程内分段锁 + Redisson 分布式锁，多节点部署时使用
+         */
+        REDISSON
+    }
+}
@@ -1,24 +1,26 @@
 package com.ruoyi.wms.controller;
 
 import cn.dev33.satoken.annotation.SaIgnore;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ruoyi.common.core.domain.R;
 import com.ruoyi.common.satoken.utils.LoginHelper;
+import com.ruoyi.wms.core.dify.DifyWorkflowClient;
+import com.ruoyi.wms.core.ingest.JsonArrayImporter;
+import com.ruoyi.wms.core.ingest.JsonImportResult;
+import com.ruoyi.wms.domain.entity.CryptoMarketCandle;
 import com.ruoyi.wms.domain.entity.CryptoMarketData;
 import com.ruoyi.wms.service.CryptoMarketDataService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @SaIgnore
@@ -28,101 +30,51 @@ import java.util.stream.Collectors;
 public class CryptoMarketDataController {
 
     private final CryptoMarketDataService marketDataService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DifyWorkflowClient difyWorkflowClient;
+    private final JsonArrayImporter jsonArrayImporter;
+    private final ObjectMapper objectMapper;
 
     /*
     *  请求智能体分析报告
+    *  异步等待工作流结束后一次性返回
     */
     @PostMapping("/dify/chat-messages")
-    public String chatMessages() {
-        Long userId = LoginHelper.getUserId();
-        String Dify_API_KEY = "app-XCDiEV00OOooKcksPQbz6Y69";
-        String url = "http://127.0.0.1/v1/workflows/run";
-
-        try {
-            URL workflowUrl = new URL(url);
-            HttpURLConnection connection = (HttpURLConnection) workflowUrl.openConnection();
-
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Authorization", "Bearer " + Dify_API_KEY);
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setDoOutput(true);
-            Map<String, Object> requestBody = new HashMap<>();
-            Map<String, Object> inputs = new HashMap<>();
-            inputs.put("id", userId != null ? userId : 0);
-            requestBody.put("inputs", inputs);
-            requestBody.put("user", userId != null ? "user-" + userId : "anonymous");
-            requestBody.put("response_mode", "streaming");
-
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            System.out.println("Sending request: " + jsonBody);
-
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonBody.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            int responseCode = connection.getResponseCode();
-            System.out.println("Response Code: " + responseCode);
-
-            if (responseCode != 200) {
-                InputStream errorStream = connection.getErrorStream();
-                if (errorStream != null) {
-                    try (BufferedReader br = new BufferedReader(new InputStreamReader(errorStream, StandardCharsets.UTF_8))) {
-                        StringBuilder errorResponse = new StringBuilder();
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            errorResponse.append(line);
-                        }
-                        System.err.println("Error Response: " + errorResponse.toString());
-                        return "{\"error\":\"HTTP " + responseCode + ": " + errorResponse.toString() + "\"}";
-                    }
-                }
-            }
+    public DeferredResult<String> chatMessages() {
+        return difyWorkflowClient.collect(LoginHelper.getUserId());
+    }
 
-            try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                StringBuilder response = new StringBuilder();
-                String responseLine;
-                while ((responseLine = br.readLine()) != null) {
-                    response.append(responseLine.trim());
-                }
-                return response.toString();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "{\"error\":\"" + e.getMessage() + "\"}";
-        }
+    /*
+    *  请求智能体分析报告（流式）
+    *  工作流的事件到达即推送给浏览器
+    */
+    @PostMapping(value = "/dify/chat-messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatMessagesStream() {
+        return difyWorkflowClient.stream(LoginHelper.getUserId());
     }
     /*
     * 导入网页爬取内容
+    * 请求体流式解析，逐批入库，单行失败不影响其他行
     */
     @PostMapping("/import")
     @SaIgnore
-    public R<Integer> importData(@RequestBody String body) {
-        try {
-            List<CryptoMarketData> items;
-            String trimmed = body == null ? "" : body.trim();
-            if (trimmed.startsWith("[")) {
-                items = objectMapper.readValue(trimmed, new TypeReference<List<CryptoMarketData>>() {});
-            } else {
-                Map<String, Object> obj = objectMapper.readValue(trimmed, new TypeReference<Map<String, Object>>() {});
-                Object test = obj.get("test");
-                if (test == null) {
-                    return R.fail("参数不能为空，需直接传数组或对象中包含test字段");
-                }
-                String payload = (test instanceof String) ? (String) test : objectMapper.writeValueAsString(test);
-                items = objectMapper.readValue(payload, new TypeReference<List<CryptoMarketData>>() {});
-            }
-            LocalDateTime now = LocalDateTime.now();
-            List<CryptoMarketData> toSave = items.stream().peek(i -> i.setCreateTime(now)).collect(Collectors.toList());
-            boolean ok = marketDataService.saveBatch(toSave);
-            if (!ok) {
-                return R.fail("保存失败");
-            }
-            return R.ok(toSave.size());
-        } catch (Exception e) {
-            return R.fail("解析或保存失败: " + e.getMessage());
-        }
+    public R<JsonImportResult> importData(HttpServletRequest request) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        JsonImportResult result = jsonArrayImporter.importArray(request.getInputStream(), List.of("test"), node -> {
+            CryptoMarketData item = objectMapper.treeToValue(node, CryptoMarketData.class);
+            item.setCreateTime(now);
+            return item;
+        }, marketDataService);
+        return R.ok(result);
+    }
+
+    /*
+    * 查询K线，最近窗口内的数据直接从内存返回
+    */
+    @GetMapping("/candles")
+    public R<List<CryptoMarketCandle>> candles(@RequestParam String name,
+                                               @RequestParam(defaultValue = "1h") String period,
+                                               @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+                                               @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+        return R.ok(marketDataService.queryCandles(name, period, startTime, endTime));
     }
 }
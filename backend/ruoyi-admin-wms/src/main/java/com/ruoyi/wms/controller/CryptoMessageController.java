@@ -2,11 +2,10 @@ package com.ruoyi.wms.controller;
 
 
 import cn.dev33.satoken.annotation.SaIgnore;
-import cn.hutool.core.util.StrUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ruoyi.common.core.domain.R;
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.wms.domain.entity.CryptoMessage;
 import com.ruoyi.wms.domain.query.CryptoMessageQuery;
 import com.ruoyi.wms.service.CryptoMessageService;
@@ -39,37 +38,7 @@ public class CryptoMessageController {
     @GetMapping("/list")
 // 直接使用Query类作为参数，Spring自动完成请求参数绑定
     public R<Page<CryptoMessage>> list(CryptoMessageQuery query) {
-        Page<CryptoMessage> page = new Page<>(query.getPageNum(), query.getPageSize());
-        // 构建查询条件
-        LambdaQueryWrapper<CryptoMessage> queryWrapper = new LambdaQueryWrapper<>();
-        // 币种筛选
-        if (StrUtil.isNotBlank(query.getCoin()) && !"all".equals(query.getCoin())) {
-            queryWrapper.eq(CryptoMessage::getCoin, query.getCoin());
-        }
-        // 情感倾向筛选
-        if (StrUtil.isNotBlank(query.getSentiment()) && !"all".equals(query.getSentiment())) {
-            queryWrapper.eq(CryptoMessage::getSentiment, query.getSentiment());
-        }
-        // 阅读状态筛选
-        if (query.getStatus() != null) {
-            queryWrapper.eq(CryptoMessage::getStatus, query.getStatus());
-        }
-        // 关键词搜索
-        if (StrUtil.isNotBlank(query.getKeyword())) {
-            queryWrapper.and(wrapper -> wrapper
-                .like(CryptoMessage::getTitle, query.getKeyword())
-                .or()
-                .like(CryptoMessage::getContent, query.getKeyword())
-            );
-        }
-        if (query.getStartTime() != null) {
-            queryWrapper.ge(CryptoMessage::getPublishTime, query.getStartTime());
-        }
-        // 倒序
-        queryWrapper.orderByDesc(CryptoMessage::getPublishTime);
-        // 执行分页查询
-        Page<CryptoMessage> result = messageService.page(page, queryWrapper);
-        return R.ok(result);
+        return R.ok(messageService.queryPageList(query));
     }
 
     /**
@@ -81,16 +50,10 @@ public class CryptoMessageController {
     @SaIgnore
     @GetMapping("/{id}")
     public R<CryptoMessage> detail(@PathVariable Long id) {
-        CryptoMessage message = messageService.getById(id);
+        CryptoMessage message = messageService.readMessage(id);
         if (message == null) {
             return R.fail("消息不存在");
         }
-        if (0 == message.getStatus()) {
-            CryptoMessage updateMsg = new CryptoMessage();
-            updateMsg.setId(id);
-            updateMsg.setStatus(1);
-            messageService.updateById(updateMsg);
-        }
         return R.ok(message);
     }
     /**
@@ -100,11 +63,17 @@ public class CryptoMessageController {
     @SaIgnore
     @GetMapping("/unread/list")
     public R<List<CryptoMessage>> getUnreadMessages() {
-        LambdaQueryWrapper<CryptoMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(CryptoMessage::getStatus, 0);
-//        queryWrapper.orderByDesc(CryptoMessage::getPublishTime); // 按发布时间倒序排列
-        List<CryptoMessage> unreadMessages = messageService.list(queryWrapper);
-        return R.ok(unreadMessages);
+        return R.ok(messageService.listUnread());
+    }
+
+    /**
+     * 未读消息游标分页，按消息ID倒序
+     * 首页传空的 cursor，下一页传上一页返回的 nextCursor
+     */
+    @SaIgnore
+    @GetMapping("/unread/page")
+    public TableDataInfo<CryptoMessage> getUnreadPage(PageQuery pageQuery) {
+        return messageService.pageUnread(pageQuery);
     }
 
     /**
@@ -114,10 +83,7 @@ public class CryptoMessageController {
     @SaIgnore
     @GetMapping("/unread/count")
     public R<Long> getUnreadCount() {
-        LambdaQueryWrapper<CryptoMessage> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(CryptoMessage::getStatus, 0);
-        long count = messageService.count(queryWrapper);
-        return R.ok(count);
+        return R.ok(messageService.countUnread());
     }
 
     /**
@@ -147,7 +113,7 @@ public class CryptoMessageController {
                 }
             }
             // 使用批量保存，提高效率
-            boolean result = messageService.saveBatch(messages);
+            boolean result = messageService.saveMessages(messages);
             if (result) {
 //                log.info("成功保存 {} 条加密货币消息", messages.size());
                 return R.ok(String.format("成功保存 %d 条消息", messages.size()));
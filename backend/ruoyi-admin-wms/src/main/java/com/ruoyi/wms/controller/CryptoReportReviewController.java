@@ -15,7 +15,6 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 加密投资报告审核接口
@@ -61,38 +60,23 @@ public class CryptoReportReviewController {
     ) {
         Long uid = userId != null ? userId : LoginHelper.getUserId();
         LambdaQueryWrapper<CryptoReport> reportQuery = new LambdaQueryWrapper<>();
-        if (uid != null) {
-            reportQuery.eq(CryptoReport::getUserId, uid);
-        }
+        reportQuery.eq(uid != null, CryptoReport::getUserId, uid);
+        reportQuery.eq(status != null && !"".equals(status), CryptoReport::getReviewStatus, status);
         Page<CryptoReport> reportPage = reportService.page(new Page<>(pageNum, pageSize), reportQuery.orderByDesc(CryptoReport::getGenerationTime));
-        List<String> reportIds = reportPage.getRecords().stream().map(CryptoReport::getId).collect(Collectors.toList());
-        Map<String, CryptoReportReview> latestMap = new HashMap<>();
-        if (!reportIds.isEmpty()) {
-            LambdaQueryWrapper<CryptoReportReview> reviewQuery = new LambdaQueryWrapper<>();
-            reviewQuery.in(CryptoReportReview::getReportId, reportIds).orderByDesc(CryptoReportReview::getDecisionTime).orderByDesc(CryptoReportReview::getCreateTime);
-            List<CryptoReportReview> reviews = reviewService.list(reviewQuery);
-            for (CryptoReportReview r : reviews) {
-                latestMap.putIfAbsent(r.getReportId(), r);
-            }
-        }
         Page<Map<String, Object>> page = new Page<>(pageNum, pageSize);
         List<Map<String, Object>> records = new ArrayList<>();
         for (CryptoReport rp : reportPage.getRecords()) {
-            CryptoReportReview rv = latestMap.get(rp.getId());
             Map<String, Object> row = new LinkedHashMap<>();
             row.put("reportId", rp.getId());
             row.put("generationTime", rp.getGenerationTime());
             row.put("involvedCurrencies", rp.getInvolvedCurrencies());
             row.put("suggestionType", rp.getSuggestionType());
-            row.put("confidence", rv != null ? rv.getConfidence() : null);
-            row.put("expectedReturn", rv != null ? rv.getExpectedReturn() : null);
-            row.put("status", rv != null ? rv.getStatus() : "待审");
+            row.put("confidence", rp.getReviewConfidence());
+            row.put("expectedReturn", rp.getReviewExpectedReturn());
+            row.put("status", rp.getReviewStatus() != null ? rp.getReviewStatus() : "待审");
             row.put("analyst", "Ai分析师");
             records.add(row);
         }
-        if (status != null && !"".equals(status)) {
-            records = records.stream().filter(m -> status.equals(m.get("status"))).collect(Collectors.toList());
-        }
         page.setTotal(reportPage.getTotal());
         page.setRecords(records);
         return R.ok(page);
@@ -123,6 +107,10 @@ public class CryptoReportReviewController {
     @GetMapping("/{id}/review/latest")
     @SaIgnore
     public R<CryptoReportReview> latestReview(@PathVariable String id) {
+        CryptoReport report = reportService.getById(id);
+        if (report != null && report.getLatestReviewId() != null) {
+            return R.ok(reviewService.getById(report.getLatestReviewId()));
+        }
         LambdaQueryWrapper<CryptoReportReview> query = new LambdaQueryWrapper<>();
         query.eq(CryptoReportReview::getReportId, id).orderByDesc(CryptoReportReview::getDecisionTime).orderByDesc(CryptoReportReview::getCreateTime).last("limit 1");
         List<CryptoReportReview> list = reviewService.list(query);
@@ -169,7 +157,7 @@ public class CryptoReportReviewController {
         rv.setAnalyst(analyst);
         rv.setComment(comment);
         rv.setDecisionTime(LocalDateTime.now());
-        boolean ok = reviewService.save(rv);
+        boolean ok = reviewService.saveReview(rv);
         return ok ? R.ok(true) : R.fail("审核保存失败");
     }
 
@@ -213,7 +201,7 @@ public class CryptoReportReviewController {
         rv.setAnalyst(analyst);
         rv.setComment(comment);
         rv.setDecisionTime(LocalDateTime.now());
-        boolean ok = reviewService.save(rv);
+        boolean ok = reviewService.saveReview(rv);
         return ok ? R.ok(true) : R.fail("审核保存失败");
     }
 
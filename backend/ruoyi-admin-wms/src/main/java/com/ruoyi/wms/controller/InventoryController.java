@@ -64,6 +64,26 @@ public class InventoryController extends BaseController {
         return inventoryService.queryWarehouseBoardList(bo, pageQuery);
     }
 
+    /**
+     * 重建仓库维度看板
+     */
+    @SaCheckPermission("wms:inventory:all")
+    @Log(title = "库存", businessType = BusinessType.OTHER)
+    @PostMapping("/boardList/warehouse/rebuild")
+    public R<Void> rebuildWarehouseBoard() {
+        inventoryService.rebuildWarehouseBoard();
+        return R.ok();
+    }
+
+    /**
+     * 检查仓库维度看板与库存表是否一致
+     */
+    @SaCheckPermission("wms:inventory:all")
+    @GetMapping("/boardList/warehouse/check")
+    public R<List<String>> checkWarehouseBoard() {
+        return R.ok(inventoryService.checkWarehouseBoard());
+    }
+
     /**
      * 导出库存列表
      */
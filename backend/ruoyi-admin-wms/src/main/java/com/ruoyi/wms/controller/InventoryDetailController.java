@@ -4,16 +4,17 @@ import cn.dev33.satoken.annotation.SaCheckPermission;
 import com.ruoyi.common.core.domain.R;
 import com.ruoyi.common.core.validate.AddGroup;
 import com.ruoyi.common.core.validate.EditGroup;
-import com.ruoyi.common.excel.utils.ExcelUtil;
 import com.ruoyi.common.idempotent.annotation.RepeatSubmit;
 import com.ruoyi.common.log.annotation.Log;
 import com.ruoyi.common.log.enums.BusinessType;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.common.web.core.BaseController;
+import com.ruoyi.wms.core.expiry.InventoryExpiryTracker;
 import com.ruoyi.wms.domain.vo.InventoryDetailVo;
 import com.ruoyi.wms.service.InventoryDetailService;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 库存详情
@@ -36,6 +38,7 @@ import java.util.List;
 public class InventoryDetailController extends BaseController {
 
     private final InventoryDetailService inventoryDetailService;
+    private final InventoryExpiryTracker inventoryExpiryTracker;
 
     /**
      * 查询库存详情列表
@@ -55,6 +58,30 @@ public class InventoryDetailController extends BaseController {
         return R.ok(inventoryDetailService.queryList(bo));
     }
 
+    /**
+     * 各仓库临期的库存明细数
+     *
+     * @param days 过期时间在今天到 days 天后之间
+     */
+    @SaCheckPermission("wms:inventoryDetail:all")
+    @GetMapping("/expiring/count")
+    public R<Map<Long, Long>> expiringCount(@Min(value = 0, message = "天数不能小于0") @RequestParam(defaultValue = "30") Integer days) {
+        return R.ok(inventoryExpiryTracker.countExpiring(days));
+    }
+
+    /**
+     * 临期的库存明细，按过期时间正序
+     *
+     * @param warehouseId 仓库，为空时查询全部仓库
+     * @param days 过期时间在今天到 days 天后之间
+     */
+    @SaCheckPermission("wms:inventoryDetail:all")
+    @GetMapping("/expiring/list")
+    public R<List<InventoryDetailVo>> expiringList(@RequestParam(required = false) Long warehouseId,
+                                                   @Min(value = 0, message = "天数不能小于0") @RequestParam(defaultValue = "30") Integer days) {
+        return R.ok(inventoryExpiryTracker.listExpiring(warehouseId, days));
+    }
+
     /**
      * 导出库存详情列表
      */
@@ -62,8 +89,7 @@ public class InventoryDetailController extends BaseController {
     @Log(title = "库存详情", businessType = BusinessType.EXPORT)
     @PostMapping("/export")
     public void export(InventoryDetailBo bo, HttpServletResponse response) {
-        List<InventoryDetailVo> list = inventoryDetailService.queryList(bo);
-        ExcelUtil.exportExcel(list, "库存详情", InventoryDetailVo.class, response);
+        inventoryDetailService.export(bo, response);
     }
 
     /**
@@ -53,8 +53,7 @@ public class InventoryHistoryController extends BaseController {
     @Log(title = "库存记录", businessType = BusinessType.EXPORT)
     @PostMapping("/export")
     public void export(InventoryHistoryBo bo, HttpServletResponse response) {
-        List<InventoryHistoryVo> list = inventoryHistoryService.queryList(bo);
-        ExcelUtil.exportExcel(list, "库存记录", InventoryHistoryVo.class, response);
+        ExcelUtil.exportExcelByBatch(last -> inventoryHistoryService.queryBatchAfter(bo, last), "库存记录", InventoryHistoryVo.class, response);
     }
 
     /**
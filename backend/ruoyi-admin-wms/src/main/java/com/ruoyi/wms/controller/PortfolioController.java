@@ -4,6 +4,7 @@ import cn.dev33.satoken.annotation.SaIgnore;
 import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.wms.domain.entity.PortfolioHistory;
 import com.ruoyi.wms.domain.query.PortfolioQuery;
+import com.ruoyi.wms.domain.vo.PortfolioAnalyticsVo;
 import com.ruoyi.wms.service.PortfolioHistoryService;
 import com.ruoyi.wms.service.PortfolioService;
 import jakarta.annotation.Resource;
@@ -59,6 +60,16 @@ public class PortfolioController {
         return R.ok(portfolioHistory);
     }
 
+    /**
+     * 查询持仓分析：累计收益率、最大回撤、波动率、配置偏离和降采样历史序列
+     * @param portfolioId 持仓id
+     */
+    @GetMapping("/analytics/{portfolioId}")
+    @SaIgnore
+    public R<List<PortfolioAnalyticsVo>> getAnalytics(@PathVariable Integer portfolioId){
+        return R.ok(portfolioHistoryService.getAnalytics(portfolioId));
+    }
+
 
 
 }
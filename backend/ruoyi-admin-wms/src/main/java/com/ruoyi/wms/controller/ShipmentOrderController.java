@@ -12,6 +12,7 @@ import com.ruoyi.common.log.enums.BusinessType;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.common.web.core.BaseController;
+import com.ruoyi.wms.config.properties.InventoryProperties.AllocationStrategy;
 import com.ruoyi.wms.domain.bo.ShipmentOrderBo;
 import com.ruoyi.wms.domain.vo.ShipmentOrderVo;
 import com.ruoyi.wms.service.InventoryDetailService;
@@ -95,6 +96,17 @@ public class ShipmentOrderController extends BaseController {
         return R.ok();
     }
 
+    /**
+     * 自动分配库存明细
+     * 未指定入库记录的明细按策略（FEFO 先过期先出，FIFO 先入先出）拆分并填入入库记录，返回分配后的出库单，不保存
+     */
+    @SaCheckPermission("wms:shipment:all")
+    @PostMapping("/allocate")
+    public R<ShipmentOrderBo> allocate(@RequestBody ShipmentOrderBo bo,
+                                       @RequestParam(required = false) AllocationStrategy strategy) {
+        return R.ok(shipmentOrderService.allocate(bo, strategy));
+    }
+
     /**
      * 出库
      */
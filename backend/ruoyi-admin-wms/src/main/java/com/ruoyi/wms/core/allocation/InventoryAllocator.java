@@ -0,0 +1,347 @@
+package com.ruoyi.wms.core.allocation;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.wms.config.properties.InventoryProperties;
+import com.ruoyi.wms.config.properties.InventoryProperties.AllocationStrategy;
+import com.ruoyi.wms.domain.bo.ShipmentOrderDetailBo;
+import com.ruoyi.wms.domain.entity.InventoryDetail;
+import com.ruoyi.wms.mapper.InventoryDetailMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 出库库存分配
+ * <p>
+ * 按 仓库/库区/规格 在内存中维护剩余数大于0的库存明细，分别按先过期先出（FEFO）和先入先出（FIFO）排序。
+ * 出库明细未指定库存明细时，按策略依次从排在前面的库存明细中分配，一行可能拆成多行，整单分配只读内存。
+ * 库存明细新增、修改、删除和扣减后，事务提交时通过 topic 通知所有节点按id重新加载。
+ * 分配结果不加锁，并发出库时仍以扣减语句中的剩余数校验为准，不足时抛出库存不足异常
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class InventoryAllocator implements ApplicationRunner {
+
+    /**
+     * 库存明细变动通知，消息为 {@link ChangeMessage}，其他按库存明细维护内存索引的组件也订阅该 topic
+     */
+    public static final String CHANGE_TOPIC = "wms:inventory:detail:topic";
+
+    /**
+     * 按id重新加载时每次查询的条数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final Comparator<LocalDateTime> TIME_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private static final Comparator<Lot> FIFO_ORDER = Comparator
+        .comparing(Lot::createTime, TIME_ORDER)
+        .thenComparing(Lot::id);
+
+    private static final Comparator<Lot> FEFO_ORDER = Comparator
+        .comparing(Lot::expirationDate, TIME_ORDER)
+        .thenComparing(FIFO_ORDER);
+
+    private final InventoryDetailMapper inventoryDetailMapper;
+    private final RedissonClient redissonClient;
+    private final InventoryProperties.Allocation properties;
+
+    /**
+     * 仓库/库区/规格 -> 库存明细
+     */
+    private final Map<PlaceKey, Place> places = new ConcurrentHashMap<>();
+
+    /**
+     * 库存明细id -> 仓库/库区/规格
+     */
+    private final Map<Long, PlaceKey> locations = new ConcurrentHashMap<>();
+
+    public InventoryAllocator(InventoryDetailMapper inventoryDetailMapper, RedissonClient redissonClient,
+                              InventoryProperties inventoryProperties) {
+        this.inventoryDetailMapper = inventoryDetailMapper;
+        this.redissonClient = redissonClient;
+        this.properties = inventoryProperties.getAllocation();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RTopic topic = redissonClient.getTopic(CHANGE_TOPIC);
+        topic.addListener(ChangeMessage.class, (channel, msg) -> reload(msg.getIds()));
+        long start = System.currentTimeMillis();
+        List<InventoryDetail> details = inventoryDetailMapper.selectList(Wrappers.<InventoryDetail>lambdaQuery()
+            .select(InventoryDetail::getId, InventoryDetail::getWarehouseId, InventoryDetail::getAreaId,
+                InventoryDetail::getSkuId, InventoryDetail::getRemainQuantity, InventoryDetail::getBatchNo,
+                InventoryDetail::getProductionDate, InventoryDetail::getExpirationDate, InventoryDetail::getCreateTime)
+            .gt(InventoryDetail::getRemainQuantity, BigDecimal.ZERO));
+        details.forEach(this::put);
+        log.info("加载出库分配索引成功，共{}条库存明细，耗时{}ms", details.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 库存明细变动后通知各节点重新加载，存在事务时在提交后通知
+     *
+     * @param ids 变动的库存明细id
+     */
+    public void onChanged(Collection<Long> ids) {
+        List<Long> changed = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (changed.isEmpty()) {
+            return;
+        }
+        ChangeMessage msg = new ChangeMessage(new ArrayList<>(changed));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(msg);
+                }
+            });
+        } else {
+            publish(msg);
+        }
+    }
+
+    /**
+     * 为未指定库存明细的出库明细分配库存明细
+     * <p>
+     * 已指定库存明细的行保持不变，其数量先从对应库存明细中占用。
+     * 未指定的行按策略拆分，每行填入库存明细id、批号、生产日期和过期时间，金额按数量比例拆分
+     *
+     * @param details  出库明细
+     * @param strategy 分配策略，为空时取配置
+     * @return 分配后的出库明细，顺序与原明细一致
+     * @throws ServiceException 可分配数量不足时抛出
+     */
+    public List<ShipmentOrderDetailBo> allocate(List<ShipmentOrderDetailBo> details, AllocationStrategy strategy) {
+        if (CollUtil.isEmpty(details) || details.stream().allMatch(it -> it.getInventoryDetailId() != null)) {
+            return details;
+        }
+        AllocationStrategy actual = strategy != null ? strategy : properties.getStrategy();
+        LocalDateTime now = LocalDateTime.now();
+        // 本次分配已占用的数量
+        Map<Long, BigDecimal> used = new HashMap<>();
+        details.stream()
+            .filter(it -> it.getInventoryDetailId() != null && it.getQuantity() != null)
+            .forEach(it -> used.merge(it.getInventoryDetailId(), it.getQuantity(), BigDecimal::add));
+        // 同一位置的多行共用一个游标，已分配完的库存明细不再遍历
+        Map<PlaceKey, Cursor> cursors = new HashMap<>();
+        List<ShipmentOrderDetailBo> result = new ArrayList<>(details.size());
+        for (ShipmentOrderDetailBo detail : details) {
+            if (detail.getInventoryDetailId() != null) {
+                result.add(detail);
+                continue;
+            }
+            if (detail.getQuantity() == null || detail.getQuantity().signum() <= 0) {
+                throw new ServiceException("出库数量必须大于0");
+            }
+            PlaceKey key = new PlaceKey(detail.getWarehouseId(), detail.getAreaId(), detail.getSkuId());
+            Cursor cursor = cursors.computeIfAbsent(key, k -> new Cursor(snapshot(k, actual, now)));
+            BigDecimal need = detail.getQuantity();
+            List<ShipmentOrderDetailBo> splits = new ArrayList<>();
+            while (need.signum() > 0 && cursor.pos < cursor.lots.size()) {
+                Lot lot = cursor.lots.get(cursor.pos);
+                BigDecimal available = lot.remainQuantity().subtract(used.getOrDefault(lot.id(), BigDecimal.ZERO));
+                if (available.signum() <= 0) {
+                    cursor.pos++;
+                    continue;
+                }
+                BigDecimal take = available.min(need);
+                used.merge(lot.id(), take, BigDecimal::add);
+                splits.add(split(detail, lot, take, splits.isEmpty()));
+                need = need.subtract(take);
+            }
+            if (need.signum() > 0) {
+                throw new ServiceException(StrUtil.format("规格{}在仓库{}库区{}的可分配数量不足，缺少{}",
+                    detail.getSkuId(), detail.getWarehouseId(), detail.getAreaId(), need.stripTrailingZeros().toPlainString()));
+            }
+            splitAmount(detail, splits);
+            result.addAll(splits);
+        }
+        return result;
+    }
+
+    private void publish(ChangeMessage msg) {
+        try {
+            redissonClient.getTopic(CHANGE_TOPIC).publish(msg);
+        } catch (Exception e) {
+            log.error("发布出库分配索引更新失败，本节点直接更新", e);
+            reload(msg.getIds());
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return;
+        }
+        for (List<Long> batch : CollUtil.split(ids, LOAD_BATCH_SIZE)) {
+            Map<Long, InventoryDetail> loaded = new HashMap<>(batch.size() * 2);
+            inventoryDetailMapper.selectBatchIds(batch).forEach(it -> loaded.put(it.getId(), it));
+            for (Long id : batch) {
+                InventoryDetail detail = loaded.get(id);
+                if (detail == null) {
+                    remove(id);
+                } else {
+                    put(detail);
+                }
+            }
+        }
+    }
+
+    private void put(InventoryDetail detail) {
+        remove(detail.getId());
+        if (detail.getRemainQuantity() == null || detail.getRemainQuantity().signum() <= 0) {
+            return;
+        }
+        PlaceKey key = new PlaceKey(detail.getWarehouseId(), detail.getAreaId(), detail.getSkuId());
+        Lot lot = new Lot(detail.getId(), detail.getRemainQuantity(), detail.getBatchNo(),
+            detail.getProductionDate(), detail.getExpirationDate(), detail.getCreateTime());
+        Place place = places.computeIfAbsent(key, k -> new Place());
+        synchronized (place) {
+            place.add(lot);
+        }
+        locations.put(detail.getId(), key);
+    }
+
+    private void remove(Long id) {
+        PlaceKey key = locations.remove(id);
+        Place place = key == null ? null : places.get(key);
+        if (place == null) {
+            return;
+        }
+        synchronized (place) {
+            place.remove(id);
+        }
+    }
+
+    /**
+     * 按策略排好序的可分配库存明细
+     */
+    private List<Lot> snapshot(PlaceKey key, AllocationStrategy strategy, LocalDateTime now) {
+        Place place = places.get(key);
+        if (place == null) {
+            return Collections.emptyList();
+        }
+        synchronized (place) {
+            Collection<Lot> ordered = strategy == AllocationStrategy.FIFO ? place.fifo : place.fefo;
+            List<Lot> lots = new ArrayList<>(ordered.size());
+            for (Lot lot : ordered) {
+                if (properties.isSkipExpired() && lot.expirationDate() != null && lot.expirationDate().isBefore(now)) {
+                    continue;
+                }
+                lots.add(lot);
+            }
+            return lots;
+        }
+    }
+
+    private static ShipmentOrderDetailBo split(ShipmentOrderDetailBo source, Lot lot, BigDecimal quantity, boolean first) {
+        ShipmentOrderDetailBo target = new ShipmentOrderDetailBo();
+        // 拆出的行是新明细，只有第一行沿用原明细id
+        target.setId(first ? source.getId() : null);
+        target.setShipmentOrderId(source.getShipmentOrderId());
+        target.setSkuId(source.getSkuId());
+        target.setWarehouseId(source.getWarehouseId());
+        target.setAreaId(source.getAreaId());
+        target.setRemark(source.getRemark());
+        target.setQuantity(quantity);
+        target.setInventoryDetailId(lot.id());
+        target.setBatchNo(lot.batchNo());
+        target.setProductionDate(lot.productionDate());
+        target.setExpirationDate(lot.expirationDate());
+        return target;
+    }
+
+    /**
+     * 金额按数量比例拆分，尾差计入最后一行
+     */
+    private static void splitAmount(ShipmentOrderDetailBo source, List<ShipmentOrderDetailBo> splits) {
+        BigDecimal amount = source.getAmount();
+        if (amount == null) {
+            return;
+        }
+        int scale = Math.max(amount.scale(), 2);
+        BigDecimal rest = amount;
+        for (int i = 0; i < splits.size(); i++) {
+            ShipmentOrderDetailBo split = splits.get(i);
+            if (i == splits.size() - 1) {
+                split.setAmount(rest);
+            } else {
+                BigDecimal part = amount.multiply(split.getQuantity()).divide(source.getQuantity(), scale, RoundingMode.HALF_UP);
+                split.setAmount(part);
+                rest = rest.subtract(part);
+            }
+        }
+    }
+
+    private record PlaceKey(Long warehouseId, Long areaId, Long skuId) {
+    }
+
+    private record Lot(Long id, BigDecimal remainQuantity, String batchNo, LocalDateTime productionDate,
+                       LocalDateTime expirationDate, LocalDateTime createTime) {
+    }
+
+    /**
+     * 一个 仓库/库区/规格 下的库存明细
+     */
+    private static class Place {
+
+        private final Map<Long, Lot> lots = new HashMap<>();
+        private final TreeSet<Lot> fefo = new TreeSet<>(FEFO_ORDER);
+        private final TreeSet<Lot> fifo = new TreeSet<>(FIFO_ORDER);
+
+        void add(Lot lot) {
+            lots.put(lot.id(), lot);
+            fefo.add(lot);
+            fifo.add(lot);
+        }
+
+        void remove(Long id) {
+            Lot lot = lots.remove(id);
+            if (lot != null) {
+                fefo.remove(lot);
+                fifo.remove(lot);
+            }
+        }
+    }
+
+    private static class Cursor {
+
+        private final List<Lot> lots;
+        private int pos;
+
+        Cursor(List<Lot> lots) {
+            this.lots = lots;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangeMessage implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private List<Long> ids;
+    }
+}
@@ -0,0 +1,501 @@
+package com.ruoyi.wms.core.board;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.wms.domain.bo.InventoryBo;
+import com.ruoyi.wms.domain.entity.ItemSku;
+import com.ruoyi.wms.domain.vo.InventoryVo;
+import com.ruoyi.wms.mapper.InventoryMapper;
+import com.ruoyi.wms.mapper.ItemSkuMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * 仓库维度库存看板
+ * <p>
+ * 按 仓库/商品/规格 物化库存汇总，由 {@link com.ruoyi.wms.service.InventoryService#updateInventoryQuantity} 的增量在事务提交后维护。
+ * Redis hash 为共享存储（数量按分存为整数），增量通过 Lua 脚本 HINCRBY 并递增版本号，累加后的值连同版本号通过 topic 广播，
+ * 各节点忽略版本不新于已应用版本的消息，乱序到达的旧值不会覆盖新值。
+ * 内存中按 仓库/商品/规格 排序的键数组作为分页索引，翻页直接按下标定位，与库存表大小和页码无关；
+ * 键数组按 {@link #BLOCK_SIZE} 分块，每块保存排好序的数量，按最小数量过滤时整块用二分计数，只逐条扫描首尾块和当前页所在块。
+ * 删除库存后汇总为0的键从看板移除，数量为0的键与库存表中不存在的键视为一致。
+ * 重建时先开始记录日志再读库存表，期间的增量同时记入日志 hash，重建结果合并日志后原子替换，不会丢失并发增量；
+ * 读库存表前已提交但刚好在开始记录后才写 Redis 的增量会重复计入，窗口为提交到写 Redis 的毫秒级间隔。
+ * 提交后到写 Redis 之间进程退出会导致汇总偏差，可通过 {@link #check()} 检查、{@link #rebuild()} 重建。
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class WarehouseBoard implements ApplicationRunner {
+
+    /**
+     * 相关 key 使用相同的 hash tag，保证 Lua 脚本在集群模式下落在同一个槽
+     */
+    private static final String CACHE_KEY = "wms:board:{warehouse}";
+    private static final String VERSION_KEY = CACHE_KEY + ":version";
+    private static final String REBUILDING_KEY = CACHE_KEY + ":rebuilding";
+    private static final String JOURNAL_KEY = CACHE_KEY + ":journal";
+    private static final String REBUILD_KEY = CACHE_KEY + ":rebuild";
+    private static final String REBUILD_LOCK_KEY = CACHE_KEY + ":lock";
+    private static final String TOPIC = "wms:board:warehouse:topic";
+    /**
+     * 广播消息中表示需要全量重新加载的字段
+     */
+    private static final String RELOAD = "*";
+    /**
+     * 广播消息中的版本号字段
+     */
+    private static final String VERSION = "#";
+    private static final Codec CODEC = new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE);
+    private static final int SCALE = 2;
+    /**
+     * 分页索引每块的键数
+     */
+    private static final int BLOCK_SIZE = 256;
+    /**
+     * 广播消息中表示键已移除的值
+     */
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    /**
+     * KEYS: 汇总, 版本号, 重建标记, 重建日志；ARGV: 是否移除为0的键, 字段, 增量, ...
+     * 返回 [版本号, 累加后的值...]
+     */
+    private static final String APPLY_SCRIPT = """
+        local version = redis.call('incr', KEYS[2])
+        local journal = redis.call('exists', KEYS[3]) == 1
+        local removeEmpty = ARGV[1] == '1'
+        local result = {version}
+        for i = 2, #ARGV, 2 do
+            local value = redis.call('hincrby', KEYS[1], ARGV[i], ARGV[i + 1])
+            if journal then
+                redis.call('hincrby', KEYS[4], ARGV[i], ARGV[i + 1])
+            end
+            if removeEmpty and value == 0 then
+                redis.call('hdel', KEYS[1], ARGV[i])
+            end
+            result[#result + 1] = value
+        end
+        return result
+        """;
+
+    /**
+     * KEYS: 汇总, 版本号, 重建标记, 重建日志, 重建结果
+     * 把重建期间的增量合并到重建结果后替换汇总，返回新版本号
+     */
+    private static final String SWAP_SCRIPT = """
+        local journal = redis.call('hgetall', KEYS[4])
+        for i = 1, #journal, 2 do
+            redis.call('hincrby', KEYS[5], journal[i], journal[i + 1])
+        end
+        if redis.call('exists', KEYS[5]) == 1 then
+            redis.call('rename', KEYS[5], KEYS[1])
+        else
+            redis.call('del', KEYS[1])
+        end
+        redis.call('del', KEYS[3], KEYS[4])
+        return redis.call('incr', KEYS[2])
+        """;
+
+    private final InventoryMapper inventoryMapper;
+    private final ItemSkuMapper itemSkuMapper;
+    private final RedissonClient redissonClient;
+
+    private final ConcurrentSkipListMap<BoardKey, Long> board = new ConcurrentSkipListMap<>();
+    /**
+     * 每个键最后应用的版本号
+     */
+    private final Map<BoardKey, Long> versions = new ConcurrentHashMap<>();
+    /**
+     * 最近一次全量加载时的版本号，不新于它的消息已包含在加载结果中
+     */
+    private volatile long baseVersion;
+    /**
+     * 分页索引，键集合变化后在下次查询时重建
+     */
+    private volatile BoardIndex index = new BoardIndex(new BoardKey[0], new long[0][]);
+    private volatile boolean keysChanged;
+    private final Map<Long, Long> skuItemMap = new ConcurrentHashMap<>();
+
+    public WarehouseBoard(InventoryMapper inventoryMapper, ItemSkuMapper itemSkuMapper, RedissonClient redissonClient) {
+        this.inventoryMapper = inventoryMapper;
+        this.itemSkuMapper = itemSkuMapper;
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RTopic topic = redissonClient.getTopic(TOPIC);
+        topic.addListener(Map.class, (channel, msg) -> onMessage(msg));
+        if (!loadFromRedis()) {
+            rebuild();
+        }
+        log.info("加载仓库库存看板成功，共{}条", board.size());
+    }
+
+    /**
+     * 应用库存增量，存在事务时在提交后生效
+     * @param list 库存增量，quantity 为带符号的变动数
+     */
+    public void apply(List<InventoryBo> list) {
+        apply(list, false);
+    }
+
+    /**
+     * 应用库存增量，存在事务时在提交后生效
+     * @param list        库存增量，quantity 为带符号的变动数
+     * @param removeEmpty 累加后为0的键是否移除，删除库存时使用
+     */
+    public void apply(List<InventoryBo> list, boolean removeEmpty) {
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        Map<BoardKey, Long> deltaMap = new LinkedHashMap<>();
+        list.forEach(it -> deltaMap.merge(
+            new BoardKey(it.getWarehouseId(), resolveItemId(it.getSkuId()), it.getSkuId()),
+            toCents(it.getQuantity()), Long::sum));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyToRedis(deltaMap, removeEmpty);
+                }
+            });
+        } else {
+            applyToRedis(deltaMap, removeEmpty);
+        }
+    }
+
+    /**
+     * 分页查询，按 仓库、商品、规格 排序，只支持仓库和最小数量过滤
+     */
+    public Page<InventoryVo> page(InventoryBo bo, PageQuery pageQuery) {
+        Page<InventoryVo> page = pageQuery.build();
+        BoardIndex index = index();
+        BoardKey[] keys = index.keys();
+        int from = 0;
+        int to = keys.length;
+        if (bo.getWarehouseId() != null) {
+            from = insertionPoint(keys, BoardKey.first(bo.getWarehouseId()));
+            to = insertionPoint(keys, BoardKey.last(bo.getWarehouseId()));
+        }
+        Long minCents = bo.getMinQuantity() == null ? null : toCents(bo.getMinQuantity());
+        long offset = (page.getCurrent() - 1) * page.getSize();
+        List<InventoryVo> records = new ArrayList<>();
+        long total;
+        if (minCents == null) {
+            // 无数量过滤时按下标定位到当前页
+            total = to - from;
+            for (long i = from + offset; i < to && records.size() < page.getSize(); i++) {
+                addRecord(records, keys[(int) i]);
+            }
+        } else {
+            // 整块落在范围内且不含当前页时按块计数，否则逐条判断
+            total = 0;
+            int i = from;
+            while (i < to) {
+                if (i % BLOCK_SIZE == 0 && i + BLOCK_SIZE <= to) {
+                    long[] values = index.blocks()[i / BLOCK_SIZE];
+                    int count = values.length - lowerBound(values, minCents);
+                    if (total + count <= offset || records.size() >= page.getSize()) {
+                        total += count;
+                        i += BLOCK_SIZE;
+                        continue;
+                    }
+                }
+                Long cents = board.get(keys[i]);
+                if (cents != null && cents >= minCents) {
+                    if (total >= offset && records.size() < page.getSize()) {
+                        addRecord(records, keys[i]);
+                    }
+                    total++;
+                }
+                i++;
+            }
+        }
+        page.setRecords(records);
+        page.setTotal(total);
+        return page;
+    }
+
+    /**
+     * 从库存表全量重建，集群内同时只有一个节点执行
+     */
+    public void rebuild() {
+        RLock lock = redissonClient.getLock(REBUILD_LOCK_KEY);
+        lock.lock();
+        try {
+            // 开始记录重建期间的增量
+            redissonClient.getKeys().delete(JOURNAL_KEY, REBUILD_KEY);
+            redissonClient.getBucket(REBUILDING_KEY, StringCodec.INSTANCE).set("1", Duration.ofMinutes(10));
+            List<WarehouseBoardEntry> entries = inventoryMapper.selectWarehouseBoardSummary();
+            Map<String, Long> values = new HashMap<>(entries.size() * 2);
+            entries.forEach(it -> {
+                BoardKey key = new BoardKey(it.getWarehouseId(), defaultItemId(it.getItemId()), it.getSkuId());
+                values.put(key.toField(), toCents(it.getQuantity()));
+            });
+            if (!values.isEmpty()) {
+                redissonClient.<String, Long>getMap(REBUILD_KEY, CODEC).putAll(values);
+            }
+            redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, SWAP_SCRIPT, RScript.ReturnType.INTEGER,
+                List.<Object>of(CACHE_KEY, VERSION_KEY, REBUILDING_KEY, JOURNAL_KEY, REBUILD_KEY));
+            loadFromRedis();
+            redissonClient.getTopic(TOPIC).publish(new HashMap<>(Map.of(RELOAD, 0L)));
+            log.info("重建仓库库存看板成功，共{}条", values.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 与库存表比对
+     * @return 不一致的记录，为空表示一致
+     */
+    public List<String> check() {
+        Map<BoardKey, Long> expected = inventoryMapper.selectWarehouseBoardSummary().stream()
+            .collect(Collectors.toMap(
+                it -> new BoardKey(it.getWarehouseId(), defaultItemId(it.getItemId()), it.getSkuId()),
+                it -> toCents(it.getQuantity())));
+        List<String> diffs = new ArrayList<>();
+        expected.forEach((key, value) -> {
+            Long actual = board.get(key);
+            if (actual == null ? value != 0 : !actual.equals(value)) {
+                diffs.add(key.toField() + " 库存表=" + fromCents(value) + " 看板=" + (actual == null ? null : fromCents(actual)));
+            }
+        });
+        board.forEach((key, value) -> {
+            if (!expected.containsKey(key) && value != 0) {
+                diffs.add(key.toField() + " 库存表=null 看板=" + fromCents(value));
+            }
+        });
+        return diffs;
+    }
+
+    private void applyToRedis(Map<BoardKey, Long> deltaMap, boolean removeEmpty) {
+        try {
+            List<String> fields = new ArrayList<>(deltaMap.size());
+            List<Object> args = new ArrayList<>(deltaMap.size() * 2 + 1);
+            args.add(removeEmpty ? "1" : "0");
+            deltaMap.forEach((key, delta) -> {
+                fields.add(key.toField());
+                args.add(key.toField());
+                args.add(String.valueOf(delta));
+            });
+            List<Object> result = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, APPLY_SCRIPT,
+                RScript.ReturnType.MULTI, List.<Object>of(CACHE_KEY, VERSION_KEY, REBUILDING_KEY, JOURNAL_KEY), args.toArray());
+            HashMap<String, Long> values = new HashMap<>(fields.size() * 2 + 2);
+            values.put(VERSION, ((Number) result.get(0)).longValue());
+            for (int i = 0; i < fields.size(); i++) {
+                long value = ((Number) result.get(i + 1)).longValue();
+                values.put(fields.get(i), removeEmpty && value == 0 ? REMOVED : value);
+            }
+            redissonClient.getTopic(TOPIC).publish(values);
+        } catch (Exception e) {
+            log.error("更新仓库库存看板失败，请执行一致性检查或重建", e);
+        }
+    }
+
+    private synchronized void onMessage(Map<?, ?> msg) {
+        if (msg.containsKey(RELOAD)) {
+            loadFromRedis();
+            return;
+        }
+        long version = ((Number) msg.get(VERSION)).longValue();
+        msg.forEach((field, value) -> {
+            if (!VERSION.equals(field)) {
+                put(BoardKey.parse((String) field), ((Number) value).longValue(), version);
+            }
+        });
+    }
+
+    private synchronized boolean loadFromRedis() {
+        // 先读版本号再读汇总，汇总至少包含该版本的全部增量
+        long version = redissonClient.getAtomicLong(VERSION_KEY).get();
+        Map<String, Long> values = redissonClient.<String, Long>getMap(CACHE_KEY, CODEC).readAllMap();
+        board.clear();
+        versions.clear();
+        baseVersion = version;
+        values.forEach((field, value) -> {
+            BoardKey key = BoardKey.parse(field);
+            skuItemMap.putIfAbsent(key.skuId(), key.itemId());
+            board.put(key, value);
+        });
+        keysChanged = true;
+        return !values.isEmpty();
+    }
+
+    /**
+     * 版本不新于该键已应用的版本（或全量加载的版本）时忽略，调用方持有 this 锁
+     */
+    private void put(BoardKey key, long cents, long version) {
+        if (version <= versions.getOrDefault(key, baseVersion)) {
+            return;
+        }
+        versions.put(key, version);
+        if (cents == REMOVED) {
+            if (board.remove(key) != null) {
+                keysChanged = true;
+            }
+            return;
+        }
+        skuItemMap.putIfAbsent(key.skuId(), key.itemId());
+        Long old = board.put(key, cents);
+        if (old == null) {
+            keysChanged = true;
+        } else if (!keysChanged) {
+            updateBlock(key, old, cents);
+        }
+    }
+
+    /**
+     * 替换键所在块中的数量，块数组整体替换，查询不需要加锁
+     */
+    private void updateBlock(BoardKey key, long oldCents, long cents) {
+        BoardIndex current = index;
+        int i = Arrays.binarySearch(current.keys(), key);
+        long[] values = i < 0 ? null : current.blocks()[i / BLOCK_SIZE].clone();
+        int at = values == null ? -1 : Arrays.binarySearch(values, oldCents);
+        if (at < 0) {
+            keysChanged = true;
+            return;
+        }
+        values[at] = cents;
+        Arrays.sort(values);
+        current.blocks()[i / BLOCK_SIZE] = values;
+    }
+
+    private BoardIndex index() {
+        if (keysChanged) {
+            synchronized (this) {
+                if (keysChanged) {
+                    keysChanged = false;
+                    BoardKey[] keys = board.keySet().toArray(new BoardKey[0]);
+                    long[][] blocks = new long[(keys.length + BLOCK_SIZE - 1) / BLOCK_SIZE][];
+                    for (int b = 0; b < blocks.length; b++) {
+                        int start = b * BLOCK_SIZE;
+                        long[] values = new long[Math.min(BLOCK_SIZE, keys.length - start)];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = board.getOrDefault(keys[start + i], 0L);
+                        }
+                        Arrays.sort(values);
+                        blocks[b] = values;
+                    }
+                    index = new BoardIndex(keys, blocks);
+                }
+            }
+        }
+        return index;
+    }
+
+    private void addRecord(List<InventoryVo> records, BoardKey key) {
+        Long cents = board.get(key);
+        if (cents != null) {
+            InventoryVo vo = new InventoryVo();
+            vo.setWarehouseId(key.warehouseId());
+            vo.setSkuId(key.skuId());
+            vo.setQuantity(fromCents(cents));
+            records.add(vo);
+        }
+    }
+
+    /**
+     * 有序数组中第一个不小于 value 的下标
+     */
+    private static int lowerBound(long[] values, long value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 哨兵键不在数组中，返回插入位置
+     */
+    private static int insertionPoint(BoardKey[] keys, BoardKey key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private Long resolveItemId(Long skuId) {
+        return skuItemMap.computeIfAbsent(skuId, id -> {
+            ItemSku itemSku = itemSkuMapper.selectById(id);
+            return defaultItemId(itemSku == null ? null : itemSku.getItemId());
+        });
+    }
+
+    private static Long defaultItemId(Long itemId) {
+        return itemId == null ? 0L : itemId;
+    }
+
+    private static long toCents(BigDecimal quantity) {
+        return quantity.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * 有序键数组和按 {@link #BLOCK_SIZE} 分块排好序的数量
+     */
+    private record BoardIndex(BoardKey[] keys, long[][] blocks) {
+    }
+
+    private record BoardKey(Long warehouseId, Long itemId, Long skuId) implements Comparable<BoardKey> {
+
+        static BoardKey first(Long warehouseId) {
+            return new BoardKey(warehouseId, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+
+        static BoardKey last(Long warehouseId) {
+            return new BoardKey(warehouseId, Long.MAX_VALUE, Long.MAX_VALUE);
+        }
+
+        static BoardKey parse(String field) {
+            String[] parts = field.split(":");
+            return new BoardKey(Long.valueOf(parts[0]), Long.valueOf(parts[1]), Long.valueOf(parts[2]));
+        }
+
+        String toField() {
+            return warehouseId + ":" + itemId + ":" + skuId;
+        }
+
+        @Override
+        public int compareTo(BoardKey o) {
+            int result = warehouseId.compareTo(o.warehouseId);
+            if (result == 0) {
+                result = itemId.compareTo(o.itemId);
+            }
+            return result == 0 ? skuId.compareTo(o.skuId) : result;
+        }
+    }
+}
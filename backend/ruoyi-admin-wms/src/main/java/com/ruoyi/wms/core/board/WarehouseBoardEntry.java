@@ -0,0 +1,34 @@
+package com.ruoyi.wms.core.board;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 仓库维度库存汇总行
+ *
+ * @author zcc
+ */
+@Data
+public class WarehouseBoardEntry {
+
+    /**
+     * 所属仓库
+     */
+    private Long warehouseId;
+
+    /**
+     * 商品ID
+     */
+    private Long itemId;
+
+    /**
+     * 规格ID
+     */
+    private Long skuId;
+
+    /**
+     * 库存汇总
+     */
+    private BigDecimal quantity;
+}
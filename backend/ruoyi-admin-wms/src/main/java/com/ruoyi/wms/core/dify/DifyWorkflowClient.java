@@ -0,0 +1,272 @@
+package com.ruoyi.wms.core.dify;
+
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.common.json.utils.JsonUtils;
+import com.ruoyi.wms.config.properties.DifyProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Dify 工作流客户端
+ * <p>
+ * 共用一个 JDK HttpClient（连接池 + 异步 IO），上游的 SSE 按事件转发给浏览器，不占用请求线程等待模型输出。
+ * 按用户和全局限制同时运行的工作流数，超过运行时长或客户端断开时取消上游请求
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class DifyWorkflowClient {
+
+    private final DifyProperties properties;
+    private final HttpClient httpClient;
+    private final Semaphore permits;
+    private final Map<String, Integer> userRuns = new ConcurrentHashMap<>();
+
+    public DifyWorkflowClient(DifyProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(properties.getConnectTimeout()))
+            .build();
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+    }
+
+    /**
+     * 运行工作流，事件到达即转发给客户端
+     *
+     * @param userId 用户ID，未登录为 null
+     */
+    public SseEmitter stream(Long userId) {
+        SseEmitter emitter = new SseEmitter(properties.getRunTimeout());
+        SseRelay relay = new SseRelay(emitter);
+        Runnable release;
+        try {
+            release = acquire(userId);
+        } catch (ServiceException e) {
+            // 响应类型已是 text/event-stream，以事件返回
+            relay.fail(e.getMessage());
+            return emitter;
+        }
+        CompletableFuture<HttpResponse<String>> future;
+        try {
+            future = httpClient.sendAsync(buildRequest(userId), info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.<SseRelay, String>fromLineSubscriber(relay, subscriber -> null, StandardCharsets.UTF_8, null)
+                : HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        future.whenComplete((response, e) -> {
+            release.run();
+            if (e != null) {
+                if (!relay.isCancelled()) {
+                    log.error("Dify 工作流请求失败", e);
+                    relay.fail("请求智能体失败");
+                }
+            } else if (response.statusCode() != 200) {
+                log.error("Dify 工作流返回 HTTP {}: {}", response.statusCode(), response.body());
+                relay.fail("HTTP " + response.statusCode() + ": " + response.body());
+            }
+        });
+        Runnable cancel = () -> {
+            relay.cancel();
+            future.cancel(true);
+        };
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        emitter.onCompletion(cancel);
+        return emitter;
+    }
+
+    /**
+     * 运行工作流，返回上游的完整输出，行之间不保留换行
+     *
+     * @param userId 用户ID，未登录为 null
+     */
+    public DeferredResult<String> collect(Long userId) {
+        Runnable release = acquire(userId);
+        DeferredResult<String> result = new DeferredResult<>(properties.getRunTimeout(),
+            () -> JsonUtils.toJsonString(Map.of("error", "请求智能体超时")));
+        CompletableFuture<HttpResponse<String>> future;
+        try {
+            future = httpClient.sendAsync(buildRequest(userId), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        future.whenComplete((response, e) -> {
+            release.run();
+            if (e != null) {
+                if (!future.isCancelled()) {
+                    log.error("Dify 工作流请求失败", e);
+                }
+                result.setResult(JsonUtils.toJsonString(Map.of("error", "请求智能体失败")));
+            } else if (response.statusCode() != 200) {
+                log.error("Dify 工作流返回 HTTP {}: {}", response.statusCode(), response.body());
+                result.setResult(JsonUtils.toJsonString(Map.of("error", "HTTP " + response.statusCode() + ": " + response.body())));
+            } else {
+                result.setResult(response.body().lines().map(String::trim).collect(Collectors.joining()));
+            }
+        });
+        result.onCompletion(() -> future.cancel(true));
+        return result;
+    }
+
+    private HttpRequest buildRequest(Long userId) {
+        Map<String, Object> body = Map.of(
+            "inputs", Map.of("id", userId != null ? userId : 0),
+            "user", userId != null ? "user-" + userId : "anonymous",
+            "response_mode", "streaming");
+        return HttpRequest.newBuilder(URI.create(properties.getWorkflowUrl()))
+            .timeout(Duration.ofMillis(properties.getRunTimeout()))
+            .header("Authorization", "Bearer " + properties.getApiKey())
+            .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(JsonUtils.toJsonString(body), StandardCharsets.UTF_8))
+            .build();
+    }
+
+    /**
+     * 占用一个运行名额，返回只会生效一次的释放操作
+     */
+    private Runnable acquire(Long userId) {
+        String user = userId != null ? String.valueOf(userId) : "anonymous";
+        if (!permits.tryAcquire()) {
+            throw new ServiceException("智能体繁忙，请稍后再试");
+        }
+        AtomicBoolean accepted = new AtomicBoolean();
+        userRuns.compute(user, (k, runs) -> {
+            int current = runs == null ? 0 : runs;
+            if (current >= properties.getMaxConcurrentPerUser()) {
+                return runs;
+            }
+            accepted.set(true);
+            return current + 1;
+        });
+        if (!accepted.get()) {
+            permits.release();
+            throw new ServiceException("已有分析正在进行，请等待完成后再试");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                userRuns.computeIfPresent(user, (k, runs) -> runs <= 1 ? null : runs - 1);
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * 把上游 SSE 按行解析成事件写给客户端，每写完一行再向上游请求下一行
+     */
+    private static class SseRelay implements Flow.Subscriber<String> {
+
+        private final SseEmitter emitter;
+        private final StringBuilder data = new StringBuilder();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private String event;
+
+        SseRelay(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            try {
+                if (line.isEmpty()) {
+                    dispatch();
+                } else if (line.startsWith("data:")) {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(5).trim());
+                } else if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                }
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // 由 sendAsync 的结果统一处理
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                dispatch();
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                cancel();
+            }
+        }
+
+        void fail(String message) {
+            try {
+                emitter.send(SseEmitter.event().name("error").data(message));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+
+        private void dispatch() throws IOException {
+            if (data.isEmpty()) {
+                event = null;
+                return;
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().data(data.toString());
+            if (event != null) {
+                builder.name(event);
+            }
+            emitter.send(builder);
+            data.setLength(0);
+            event = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ruoyi.wms.core.exception;
+
+import com.ruoyi.common.core.exception.base.BaseException;
+import lombok.Getter;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 库存不足异常
+ *
+ * @author zcc
+ */
+@Getter
+public class InsufficientStockException extends BaseException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 剩余数量不足的库存记录id
+     */
+    private final List<Long> inventoryDetailIds;
+
+    public InsufficientStockException(List<Long> inventoryDetailIds) {
+        super("wms", "库存不足，库存记录：" + inventoryDetailIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        this.inventoryDetailIds = inventoryDetailIds;
+    }
+}
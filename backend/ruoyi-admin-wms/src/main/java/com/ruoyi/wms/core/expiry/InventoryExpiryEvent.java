@@ -0,0 +1,39 @@
+package com.ruoyi.wms.core.expiry;
+
+import com.ruoyi.wms.domain.vo.InventoryDetailVo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 库存临期预警事件
+ *
+ * @author zcc
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryExpiryEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 仓库
+     */
+    private Long warehouseId;
+
+    /**
+     * 预警提前天数，0 表示已过期
+     */
+    private Integer horizon;
+
+    /**
+     * 本次跨过预警天数的库存明细
+     */
+    private List<InventoryDetailVo> lots;
+}
@@ -0,0 +1,274 @@
+package com.ruoyi.wms.core.expiry;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ruoyi.common.core.utils.SpringUtils;
+import com.ruoyi.wms.config.properties.InventoryProperties;
+import com.ruoyi.wms.core.allocation.InventoryAllocator;
+import com.ruoyi.wms.domain.entity.InventoryDetail;
+import com.ruoyi.wms.domain.vo.InventoryDetailVo;
+import com.ruoyi.wms.mapper.InventoryDetailMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存临期预警
+ * <p>
+ * 按仓库在内存中维护剩余数大于0且有过期时间的库存明细，按 过期时间+id 排序，临期数量和列表直接读内存。
+ * 库存明细变动时订阅 {@link InventoryAllocator#CHANGE_TOPIC} 按id重新加载，并定期从数据库全量重建修正偏差。
+ * 定时扫描上次扫描到本次之间跨过各预警天数的库存明细，发布 {@link InventoryExpiryEvent}；
+ * 同一库存明细同一预警天数通过 Redis 去重，多节点只预警一次
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class InventoryExpiryTracker implements ApplicationRunner {
+
+    private static final String ALERTED_KEY_PREFIX = "wms:inventory:expiry:alerted:";
+
+    private final InventoryDetailMapper inventoryDetailMapper;
+    private final RedissonClient redissonClient;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final InventoryProperties.Expiry properties;
+
+    /**
+     * 仓库 -> (过期时间, id) -> 库存明细
+     */
+    private final Map<Long, ConcurrentSkipListMap<ExpiryKey, Lot>> warehouses = new ConcurrentHashMap<>();
+
+    /**
+     * 库存明细id -> 库存明细
+     */
+    private final Map<Long, Lot> lots = new ConcurrentHashMap<>();
+
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private LocalDateTime lastScanTime;
+
+    public InventoryExpiryTracker(InventoryDetailMapper inventoryDetailMapper, RedissonClient redissonClient,
+                                  ScheduledExecutorService scheduledExecutorService, InventoryProperties inventoryProperties) {
+        this.inventoryDetailMapper = inventoryDetailMapper;
+        this.redissonClient = redissonClient;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.properties = inventoryProperties.getExpiry();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        RTopic topic = redissonClient.getTopic(InventoryAllocator.CHANGE_TOPIC);
+        topic.addListener(InventoryAllocator.ChangeMessage.class, (channel, msg) -> reload(msg.getIds()));
+        rebuild();
+        // 启动前已跨过的预警不再补发
+        lastScanTime = LocalDateTime.now();
+        tasks.add(scheduledExecutorService.scheduleWithFixedDelay(this::scanQuietly,
+            properties.getScanInterval(), properties.getScanInterval(), TimeUnit.MILLISECONDS));
+        tasks.add(scheduledExecutorService.scheduleWithFixedDelay(this::rebuildQuietly,
+            properties.getRebuildInterval(), properties.getRebuildInterval(), TimeUnit.MILLISECONDS));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * 从数据库全量重建
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<InventoryDetail> details = inventoryDetailMapper.selectList(Wrappers.<InventoryDetail>lambdaQuery()
+            .select(InventoryDetail::getId, InventoryDetail::getWarehouseId, InventoryDetail::getAreaId,
+                InventoryDetail::getSkuId, InventoryDetail::getOrderNo, InventoryDetail::getBatchNo,
+                InventoryDetail::getRemainQuantity, InventoryDetail::getExpirationDate)
+            .gt(InventoryDetail::getRemainQuantity, BigDecimal.ZERO)
+            .isNotNull(InventoryDetail::getExpirationDate));
+        Set<Long> ids = new HashSet<>(details.size() * 2);
+        details.forEach(detail -> {
+            ids.add(detail.getId());
+            put(detail);
+        });
+        new ArrayList<>(lots.keySet()).stream().filter(id -> !ids.contains(id)).forEach(this::remove);
+        log.info("构建库存临期索引成功，共{}条，耗时{}ms", details.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 各仓库临期的库存明细数，临期指过期时间在今天0点到 days 天后0点之间
+     */
+    public Map<Long, Long> countExpiring(int days) {
+        LocalDateTime from = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
+        LocalDateTime to = from.plusDays(days);
+        Map<Long, Long> counts = new TreeMap<>();
+        warehouses.forEach((warehouseId, index) -> {
+            int count = range(index, from, to).size();
+            if (count > 0) {
+                counts.put(warehouseId, (long) count);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * 仓库临期的库存明细，按过期时间正序
+     *
+     * @param warehouseId 仓库，为空时查询全部仓库
+     */
+    public List<InventoryDetailVo> listExpiring(Long warehouseId, int days) {
+        LocalDateTime from = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
+        LocalDateTime to = from.plusDays(days);
+        List<InventoryDetailVo> list = new ArrayList<>();
+        if (warehouseId != null) {
+            ConcurrentSkipListMap<ExpiryKey, Lot> index = warehouses.get(warehouseId);
+            if (index != null) {
+                range(index, from, to).values().forEach(lot -> list.add(lot.toVo()));
+            }
+            return list;
+        }
+        warehouses.values().forEach(index -> range(index, from, to).values().forEach(lot -> list.add(lot.toVo())));
+        list.sort(Comparator.comparing(InventoryDetailVo::getExpirationDate).thenComparing(InventoryDetailVo::getId));
+        return list;
+    }
+
+    private synchronized void reload(List<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return;
+        }
+        Map<Long, InventoryDetail> loaded = new HashMap<>(ids.size() * 2);
+        inventoryDetailMapper.selectBatchIds(ids).forEach(it -> loaded.put(it.getId(), it));
+        for (Long id : ids) {
+            InventoryDetail detail = loaded.get(id);
+            if (detail == null) {
+                remove(id);
+            } else {
+                put(detail);
+            }
+        }
+    }
+
+    private void put(InventoryDetail detail) {
+        remove(detail.getId());
+        if (detail.getExpirationDate() == null || detail.getRemainQuantity() == null || detail.getRemainQuantity().signum() <= 0) {
+            return;
+        }
+        Lot lot = new Lot(detail.getId(), detail.getWarehouseId(), detail.getAreaId(), detail.getSkuId(),
+            detail.getOrderNo(), detail.getBatchNo(), detail.getRemainQuantity(), detail.getExpirationDate());
+        warehouses.computeIfAbsent(lot.warehouseId(), k -> new ConcurrentSkipListMap<>()).put(lot.key(), lot);
+        lots.put(lot.id(), lot);
+    }
+
+    private void remove(Long id) {
+        Lot lot = lots.remove(id);
+        if (lot == null) {
+            return;
+        }
+        ConcurrentSkipListMap<ExpiryKey, Lot> index = warehouses.get(lot.warehouseId());
+        if (index != null) {
+            index.remove(lot.key());
+        }
+    }
+
+    /**
+     * 扫描上次扫描后跨过各预警天数的库存明细
+     */
+    private void scan() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime last = lastScanTime;
+        lastScanTime = now;
+        for (Integer horizon : properties.getHorizons()) {
+            LocalDateTime from = last.plusDays(horizon);
+            LocalDateTime to = now.plusDays(horizon);
+            warehouses.forEach((warehouseId, index) -> {
+                List<InventoryDetailVo> crossed = new ArrayList<>();
+                index.subMap(new ExpiryKey(from, Long.MAX_VALUE), false, new ExpiryKey(to, Long.MAX_VALUE), true)
+                    .values()
+                    .stream()
+                    .filter(lot -> markAlerted(lot, horizon))
+                    .forEach(lot -> crossed.add(lot.toVo()));
+                if (!crossed.isEmpty()) {
+                    log.warn("仓库{}有{}条库存明细{}", warehouseId, crossed.size(), horizon == 0 ? "已过期" : "将在" + horizon + "天后过期");
+                    SpringUtils.context().publishEvent(new InventoryExpiryEvent(warehouseId, horizon, crossed));
+                }
+            });
+        }
+    }
+
+    /**
+     * 标记已预警，已由其他节点预警时返回 false
+     */
+    private boolean markAlerted(Lot lot, int horizon) {
+        Duration ttl = Duration.ofDays(horizon + 1L);
+        return redissonClient.<String>getBucket(ALERTED_KEY_PREFIX + lot.id() + ":" + horizon, StringCodec.INSTANCE)
+            .setIfAbsent("1", ttl);
+    }
+
+    private void scanQuietly() {
+        try {
+            scan();
+        } catch (Exception e) {
+            log.error("库存临期扫描失败", e);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("重建库存临期索引失败", e);
+        }
+    }
+
+    private static NavigableMap<ExpiryKey, Lot> range(ConcurrentSkipListMap<ExpiryKey, Lot> index,
+                                                      LocalDateTime from, LocalDateTime to) {
+        return index.subMap(new ExpiryKey(from, Long.MIN_VALUE), true, new ExpiryKey(to, Long.MAX_VALUE), true);
+    }
+
+    private record ExpiryKey(LocalDateTime expirationDate, Long id) implements Comparable<ExpiryKey> {
+
+        @Override
+        public int compareTo(ExpiryKey o) {
+            int result = expirationDate.compareTo(o.expirationDate);
+            return result == 0 ? id.compareTo(o.id) : result;
+        }
+    }
+
+    private record Lot(Long id, Long warehouseId, Long areaId, Long skuId, String orderNo, String batchNo,
+                       BigDecimal remainQuantity, LocalDateTime expirationDate) {
+
+        ExpiryKey key() {
+            return new ExpiryKey(expirationDate, id);
+        }
+
+        InventoryDetailVo toVo() {
+            InventoryDetailVo vo = new InventoryDetailVo();
+            vo.setId(id);
+            vo.setWarehouseId(warehouseId);
+            vo.setAreaId(areaId);
+            vo.setSkuId(skuId);
+            vo.setOrderNo(orderNo);
+            vo.setBatchNo(batchNo);
+            vo.setRemainQuantity(remainQuantity);
+            vo.setExpirationDate(expirationDate);
+            return vo;
+        }
+    }
+}
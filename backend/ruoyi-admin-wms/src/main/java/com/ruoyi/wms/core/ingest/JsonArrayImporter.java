@@ -0,0 +1,156 @@
+package com.ruoyi.wms.core.ingest;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.core.exception.ServiceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON 数组流式导入
+ * <p>
+ * 请求体可以直接是数组，也可以是对象中的某个字段为数组（或数组序列化成的字符串）。
+ * 按 token 逐个读取数组元素，转换后攒够一批即入库，内存占用与请求体大小无关。
+ * 单行转换或入库失败只记录该行错误；批量入库失败时逐行重试定位失败行。已入库的批次不随后续错误回滚
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JsonArrayImporter {
+
+    /**
+     * 每批入库的行数
+     */
+    public static final int BATCH_SIZE = 500;
+
+    /**
+     * 回执中保留的错误信息条数
+     */
+    public static final int MAX_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 导入
+     *
+     * @param in        请求体
+     * @param fields    请求体为对象时承载数组的字段，取最先出现的一个
+     * @param rowMapper 把数组元素转换为实体，抛出异常表示该行无效
+     * @param service   入库使用的 service
+     */
+    public <T> JsonImportResult importArray(InputStream in, List<String> fields,
+                                            RowMapper<T> rowMapper, IService<T> service) throws IOException {
+        JsonImportResult result = new JsonImportResult();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readArray(parser, rowMapper, service, result);
+                return result;
+            }
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (!fields.contains(name) || value == JsonToken.VALUE_NULL) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    if (value == JsonToken.START_ARRAY) {
+                        readArray(parser, rowMapper, service, result);
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        // 数组被序列化成了字符串，只能从该字符串再解析一次
+                        try (JsonParser inner = objectMapper.createParser(parser.getText())) {
+                            if (inner.nextToken() != JsonToken.START_ARRAY) {
+                                throw new ServiceException(StrUtil.format("字段{}不是数组", name));
+                            }
+                            readArray(inner, rowMapper, service, result);
+                        }
+                    } else {
+                        throw new ServiceException(StrUtil.format("字段{}不是数组", name));
+                    }
+                    return result;
+                }
+            }
+            throw new ServiceException(StrUtil.format("参数不能为空，需直接传数组或对象中包含{}字段", String.join("或", fields)));
+        }
+    }
+
+    private <T> void readArray(JsonParser parser, RowMapper<T> rowMapper, IService<T> service,
+                               JsonImportResult result) throws IOException {
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> rowNums = new ArrayList<>(BATCH_SIZE);
+        int rowNum = 0;
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                rowNum++;
+                JsonNode node = parser.readValueAsTree();
+                T row;
+                try {
+                    row = token == JsonToken.VALUE_NULL ? null : rowMapper.map(node);
+                } catch (Exception e) {
+                    result.addError(StrUtil.format("第{}行数据解析异常: {}", rowNum, e.getMessage()));
+                    continue;
+                }
+                if (row == null) {
+                    result.addError(StrUtil.format("第{}行数据为空", rowNum));
+                    continue;
+                }
+                batch.add(row);
+                rowNums.add(rowNum);
+                if (batch.size() >= BATCH_SIZE) {
+                    flush(batch, rowNums, service, result);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.addError(StrUtil.format("第{}行附近JSON格式错误，停止读取: {}", rowNum, e.getOriginalMessage()));
+        } finally {
+            result.setTotalCount(rowNum);
+            flush(batch, rowNums, service, result);
+        }
+    }
+
+    private <T> void flush(List<T> batch, List<Integer> rowNums, IService<T> service, JsonImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            service.saveBatch(batch, BATCH_SIZE);
+            result.setSuccessCount(result.getSuccessCount() + batch.size());
+        } catch (Exception e) {
+            log.warn("批量入库失败，逐行重试: {}", e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    service.save(batch.get(i));
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                } catch (Exception ex) {
+                    result.addError(StrUtil.format("第{}行入库失败: {}", rowNums.get(i), ex.getMessage()));
+                }
+            }
+        }
+        batch.clear();
+        rowNums.clear();
+    }
+
+    /**
+     * 数组元素转换
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+
+        T map(JsonNode node) throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ruoyi.wms.core.ingest;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON 导入回执
+ *
+ * @author zcc
+ */
+@Data
+public class JsonImportResult {
+
+    /**
+     * 读取的行数
+     */
+    private int totalCount;
+
+    /**
+     * 成功入库的行数
+     */
+    private int successCount;
+
+    /**
+     * 失败的行数
+     */
+    private int errorCount;
+
+    /**
+     * 错误信息，最多保留前 {@link JsonArrayImporter#MAX_ERRORS} 条
+     */
+    private List<String> errorList = new ArrayList<>();
+
+    void addError(String message) {
+        errorCount++;
+        if (errorList.size() < JsonArrayImporter.MAX_ERRORS) {
+            errorList.add(message);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.ruoyi.wms.core.ledger;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.ruoyi.common.json.utils.JsonUtils;
+import com.ruoyi.wms.config.properties.InventoryProperties;
+import com.ruoyi.wms.domain.entity.InventoryHistory;
+import com.ruoyi.wms.mapper.InventoryHistoryMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 库存记录流水写入器
+ * <p>
+ * 过账事务提交前，库存记录先追加到本地预写日志并刷盘；事务提交后放入有界缓冲队列，由后台线程批量写入 wms_inventory_history，
+ * 事务回滚时在同一日志分段追加丢弃标记。过账耗时不再包含库存记录的写库。
+ * 缓冲队列满时不阻塞过账线程，记录留在日志中，该分段不再追加且事务都结束后由后台线程从日志补写。
+ * 日志按文件分段，段内记录全部写库或丢弃后删除；进程重启时重放残留日志中未丢弃的记录，
+ * 提交过程中崩溃、结果未知的事务按已提交重放。
+ * 每条记录的 id 在追加时分配，且 单据id+行号 有唯一索引，写库对重复记录是幂等的，重放和补写不会产生重复流水。
+ * 关闭写后模式时，在业务事务内同步批量写入。
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class InventoryHistoryLedger {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final InventoryHistoryMapper inventoryHistoryMapper;
+    private final InventoryProperties.History properties;
+
+    private final Object appendLock = new Object();
+    /**
+     * 日志分段号 -> 分段状态
+     */
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    private BlockingQueue<Entry> buffer;
+    private Path walDir;
+    private FileChannel activeChannel;
+    private volatile long activeSegment;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public InventoryHistoryLedger(InventoryHistoryMapper inventoryHistoryMapper, InventoryProperties inventoryProperties) {
+        this.inventoryHistoryMapper = inventoryHistoryMapper;
+        this.properties = inventoryProperties.getHistory();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isWriteBehind()) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+        walDir = Paths.get(properties.getWalDir());
+        Files.createDirectories(walDir);
+        activeSegment = replay() + 1;
+        activeChannel = openSegment(activeSegment);
+        running = true;
+        flusher = new Thread(this::flushLoop, "inventory-history-ledger");
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn("库存记录缓冲队列中还有{}条未写库，将在下次启动时从日志重放", buffer.size());
+        }
+        synchronized (appendLock) {
+            closeQuietly(activeChannel);
+        }
+    }
+
+    /**
+     * 追加库存记录
+     * 存在事务时在提交前写入日志，提交后写库，事务回滚则丢弃
+     * @param list 库存记录，需设置 orderId 和 lineNo
+     */
+    public void append(List<InventoryHistory> list) {
+        if (CollUtil.isEmpty(list)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        list.forEach(it -> {
+            if (it.getId() == null) {
+                it.setId(IdWorker.getId());
+            }
+            if (it.getCreateTime() == null) {
+                it.setCreateTime(now);
+            }
+        });
+        if (!properties.isWriteBehind()) {
+            insert(list);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                enqueue(writeLog(list, false), list);
+            } catch (IOException e) {
+                log.error("库存记录写入本地日志失败，改为直接写库", e);
+                insert(list);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long segment = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    segment = writeLog(list, true);
+                } catch (IOException e) {
+                    // 日志写入失败时在事务内直接写库，保证流水不丢
+                    log.error("库存记录写入本地日志失败，改为在事务内直接写库", e);
+                    insert(list);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (segment < 0) {
+                    return;
+                }
+                if (status == STATUS_ROLLED_BACK) {
+                    discard(segment, list);
+                } else {
+                    // 提交结果未知时按已提交处理，写库是幂等的
+                    enqueue(segment, list);
+                    segments.get(segment).inflight.addAndGet(-list.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * 追加到当前日志分段并刷盘
+     *
+     * @param inTransaction 是否在事务提交前写入，事务结束前该分段不能补写
+     * @return 写入的分段号
+     */
+    private long writeLog(List<InventoryHistory> list, boolean inTransaction) throws IOException {
+        synchronized (appendLock) {
+            if (activeChannel.size() >= properties.getSegmentSize()) {
+                rotate();
+            }
+            StringBuilder lines = new StringBuilder();
+            list.forEach(it -> lines.append(JsonUtils.toJsonString(it)).append('\n'));
+            write(activeChannel, lines.toString());
+            Segment segment = segments.computeIfAbsent(activeSegment, k -> new Segment());
+            segment.pending.addAndGet(list.size());
+            if (inTransaction) {
+                segment.inflight.addAndGet(list.size());
+            }
+            return activeSegment;
+        }
+    }
+
+    /**
+     * 放入缓冲队列，队列满时不等待，剩余记录标记为待补写
+     */
+    private void enqueue(long segment, List<InventoryHistory> list) {
+        for (InventoryHistory inventoryHistory : list) {
+            if (!buffer.offer(new Entry(segment, inventoryHistory))) {
+                segments.get(segment).overflowed = true;
+                log.warn("库存记录缓冲队列已满，记录保留在日志分段{}中等待补写", segment);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 事务回滚，在记录所在分段追加丢弃标记，使重放和补写跳过这些记录
+     */
+    private void discard(long segment, List<InventoryHistory> list) {
+        String line = JsonUtils.toJsonString(new DiscardLine(list.stream().map(InventoryHistory::getId).toList())) + "\n";
+        synchronized (appendLock) {
+            try {
+                if (segment == activeSegment) {
+                    write(activeChannel, line);
+                } else {
+                    try (FileChannel channel = openSegment(segment)) {
+                        write(channel, line);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("库存记录日志追加丢弃标记失败，分段{}保留到下次启动", segment, e);
+                return;
+            }
+            Segment state = segments.get(segment);
+            state.inflight.addAndGet(-list.size());
+            state.pending.addAndGet(-list.size());
+        }
+    }
+
+    private void flushLoop() {
+        List<Entry> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !buffer.isEmpty()) {
+            try {
+                catchUp();
+                Entry first = buffer.poll(properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, properties.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) throws InterruptedException {
+        List<InventoryHistory> rows = batch.stream().map(Entry::inventoryHistory).toList();
+        while (true) {
+            try {
+                inventoryHistoryMapper.insertIgnoreBatch(rows);
+                break;
+            } catch (Exception e) {
+                log.error("库存记录批量写库失败，稍后重试", e);
+                if (!running) {
+                    // 正在关闭，保留日志等待下次启动重放
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(properties.getFlushInterval() * 5);
+            }
+        }
+        batch.forEach(entry -> {
+            Segment segment = segments.get(entry.segment());
+            if (segment != null) {
+                segment.pending.decrementAndGet();
+            }
+        });
+        synchronized (appendLock) {
+            deleteFlushedSegments();
+        }
+    }
+
+    /**
+     * 从日志补写缓冲队列放不下的记录，只处理不再追加且事务都已结束的分段
+     */
+    private void catchUp() {
+        for (Map.Entry<Long, Segment> it : segments.entrySet()) {
+            Segment segment = it.getValue();
+            if (!segment.overflowed || it.getKey() == activeSegment || segment.inflight.get() > 0) {
+                continue;
+            }
+            try {
+                List<InventoryHistory> rows = readSegment(segmentPath(it.getKey()));
+                insert(rows);
+                segment.overflowed = false;
+                segment.caughtUp = true;
+                log.info("已从日志分段{}补写库存记录{}条", it.getKey(), rows.size());
+            } catch (Exception e) {
+                log.error("从日志分段{}补写库存记录失败，稍后重试", it.getKey(), e);
+                return;
+            }
+        }
+        synchronized (appendLock) {
+            deleteFlushedSegments();
+        }
+    }
+
+    private void rotate() throws IOException {
+        activeChannel.close();
+        activeSegment++;
+        activeChannel = openSegment(activeSegment);
+        deleteFlushedSegments();
+    }
+
+    /**
+     * 删除已全部写库或丢弃的非活动分段，调用方需持有 appendLock
+     */
+    private void deleteFlushedSegments() {
+        segments.entrySet().removeIf(it -> {
+            Segment segment = it.getValue();
+            if (it.getKey() == activeSegment || segment.inflight.get() > 0 || segment.overflowed
+                || (segment.pending.get() > 0 && !segment.caughtUp)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(segmentPath(it.getKey()));
+                return true;
+            } catch (IOException e) {
+                log.error("删除库存记录日志失败 {}", it.getKey(), e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 重放残留的日志分段
+     * @return 已存在的最大分段号
+     */
+    private long replay() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> stream = Files.list(walDir)) {
+            paths = stream.filter(it -> it.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        long maxSegment = 0;
+        for (Path path : paths) {
+            String fileName = path.getFileName().toString();
+            maxSegment = Math.max(maxSegment, Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length())));
+            try {
+                List<InventoryHistory> rows = readSegment(path);
+                insert(rows);
+                Files.delete(path);
+                log.info("已重放库存记录日志 {}，共{}条", fileName, rows.size());
+            } catch (Exception e) {
+                log.error("重放库存记录日志失败 {}，保留文件等待下次启动", fileName, e);
+            }
+        }
+        return maxSegment;
+    }
+
+    /**
+     * 读取分段中未被丢弃的记录
+     */
+    private List<InventoryHistory> readSegment(Path path) throws IOException {
+        List<InventoryHistory> rows = new ArrayList<>();
+        Set<Long> discarded = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // 最后一行可能因进程崩溃而不完整，该记录所在事务未提交，跳过
+                if (line.isBlank() || !line.endsWith("}")) {
+                    continue;
+                }
+                if (line.startsWith(DiscardLine.PREFIX)) {
+                    discarded.addAll(JsonUtils.parseObject(line, DiscardLine.class).discard());
+                } else {
+                    rows.add(JsonUtils.parseObject(line, InventoryHistory.class));
+                }
+            }
+        }
+        rows.removeIf(it -> discarded.contains(it.getId()));
+        return rows;
+    }
+
+    private void insert(List<InventoryHistory> list) {
+        CollUtil.split(list, properties.getBatchSize()).forEach(inventoryHistoryMapper::insertIgnoreBatch);
+    }
+
+    private static void write(FileChannel channel, String lines) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long segment) {
+        return walDir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.error("关闭库存记录日志失败", e);
+        }
+    }
+
+    /**
+     * 日志分段状态
+     */
+    private static class Segment {
+
+        /**
+         * 已写入日志、尚未写库也未丢弃的记录数，包含事务未结束的记录
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * 事务未结束的记录数
+         */
+        private final AtomicInteger inflight = new AtomicInteger();
+
+        /**
+         * 有记录未能放入缓冲队列，需要从日志补写
+         */
+        private volatile boolean overflowed;
+
+        /**
+         * 已从日志补写全部记录
+         */
+        private volatile boolean caughtUp;
+    }
+
+    private record Entry(long segment, InventoryHistory inventoryHistory) {
+    }
+
+    /**
+     * 丢弃标记，记录所在事务已回滚
+     */
+    private record DiscardLine(List<Long> discard) {
+
+        static final String PREFIX = "{\"discard\"";
+    }
+}
@@ -0,0 +1,146 @@
+package com.ruoyi.wms.core.lock;
+
+import cn.hutool.core.collection.CollUtil;
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.common.mybatis.core.domain.PlaceAndItem;
+import com.ruoyi.wms.config.properties.InventoryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 库存并发锁
+ * <p>
+ * 按 仓库/库区/规格 加锁，不相关的规格可以并行过账。
+ * 进程内使用分段锁，REDISSON 模式下再叠加分布式锁；同一批 key 总是按固定顺序加锁，避免死锁。
+ * 存在事务时锁持有到事务结束，保证其他线程读到的是已提交的库存。
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class InventoryLockTemplate {
+
+    private static final Comparator<Long> ID_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final Comparator<PlaceAndItem> KEY_ORDER = Comparator
+        .comparing(PlaceAndItem::getWarehouseId, ID_ORDER)
+        .thenComparing(PlaceAndItem::getAreaId, ID_ORDER)
+        .thenComparing(PlaceAndItem::getSkuId, ID_ORDER);
+
+    private final InventoryProperties.Lock properties;
+    private final ObjectProvider<RedissonClient> redissonClientProvider;
+    private final ReentrantLock[] stripes;
+
+    public InventoryLockTemplate(InventoryProperties inventoryProperties, ObjectProvider<RedissonClient> redissonClientProvider) {
+        this.properties = inventoryProperties.getLock();
+        this.redissonClientProvider = redissonClientProvider;
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, properties.getStripes()) - 1));
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 锁定给定的 仓库/库区/规格 后执行
+     *
+     * @param places 需要锁定的库存位置
+     * @param action 业务处理
+     */
+    public void execute(Collection<? extends PlaceAndItem> places, Runnable action) {
+        execute(places, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 锁定给定的 仓库/库区/规格 后执行
+     *
+     * @param places 需要锁定的库存位置
+     * @param action 业务处理
+     */
+    public <T> T execute(Collection<? extends PlaceAndItem> places, Supplier<T> action) {
+        if (CollUtil.isEmpty(places)) {
+            return action.get();
+        }
+        List<Lock> acquired = acquire(places);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务提交或回滚后再释放，否则其他线程可能读到未提交的库存
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(acquired);
+                }
+            });
+            return action.get();
+        }
+        try {
+            return action.get();
+        } finally {
+            release(acquired);
+        }
+    }
+
+    private List<Lock> acquire(Collection<? extends PlaceAndItem> places) {
+        Map<String, PlaceAndItem> sortedPlaces = new LinkedHashMap<>();
+        places.stream().sorted(KEY_ORDER).forEach(place -> sortedPlaces.putIfAbsent(place.getKey(), place));
+        // 多个 key 可能落在同一个分段上，按分段下标排序去重后加锁
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        sortedPlaces.values().forEach(place -> stripeIndexes.add(stripeIndex(place)));
+
+        List<Lock> acquired = new ArrayList<>(stripeIndexes.size() + sortedPlaces.size());
+        try {
+            for (Integer index : stripeIndexes) {
+                tryLock(stripes[index], acquired);
+            }
+            if (properties.getMode() == InventoryProperties.LockMode.REDISSON) {
+                RedissonClient client = redissonClientProvider.getObject();
+                for (PlaceAndItem place : sortedPlaces.values()) {
+                    tryLock(client.getLock(properties.getKeyPrefix() + place.getKey()), acquired);
+                }
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(acquired);
+            throw new ServiceException("获取库存锁被中断，请稍后重试");
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+    }
+
+    private void tryLock(Lock lock, List<Lock> acquired) throws InterruptedException {
+        if (!lock.tryLock(properties.getWaitTime(), TimeUnit.MILLISECONDS)) {
+            throw new ServiceException("库存正在被其他单据操作，请稍后重试");
+        }
+        acquired.add(lock);
+    }
+
+    private void release(List<Lock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            try {
+                acquired.get(i).unlock();
+            } catch (Exception e) {
+                log.error("释放库存锁失败", e);
+            }
+        }
+    }
+
+    private int stripeIndex(PlaceAndItem place) {
+        int h = Objects.hash(place.getWarehouseId(), place.getAreaId(), place.getSkuId());
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ruoyi.wms.core.market;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * K线周期
+ *
+ * @author zcc
+ */
+@Getter
+@AllArgsConstructor
+public enum MarketCandlePeriod {
+
+    /**
+     * 1分钟，内存保留1天
+     */
+    M1("1m", ChronoUnit.MINUTES, 1440),
+
+    /**
+     * 1小时，内存保留30天
+     */
+    H1("1h", ChronoUnit.HOURS, 720),
+
+    /**
+     * 1天，内存保留1年
+     */
+    D1("1d", ChronoUnit.DAYS, 366);
+
+    private final String code;
+    private final ChronoUnit unit;
+
+    /**
+     * 每个币种在内存中保留的K线根数
+     */
+    private final int capacity;
+
+    /**
+     * 所在K线的开盘时间
+     */
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * 内存窗口的起始开盘时间
+     */
+    public LocalDateTime windowStart(LocalDateTime now) {
+        return floor(now).minus(capacity - 1L, unit);
+    }
+
+    public static MarketCandlePeriod of(String code) {
+        for (MarketCandlePeriod period : values()) {
+            if (period.code.equals(code)) {
+                return period;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,302 @@
+package com.ruoyi.wms.core.market;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ruoyi.wms.domain.entity.CryptoMarketCandle;
+import com.ruoyi.wms.domain.entity.CryptoMarketData;
+import com.ruoyi.wms.mapper.CryptoMarketCandleMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行情K线存储
+ * <p>
+ * 行情入库时把价格解析为数值，按 1m/1h/1d 聚合成K线，在同一事务内合并写入 crypto_market_candle。
+ * 每个币种每个周期在内存中保留最近一段窗口的K线，事务提交后通过 topic 通知所有节点更新内存。
+ * 窗口内的查询只读内存，更早的区间查询K线表，不再读取原始行情表
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class MarketCandleStore implements ApplicationRunner {
+
+    private static final String TOPIC = "wms:market:candle:topic";
+
+    private final CryptoMarketCandleMapper candleMapper;
+    private final RedissonClient redissonClient;
+
+    /**
+     * 币种 -> 周期 -> 开盘时间 -> K线
+     */
+    private final Map<String, Map<MarketCandlePeriod, NavigableMap<LocalDateTime, CryptoMarketCandle>>> rings = new ConcurrentHashMap<>();
+
+    public MarketCandleStore(CryptoMarketCandleMapper candleMapper, RedissonClient redissonClient) {
+        this.candleMapper = candleMapper;
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RTopic topic = redissonClient.getTopic(TOPIC);
+        topic.addListener(TickMessage.class, (channel, msg) -> apply(msg.getTicks()));
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (MarketCandlePeriod period : MarketCandlePeriod.values()) {
+            List<CryptoMarketCandle> candles = candleMapper.selectList(Wrappers.<CryptoMarketCandle>lambdaQuery()
+                .eq(CryptoMarketCandle::getPeriod, period.getCode())
+                .ge(CryptoMarketCandle::getOpenTime, period.windowStart(now))
+                .orderByAsc(CryptoMarketCandle::getOpenTime));
+            for (CryptoMarketCandle candle : candles) {
+                NavigableMap<LocalDateTime, CryptoMarketCandle> ring = ring(candle.getName(), period);
+                synchronized (ring) {
+                    put(ring, period, candle);
+                }
+            }
+            total += candles.size();
+        }
+        log.info("加载行情K线成功，共{}条，耗时{}ms", total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 行情入库后聚合K线并写库，存在事务时在提交后通知各节点更新内存
+     */
+    public void onTicks(Collection<CryptoMarketData> data) {
+        List<Tick> ticks = new ArrayList<>(data.size());
+        for (CryptoMarketData item : data) {
+            BigDecimal price = parseNumber(item.getPrice());
+            if (StrUtil.isBlank(item.getName()) || price == null || item.getCreateTime() == null) {
+                continue;
+            }
+            ticks.add(new Tick(item.getName(), price.toPlainString(), item.getCreateTime()));
+        }
+        if (ticks.isEmpty()) {
+            return;
+        }
+        candleMapper.upsertBatch(aggregate(ticks));
+        TickMessage msg = new TickMessage(ticks);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(msg);
+                }
+            });
+        } else {
+            publish(msg);
+        }
+    }
+
+    /**
+     * 查询K线，按开盘时间正序
+     *
+     * @param name      币种名称
+     * @param period    周期
+     * @param startTime 开始时间，为空时取内存窗口起点
+     * @param endTime   结束时间，为空时不限，早于开始时间时返回空列表
+     */
+    public List<CryptoMarketCandle> query(String name, MarketCandlePeriod period, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime windowStart = period.windowStart(LocalDateTime.now());
+        LocalDateTime from = startTime == null ? windowStart : period.floor(startTime);
+        if (endTime != null && endTime.isBefore(from)) {
+            return Collections.emptyList();
+        }
+        if (from.isBefore(windowStart)) {
+            return candleMapper.selectList(Wrappers.<CryptoMarketCandle>lambdaQuery()
+                .eq(CryptoMarketCandle::getName, name)
+                .eq(CryptoMarketCandle::getPeriod, period.getCode())
+                .ge(CryptoMarketCandle::getOpenTime, from)
+                .le(endTime != null, CryptoMarketCandle::getOpenTime, endTime)
+                .orderByAsc(CryptoMarketCandle::getOpenTime));
+        }
+        Map<MarketCandlePeriod, NavigableMap<LocalDateTime, CryptoMarketCandle>> periods = rings.get(name);
+        NavigableMap<LocalDateTime, CryptoMarketCandle> ring = periods == null ? null : periods.get(period);
+        if (ring == null) {
+            return Collections.emptyList();
+        }
+        synchronized (ring) {
+            NavigableMap<LocalDateTime, CryptoMarketCandle> range = endTime == null
+                ? ring.tailMap(from, true) : ring.subMap(from, true, endTime, true);
+            return range.values().stream().map(MarketCandleStore::copy).toList();
+        }
+    }
+
+    /**
+     * 解析行情中的数值，如 $88,082.6、-0.17%、+3.18%
+     */
+    public static BigDecimal parseNumber(String text) {
+        if (StrUtil.isBlank(text)) {
+            return null;
+        }
+        String number = text.replaceAll("[^0-9.\\-]", "");
+        if (number.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void publish(TickMessage msg) {
+        try {
+            redissonClient.getTopic(TOPIC).publish(msg);
+        } catch (Exception e) {
+            log.error("发布行情K线更新失败，本节点直接更新", e);
+            apply(msg.getTicks());
+        }
+    }
+
+    /**
+     * 把一批行情按币种、周期、开盘时间聚合成K线增量
+     */
+    private List<CryptoMarketCandle> aggregate(List<Tick> ticks) {
+        Map<String, CryptoMarketCandle> candles = new LinkedHashMap<>();
+        List<Tick> sorted = new ArrayList<>(ticks);
+        sorted.sort(Comparator.comparing(Tick::getTime));
+        for (Tick tick : sorted) {
+            BigDecimal price = new BigDecimal(tick.getPrice());
+            for (MarketCandlePeriod period : MarketCandlePeriod.values()) {
+                LocalDateTime openTime = period.floor(tick.getTime());
+                String key = tick.getName() + "#" + period.getCode() + "#" + openTime;
+                CryptoMarketCandle candle = candles.computeIfAbsent(key, k -> newCandle(tick.getName(), period, openTime, price, tick.getTime()));
+                merge(candle, price, tick.getTime());
+            }
+        }
+        return new ArrayList<>(candles.values());
+    }
+
+    private void apply(List<Tick> ticks) {
+        if (CollUtil.isEmpty(ticks)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Tick tick : ticks) {
+            BigDecimal price = new BigDecimal(tick.getPrice());
+            for (MarketCandlePeriod period : MarketCandlePeriod.values()) {
+                LocalDateTime openTime = period.floor(tick.getTime());
+                if (openTime.isBefore(period.windowStart(now))) {
+                    continue;
+                }
+                NavigableMap<LocalDateTime, CryptoMarketCandle> ring = ring(tick.getName(), period);
+                synchronized (ring) {
+                    CryptoMarketCandle candle = ring.get(openTime);
+                    if (candle == null) {
+                        put(ring, period, newCandle(tick.getName(), period, openTime, price, tick.getTime()));
+                        candle = ring.get(openTime);
+                    }
+                    if (candle != null) {
+                        merge(candle, price, tick.getTime());
+                    }
+                }
+            }
+        }
+    }
+
+    private NavigableMap<LocalDateTime, CryptoMarketCandle> ring(String name, MarketCandlePeriod period) {
+        return rings.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(period, k -> new TreeMap<>());
+    }
+
+    /**
+     * 放入K线，超出容量时淘汰最早的
+     */
+    private static void put(NavigableMap<LocalDateTime, CryptoMarketCandle> ring, MarketCandlePeriod period, CryptoMarketCandle candle) {
+        ring.put(candle.getOpenTime(), candle);
+        while (ring.size() > period.getCapacity()) {
+            ring.pollFirstEntry();
+        }
+    }
+
+    private static CryptoMarketCandle newCandle(String name, MarketCandlePeriod period, LocalDateTime openTime,
+                                                BigDecimal price, LocalDateTime tickTime) {
+        CryptoMarketCandle candle = new CryptoMarketCandle();
+        candle.setName(name);
+        candle.setPeriod(period.getCode());
+        candle.setOpenTime(openTime);
+        candle.setOpen(price);
+        candle.setHigh(price);
+        candle.setLow(price);
+        candle.setClose(price);
+        candle.setOpenTickTime(tickTime);
+        candle.setCloseTickTime(tickTime);
+        candle.setTickCount(0);
+        return candle;
+    }
+
+    /**
+     * 合并一条行情，开盘价和收盘价按行情时间取最早和最晚的，与到达顺序无关
+     */
+    private static void merge(CryptoMarketCandle candle, BigDecimal price, LocalDateTime tickTime) {
+        candle.setHigh(candle.getHigh().max(price));
+        candle.setLow(candle.getLow().min(price));
+        if (tickTime.isBefore(candle.getOpenTickTime())) {
+            candle.setOpen(price);
+            candle.setOpenTickTime(tickTime);
+        }
+        if (!tickTime.isBefore(candle.getCloseTickTime())) {
+            candle.setClose(price);
+            candle.setCloseTickTime(tickTime);
+        }
+        candle.setTickCount(candle.getTickCount() + 1);
+    }
+
+    private static CryptoMarketCandle copy(CryptoMarketCandle source) {
+        CryptoMarketCandle candle = newCandle(source.getName(), MarketCandlePeriod.of(source.getPeriod()), source.getOpenTime(),
+            source.getOpen(), source.getOpenTickTime());
+        candle.setHigh(source.getHigh());
+        candle.setLow(source.getLow());
+        candle.setClose(source.getClose());
+        candle.setCloseTickTime(source.getCloseTickTime());
+        candle.setTickCount(source.getTickCount());
+        return candle;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tick implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+
+        /**
+         * 价格，以字符串传递避免精度损失
+         */
+        private String price;
+
+        private LocalDateTime time;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TickMessage implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private List<Tick> ticks;
+    }
+}
@@ -0,0 +1,283 @@
+package com.ruoyi.wms.core.message;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ruoyi.wms.domain.entity.CryptoMessage;
+import com.ruoyi.wms.mapper.CryptoMessageMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加密货币消息未读状态
+ * <p>
+ * 未读消息ID保存在 Redis 有序集合中（分值为消息ID），未读数即集合大小，未读列表按ID倒序游标分页。
+ * 新消息在事务提交后加入集合；标记已读只从集合移到待刷写集合，由定时任务批量更新 crypto_message.status，
+ * 多次查看同一条消息只产生一次写库。首次启动时从数据库加载未读ID，加载完成前调用方回退到数据库查询，
+ * 加载失败时由定时任务重试
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class CryptoMessageUnreadTracker implements ApplicationRunner {
+
+    private static final String UNREAD_KEY = "wms:message:unread";
+    private static final String PENDING_READ_KEY = "wms:message:read:pending";
+    private static final String LOADED_KEY = "wms:message:unread:loaded";
+    private static final String LOAD_LOCK_KEY = "wms:message:unread:lock";
+
+    /**
+     * 已读刷写间隔，单位：毫秒
+     */
+    private static final long FLUSH_INTERVAL = 2000;
+
+    /**
+     * 每批刷写的消息数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 加载未读ID时每批读取的行数
+     */
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final CryptoMessageMapper cryptoMessageMapper;
+    private final RedissonClient redissonClient;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private volatile boolean ready;
+    private ScheduledFuture<?> flushTask;
+
+    public CryptoMessageUnreadTracker(CryptoMessageMapper cryptoMessageMapper, RedissonClient redissonClient,
+                                      ScheduledExecutorService scheduledExecutorService) {
+        this.cryptoMessageMapper = cryptoMessageMapper;
+        this.redissonClient = redissonClient;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            load();
+            ready = true;
+        } catch (Exception e) {
+            log.warn("加载未读消息失败，未读状态使用数据库查询: {}", e.getMessage());
+        }
+        flushTask = scheduledExecutorService.scheduleWithFixedDelay(this::flushQuietly,
+            FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flushQuietly();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 未读数
+     */
+    public long count() {
+        return unreadSet().size();
+    }
+
+    /**
+     * 新消息入库后加入未读集合，存在事务时在提交后执行
+     */
+    public void addUnread(Collection<CryptoMessage> messages) {
+        List<Long> ids = messages.stream()
+            .filter(message -> message.getId() != null)
+            .filter(message -> message.getStatus() == null || message.getStatus() == 0)
+            .map(CryptoMessage::getId)
+            .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doAddUnread(ids);
+                }
+            });
+        } else {
+            doAddUnread(ids);
+        }
+    }
+
+    /**
+     * 标记已读，只在消息由未读变为已读时登记一次待刷写
+     *
+     * @return 本次是否由未读变为已读
+     */
+    public boolean markRead(Long id) {
+        if (!unreadSet().remove(String.valueOf(id))) {
+            return false;
+        }
+        pendingReadSet().add(String.valueOf(id));
+        return true;
+    }
+
+    /**
+     * 是否已标记已读、尚未刷写到数据库
+     */
+    public boolean isPendingRead(Long id) {
+        return pendingReadSet().contains(String.valueOf(id));
+    }
+
+    /**
+     * 按ID倒序取未读消息ID
+     *
+     * @param beforeId 上一页最后一条消息ID，首页传 null
+     * @param limit    条数
+     */
+    public List<Long> pageUnreadIds(Long beforeId, int limit) {
+        double end = beforeId == null ? Double.POSITIVE_INFINITY : beforeId;
+        Collection<String> members = unreadSet().valueRangeReversed(Double.NEGATIVE_INFINITY, true, end, false, 0, limit);
+        return members.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * 已标记已读、尚未刷写到数据库的消息ID
+     */
+    public Set<Long> pendingReadIds() {
+        Set<String> members = pendingReadSet().readAll();
+        Set<Long> ids = new HashSet<>(members.size());
+        members.forEach(member -> ids.add(Long.valueOf(member)));
+        return ids;
+    }
+
+    /**
+     * 已读标记直接写入了数据库（未读状态未就绪或消息不在未读集合中时），同步移出未读集合；
+     * Redis 不可用时清除加载标记，下次加载时从数据库重建
+     */
+    public void onReadInDatabase(Long id) {
+        try {
+            unreadSet().remove(String.valueOf(id));
+        } catch (Exception e) {
+            log.warn("移出未读消息失败，将从数据库重新加载: {}", e.getMessage());
+            try {
+                redissonClient.getBucket(LOADED_KEY, StringCodec.INSTANCE).delete();
+            } catch (Exception ignored) {
+                // Redis 不可用时加载标记也无法写入，恢复后由加载重建
+            }
+        }
+    }
+
+    /**
+     * 把待刷写的已读标记批量写入数据库，写库成功后才移出待刷写集合，
+     * 多节点同时执行时可能重复更新同一批ID，更新带 status = 0 条件是幂等的
+     */
+    public void flush() {
+        RSet<String> pending = pendingReadSet();
+        while (true) {
+            Set<String> members = pending.random(FLUSH_BATCH_SIZE);
+            if (CollUtil.isEmpty(members)) {
+                return;
+            }
+            List<Long> ids = members.stream().map(Long::valueOf).toList();
+            cryptoMessageMapper.update(null, Wrappers.<CryptoMessage>lambdaUpdate()
+                .set(CryptoMessage::getStatus, 1)
+                .in(CryptoMessage::getId, ids)
+                .eq(CryptoMessage::getStatus, 0));
+            pending.removeAll(members);
+            if (members.size() < FLUSH_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            if (!ready || !redissonClient.getBucket(LOADED_KEY, StringCodec.INSTANCE).isExists()) {
+                // 启动时加载失败或加载标记被清除，重新加载
+                load();
+                ready = true;
+            }
+            flush();
+        } catch (Exception e) {
+            log.error("刷写消息已读状态失败", e);
+        }
+    }
+
+    private void doAddUnread(List<Long> ids) {
+        Map<String, Double> members = new HashMap<>(ids.size());
+        ids.forEach(id -> members.put(String.valueOf(id), id.doubleValue()));
+        unreadSet().addAll(members);
+    }
+
+    /**
+     * 首次加载，集群内只由一个节点执行
+     */
+    private void load() {
+        RBucket<String> loaded = redissonClient.getBucket(LOADED_KEY, StringCodec.INSTANCE);
+        if (loaded.isExists()) {
+            return;
+        }
+        RLock lock = redissonClient.getLock(LOAD_LOCK_KEY);
+        lock.lock();
+        try {
+            if (loaded.isExists()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            RScoredSortedSet<String> unread = unreadSet();
+            // 加载标记被清除时集合可能与数据库不一致，先清空再加载
+            unread.delete();
+            long lastId = 0;
+            int total = 0;
+            while (true) {
+                List<CryptoMessage> rows = cryptoMessageMapper.selectList(Wrappers.<CryptoMessage>lambdaQuery()
+                    .select(CryptoMessage::getId)
+                    .eq(CryptoMessage::getStatus, 0)
+                    .gt(CryptoMessage::getId, lastId)
+                    .orderByAsc(CryptoMessage::getId)
+                    .last("limit " + LOAD_BATCH_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                doAddUnread(rows.stream().map(CryptoMessage::getId).toList());
+                lastId = rows.get(rows.size() - 1).getId();
+                total += rows.size();
+            }
+            // 加载期间被标记已读、尚未刷写的消息在数据库中仍是未读
+            Set<String> pending = pendingReadSet().readAll();
+            if (!pending.isEmpty()) {
+                unread.removeAll(pending);
+            }
+            loaded.set("1");
+            log.info("加载未读消息成功，共{}条，耗时{}ms", total, System.currentTimeMillis() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RScoredSortedSet<String> unreadSet() {
+        return redissonClient.getScoredSortedSet(UNREAD_KEY, StringCodec.INSTANCE);
+    }
+
+    private RSet<String> pendingReadSet() {
+        return redissonClient.getSet(PENDING_READ_KEY, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,401 @@
+package com.ruoyi.wms.core.portfolio;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.ruoyi.wms.domain.entity.Portfolio;
+import com.ruoyi.wms.domain.entity.PortfolioHistory;
+import com.ruoyi.wms.domain.vo.PortfolioAnalyticsVo;
+import com.ruoyi.wms.mapper.PortfolioHistoryMapper;
+import com.ruoyi.wms.mapper.PortfolioMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 持仓分析
+ * <p>
+ * 按 持仓ID+资产类型 维护快照的累计指标：累计收益率、最大回撤（运行峰值）、波动率（相邻快照收益率的 Welford 方差）
+ * 和相对当前持仓的配置偏离，以及降采样的历史序列。
+ * 快照表由外部程序写入，定时按自增ID增量读取新快照，同时刷新目标持仓；通过本服务保存快照时提交后经 topic 通知所有节点立即增量读取。
+ * 快照按时间顺序到达时 O(1) 增量更新，早于最新快照的补录数据会触发该持仓的重新加载。
+ * 启动时全量构建，并定期全量重建，修正并发事务乱序提交时按ID增量读取漏掉的快照
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class PortfolioAnalyticsEngine implements ApplicationRunner {
+
+    private static final String TOPIC = "wms:portfolio:analytics:topic";
+
+    /**
+     * 历史序列保留的最大点数，超过后相邻两点合并
+     */
+    private static final int MAX_POINTS = 256;
+
+    /**
+     * 增量读取间隔，单位：毫秒
+     */
+    private static final long CATCH_UP_INTERVAL = 30 * 1000;
+
+    /**
+     * 全量重建间隔，单位：毫秒
+     */
+    private static final long REBUILD_INTERVAL = 60 * 60 * 1000;
+
+    /**
+     * 增量读取每批的快照数
+     */
+    private static final int CATCH_UP_BATCH_SIZE = 1000;
+
+    private final PortfolioMapper portfolioMapper;
+    private final PortfolioHistoryMapper portfolioHistoryMapper;
+    private final RedissonClient redissonClient;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * 持仓ID -> 资产类型 -> 累计指标
+     */
+    private final Map<Integer, Map<String, Aggregate>> aggregates = new ConcurrentHashMap<>();
+
+    /**
+     * 持仓ID -> 目标持仓百分比
+     */
+    private volatile Map<Integer, Double> targets = new ConcurrentHashMap<>();
+
+    /**
+     * 已读取的最大快照ID
+     */
+    private int lastId;
+
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    public PortfolioAnalyticsEngine(PortfolioMapper portfolioMapper, PortfolioHistoryMapper portfolioHistoryMapper,
+                                    RedissonClient redissonClient, ScheduledExecutorService scheduledExecutorService) {
+        this.portfolioMapper = portfolioMapper;
+        this.portfolioHistoryMapper = portfolioHistoryMapper;
+        this.redissonClient = redissonClient;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RTopic topic = redissonClient.getTopic(TOPIC);
+        topic.addListener(SnapshotMessage.class, (channel, msg) -> catchUpQuietly());
+        rebuild();
+        tasks.add(scheduledExecutorService.scheduleWithFixedDelay(this::catchUpQuietly,
+            CATCH_UP_INTERVAL, CATCH_UP_INTERVAL, TimeUnit.MILLISECONDS));
+        tasks.add(scheduledExecutorService.scheduleWithFixedDelay(this::rebuildQuietly,
+            REBUILD_INTERVAL, REBUILD_INTERVAL, TimeUnit.MILLISECONDS));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * 全量构建
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // 先取最大ID，只加载到该ID，构建期间新增的快照由增量读取补上
+        lastId = maxSnapshotId();
+        List<Portfolio> portfolios = refreshTargets();
+        portfolios.forEach(portfolio -> reload(portfolio.getId()));
+        aggregates.keySet().retainAll(portfolios.stream().map(Portfolio::getId).collect(Collectors.toSet()));
+        log.info("构建持仓分析成功，共{}个持仓，耗时{}ms", portfolios.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 快照入库后通知所有节点增量读取，存在事务时在提交后通知
+     */
+    public void onSnapshots(Collection<PortfolioHistory> snapshots) {
+        List<Integer> ids = snapshots.stream().map(PortfolioHistory::getId).filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        SnapshotMessage msg = new SnapshotMessage(new ArrayList<>(ids));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(msg);
+                }
+            });
+        } else {
+            publish(msg);
+        }
+    }
+
+    /**
+     * 查询持仓分析
+     */
+    public List<PortfolioAnalyticsVo> get(Integer portfolioId) {
+        Map<String, Aggregate> byAsset = aggregates.get(portfolioId);
+        if (byAsset == null) {
+            return Collections.emptyList();
+        }
+        Double target = targets.get(portfolioId);
+        List<PortfolioAnalyticsVo> list = new ArrayList<>(byAsset.size());
+        for (Aggregate aggregate : byAsset.values()) {
+            synchronized (aggregate) {
+                list.add(aggregate.toVo(target));
+            }
+        }
+        return list;
+    }
+
+    private void publish(SnapshotMessage msg) {
+        try {
+            redissonClient.getTopic(TOPIC).publish(msg);
+        } catch (Exception e) {
+            log.error("发布持仓分析更新失败，本节点直接更新", e);
+            catchUpQuietly();
+        }
+    }
+
+    /**
+     * 按ID增量读取新快照，并刷新目标持仓
+     */
+    public synchronized void catchUp() {
+        refreshTargets();
+        while (true) {
+            List<PortfolioHistory> snapshots = portfolioHistoryMapper.selectList(Wrappers.<PortfolioHistory>lambdaQuery()
+                .gt(PortfolioHistory::getId, lastId)
+                .orderByAsc(PortfolioHistory::getId)
+                .last("limit " + CATCH_UP_BATCH_SIZE));
+            if (snapshots.isEmpty()) {
+                return;
+            }
+            lastId = snapshots.get(snapshots.size() - 1).getId();
+            apply(new ArrayList<>(snapshots));
+            if (snapshots.size() < CATCH_UP_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    private void apply(List<PortfolioHistory> snapshots) {
+        snapshots.sort(Comparator.comparing(PortfolioHistory::getSnapshotTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(PortfolioHistory::getId));
+        Set<Integer> reloads = new HashSet<>();
+        for (PortfolioHistory snapshot : snapshots) {
+            if (reloads.contains(snapshot.getPortfolioId())) {
+                continue;
+            }
+            Aggregate aggregate = aggregates.computeIfAbsent(snapshot.getPortfolioId(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(snapshot.getAssetType(), k -> new Aggregate(snapshot.getPortfolioId(), snapshot.getAssetType()));
+            synchronized (aggregate) {
+                if (!aggregate.add(snapshot)) {
+                    reloads.add(snapshot.getPortfolioId());
+                }
+            }
+        }
+        reloads.forEach(this::reload);
+    }
+
+    /**
+     * 重新读取目标持仓
+     */
+    private List<Portfolio> refreshTargets() {
+        List<Portfolio> portfolios = portfolioMapper.selectList(Wrappers.emptyWrapper());
+        Map<Integer, Double> map = new ConcurrentHashMap<>();
+        portfolios.forEach(portfolio -> {
+            if (portfolio.getPercentage() != null) {
+                map.put(portfolio.getId(), portfolio.getPercentage());
+            }
+        });
+        targets = map;
+        return portfolios;
+    }
+
+    private int maxSnapshotId() {
+        PortfolioHistory last = portfolioHistoryMapper.selectOne(Wrappers.<PortfolioHistory>lambdaQuery()
+            .select(PortfolioHistory::getId)
+            .orderByDesc(PortfolioHistory::getId)
+            .last("limit 1"));
+        return last == null ? 0 : last.getId();
+    }
+
+    private void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (Exception e) {
+            log.error("增量读取持仓快照失败", e);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("重建持仓分析失败", e);
+        }
+    }
+
+    /**
+     * 从数据库重新加载一个持仓已读取到的全部快照，ID 大于 lastId 的快照留给增量读取
+     */
+    private void reload(Integer portfolioId) {
+        List<PortfolioHistory> snapshots = portfolioHistoryMapper.selectList(Wrappers.<PortfolioHistory>lambdaQuery()
+            .eq(PortfolioHistory::getPortfolioId, portfolioId)
+            .le(PortfolioHistory::getId, lastId)
+            .orderByAsc(PortfolioHistory::getSnapshotTime, PortfolioHistory::getId));
+        Map<String, Aggregate> byAsset = new ConcurrentHashMap<>();
+        for (PortfolioHistory snapshot : snapshots) {
+            byAsset.computeIfAbsent(snapshot.getAssetType(), k -> new Aggregate(portfolioId, snapshot.getAssetType()))
+                .add(snapshot);
+        }
+        aggregates.put(portfolioId, byAsset);
+    }
+
+    /**
+     * 单个 持仓ID+资产类型 的累计指标
+     */
+    private static class Aggregate {
+
+        private final Integer portfolioId;
+        private final String assetType;
+
+        private long count;
+        private Date firstTime;
+        private Date lastTime;
+        private double firstValue;
+        private double lastValue;
+        private double peakValue;
+        private double maxDrawdown;
+        private Double lastPercentage;
+
+        /**
+         * 相邻快照收益率的 Welford 累计量
+         */
+        private long returnCount;
+        private double meanReturn;
+        private double m2;
+
+        /**
+         * 降采样序列，每个点保存一个桶内最后一个快照，桶大小为 bucketSpan 个快照
+         */
+        private final List<PortfolioAnalyticsVo.Point> points = new ArrayList<>();
+        private long bucketSpan = 1;
+        private long bucketFill;
+
+        Aggregate(Integer portfolioId, String assetType) {
+            this.portfolioId = portfolioId;
+            this.assetType = assetType;
+        }
+
+        /**
+         * 追加快照
+         *
+         * @return 快照早于最新快照时不追加，返回 false
+         */
+        boolean add(PortfolioHistory snapshot) {
+            if (snapshot.getSnapshotTime() == null) {
+                return true;
+            }
+            if (lastTime != null && snapshot.getSnapshotTime().before(lastTime)) {
+                return false;
+            }
+            double value = snapshot.getUsdValue() == null ? 0 : snapshot.getUsdValue();
+            if (count == 0) {
+                firstTime = snapshot.getSnapshotTime();
+                firstValue = value;
+                peakValue = value;
+            } else if (lastValue != 0) {
+                double r = value / lastValue - 1;
+                returnCount++;
+                double delta = r - meanReturn;
+                meanReturn += delta / returnCount;
+                m2 += delta * (r - meanReturn);
+            }
+            count++;
+            lastTime = snapshot.getSnapshotTime();
+            lastValue = value;
+            lastPercentage = snapshot.getPercentage();
+            peakValue = Math.max(peakValue, value);
+            if (peakValue > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peakValue - value) / peakValue);
+            }
+            appendPoint(snapshot);
+            return true;
+        }
+
+        private void appendPoint(PortfolioHistory snapshot) {
+            PortfolioAnalyticsVo.Point point = new PortfolioAnalyticsVo.Point();
+            point.setTime(snapshot.getSnapshotTime());
+            point.setUsdValue(snapshot.getUsdValue());
+            point.setPercentage(snapshot.getPercentage());
+            if (bucketFill > 0) {
+                points.set(points.size() - 1, point);
+            } else {
+                points.add(point);
+                if (points.size() > MAX_POINTS) {
+                    // 前 MAX_POINTS 个整桶两两合并，保留每对中较晚的点
+                    List<PortfolioAnalyticsVo.Point> merged = new ArrayList<>(MAX_POINTS / 2 + 1);
+                    for (int i = 1; i < MAX_POINTS; i += 2) {
+                        merged.add(points.get(i));
+                    }
+                    merged.add(point);
+                    points.clear();
+                    points.addAll(merged);
+                    bucketSpan *= 2;
+                }
+            }
+            bucketFill = (bucketFill + 1) % bucketSpan;
+        }
+
+        PortfolioAnalyticsVo toVo(Double target) {
+            PortfolioAnalyticsVo vo = new PortfolioAnalyticsVo();
+            vo.setPortfolioId(portfolioId);
+            vo.setAssetType(assetType);
+            vo.setSnapshotCount(count);
+            vo.setFirstSnapshotTime(firstTime);
+            vo.setLastSnapshotTime(lastTime);
+            if (count > 0) {
+                vo.setFirstUsdValue(firstValue);
+                vo.setLastUsdValue(lastValue);
+                vo.setCumulativeReturn(firstValue == 0 ? null : lastValue / firstValue - 1);
+                vo.setPeakUsdValue(peakValue);
+                vo.setMaxDrawdown(maxDrawdown);
+            }
+            vo.setVolatility(returnCount > 1 ? Math.sqrt(m2 / (returnCount - 1)) : null);
+            vo.setTargetPercentage(target);
+            vo.setCurrentPercentage(lastPercentage);
+            if (target != null && lastPercentage != null) {
+                vo.setAllocationDrift(lastPercentage - target);
+            }
+            vo.setSeries(new ArrayList<>(points));
+            return vo;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SnapshotMessage implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private List<Integer> ids;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ruoyi.wms.core.posting;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 单据过账分阶段耗时统计
+ * <p>
+ * 每个阶段的耗时记录到 Micrometer 计时器 wms.posting.stage（标签 order_type、stage），并发布 p50/p99 分位数，
+ * 可通过 /actuator/metrics/wms.posting.stage 查看；单次过账的汇总在 debug 级别输出。
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class PostingMetrics {
+
+    public static final String STAGE_TIMER = "wms.posting.stage";
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    public PostingMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    /**
+     * 开始一次过账
+     *
+     * @param orderType 单据类型，如 shipment
+     * @param orderNo   单号
+     */
+    public Stages start(String orderType, String orderNo) {
+        return new Stages(orderType, orderNo);
+    }
+
+    public class Stages {
+
+        private final String orderType;
+        private final String orderNo;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+
+        private Stages(String orderType, String orderNo) {
+            this.orderType = orderType;
+            this.orderNo = orderNo;
+        }
+
+        public void record(String stage, Runnable runnable) {
+            record(stage, () -> {
+                runnable.run();
+                return null;
+            });
+        }
+
+        public <T> T record(String stage, Supplier<T> supplier) {
+            long begin = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                long elapsed = System.nanoTime() - begin;
+                stageNanos.merge(stage, elapsed, Long::sum);
+                MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+                if (meterRegistry != null) {
+                    Timer.builder(STAGE_TIMER)
+                        .tag("order_type", orderType)
+                        .tag("stage", stage)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        /**
+         * 各阶段耗时，单位：毫秒
+         */
+        public Map<String, Double> getStageMillis() {
+            return stageNanos.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                it -> it.getValue() / 1_000_000D, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        public void finish() {
+            if (log.isDebugEnabled()) {
+                log.debug("{}[{}]过账完成，总耗时{}ms，各阶段耗时{}", orderType, orderNo,
+                    (System.nanoTime() - startNanos) / 1_000_000D, getStageMillis());
+            }
+        }
+    }
+}
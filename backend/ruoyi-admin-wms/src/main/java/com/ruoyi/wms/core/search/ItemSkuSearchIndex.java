@@ -0,0 +1,360 @@
+package com.ruoyi.wms.core.search;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ruoyi.common.core.utils.MapstructUtils;
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.wms.domain.bo.ItemSkuBo;
+import com.ruoyi.wms.domain.entity.Item;
+import com.ruoyi.wms.domain.entity.ItemSku;
+import com.ruoyi.wms.domain.vo.ItemSkuVo;
+import com.ruoyi.wms.domain.vo.ItemVo;
+import com.ruoyi.wms.mapper.ItemCategoryMapper;
+import com.ruoyi.wms.mapper.ItemMapper;
+import com.ruoyi.wms.mapper.ItemSkuMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 商品规格搜索索引
+ * <p>
+ * 在内存中按 商品名称/商品编号/规格名称/条码 建立 1~3 字的 n-gram 倒排索引，
+ * 等价于 selectByBo 中的 like '%x%'：3 字以上的关键词按三元组求交集后再校验包含，1~2 字直接命中。
+ * 启动后全量构建，商品和分类变更在事务提交后通过 topic 通知所有节点按商品重新加载。
+ * 索引未就绪时由调用方回退到 SQL 查询
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class ItemSkuSearchIndex implements ApplicationRunner {
+
+    private static final String TOPIC = "wms:search:item-sku:topic";
+    private static final int GRAM = 3;
+    private static final char ITEM_NAME = 'n';
+    private static final char ITEM_CODE = 'c';
+    private static final char SKU_NAME = 's';
+    private static final char BARCODE = 'b';
+
+    /**
+     * 与 SQL 一致，按商品ID倒序
+     */
+    private static final Comparator<Doc> ORDER = Comparator.comparing((Doc doc) -> doc.sku.getItemId(), Comparator.reverseOrder())
+        .thenComparing(doc -> doc.sku.getId());
+
+    private final ItemMapper itemMapper;
+    private final ItemSkuMapper itemSkuMapper;
+    private final ItemCategoryMapper itemCategoryMapper;
+    private final RedissonClient redissonClient;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final Map<Long, Set<Long>> itemSkuIds = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile Map<String, String> categoryParents = Collections.emptyMap();
+    private volatile boolean ready;
+
+    public ItemSkuSearchIndex(ItemMapper itemMapper, ItemSkuMapper itemSkuMapper,
+                              ItemCategoryMapper itemCategoryMapper, RedissonClient redissonClient) {
+        this.itemMapper = itemMapper;
+        this.itemSkuMapper = itemSkuMapper;
+        this.itemCategoryMapper = itemCategoryMapper;
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RTopic topic = redissonClient.getTopic(TOPIC);
+        topic.addListener(RefreshMessage.class, (channel, msg) -> onMessage(msg));
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 全量构建
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        loadCategories();
+        List<Item> items = itemMapper.selectList(Wrappers.emptyWrapper());
+        List<ItemSku> skus = itemSkuMapper.selectList(Wrappers.emptyWrapper());
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            itemSkuIds.clear();
+            postings.clear();
+            index(items, skus);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("构建商品规格搜索索引成功，共{}条，耗时{}ms", skus.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 商品或规格变更后重新加载，存在事务时在提交后通知
+     *
+     * @param itemIds 商品ID
+     */
+    public void refreshItems(Collection<Long> itemIds) {
+        if (CollUtil.isEmpty(itemIds)) {
+            return;
+        }
+        publishAfterCommit(new RefreshMessage(new ArrayList<>(new HashSet<>(itemIds)), false));
+    }
+
+    /**
+     * 规格变更后重新加载所属商品
+     *
+     * @param skuIds 规格ID
+     */
+    public void refreshSkus(Collection<Long> skuIds) {
+        Set<Long> itemIds;
+        lock.readLock().lock();
+        try {
+            itemIds = skuIds.stream().map(docs::get).filter(Objects::nonNull)
+                .map(doc -> doc.sku.getItemId()).collect(Collectors.toSet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        refreshItems(itemIds);
+    }
+
+    /**
+     * 分类变更后重新加载分类层级
+     */
+    public void refreshCategories() {
+        publishAfterCommit(new RefreshMessage(Collections.emptyList(), true));
+    }
+
+    /**
+     * 查询，条件与 ItemSkuMapper.selectByBo 一致
+     */
+    public Page<ItemSkuVo> page(ItemSkuBo bo, PageQuery pageQuery) {
+        Page<ItemSkuVo> page = pageQuery.build();
+        List<Doc> matched;
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = match(null, ITEM_NAME, bo.getItemName());
+            candidates = match(candidates, ITEM_CODE, bo.getItemCode());
+            candidates = match(candidates, SKU_NAME, bo.getSkuName());
+            candidates = match(candidates, BARCODE, bo.getBarcode());
+            Collection<Doc> source = candidates == null ? docs.values()
+                : candidates.stream().map(docs::get).filter(Objects::nonNull).toList();
+            Map<String, String> parents = categoryParents;
+            matched = source.stream()
+                .filter(doc -> contains(doc.item.getItemName(), bo.getItemName()))
+                .filter(doc -> contains(doc.item.getItemCode(), bo.getItemCode()))
+                .filter(doc -> contains(doc.sku.getSkuName(), bo.getSkuName()))
+                .filter(doc -> contains(doc.sku.getBarcode(), bo.getBarcode()))
+                .filter(doc -> bo.getItemBrand() == null || bo.getItemBrand().equals(doc.item.getItemBrand()))
+                .filter(doc -> matchCategory(parents, doc.item.getItemCategory(), bo.getItemCategory()))
+                .sorted(ORDER)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        long offset = (page.getCurrent() - 1) * page.getSize();
+        page.setRecords(matched.stream().skip(offset).limit(page.getSize()).map(this::toVo).toList());
+        page.setTotal(matched.size());
+        return page;
+    }
+
+    private void onMessage(RefreshMessage msg) {
+        if (msg.isCategories()) {
+            loadCategories();
+        }
+        if (CollUtil.isEmpty(msg.getItemIds())) {
+            return;
+        }
+        List<Item> items = itemMapper.selectBatchIds(msg.getItemIds());
+        List<ItemSku> skus = itemSkuMapper.selectList(Wrappers.<ItemSku>lambdaQuery().in(ItemSku::getItemId, msg.getItemIds()));
+        lock.writeLock().lock();
+        try {
+            msg.getItemIds().forEach(this::remove);
+            index(items, skus);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void publishAfterCommit(RefreshMessage msg) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(msg);
+                }
+            });
+        } else {
+            publish(msg);
+        }
+    }
+
+    private void publish(RefreshMessage msg) {
+        try {
+            redissonClient.getTopic(TOPIC).publish(msg);
+        } catch (Exception e) {
+            log.error("通知商品规格搜索索引更新失败", e);
+        }
+    }
+
+    private void loadCategories() {
+        categoryParents = itemCategoryMapper.selectList(Wrappers.emptyWrapper()).stream()
+            .collect(Collectors.toMap(it -> String.valueOf(it.getId()), it -> String.valueOf(it.getParentId())));
+    }
+
+    private void index(List<Item> items, List<ItemSku> skus) {
+        Map<Long, Item> itemMap = items.stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (ItemSku sku : skus) {
+            Item item = itemMap.get(sku.getItemId());
+            if (item == null) {
+                continue;
+            }
+            Doc doc = new Doc(item, sku);
+            docs.put(sku.getId(), doc);
+            itemSkuIds.computeIfAbsent(item.getId(), k -> new HashSet<>()).add(sku.getId());
+            addGrams(ITEM_NAME, item.getItemName(), sku.getId());
+            addGrams(ITEM_CODE, item.getItemCode(), sku.getId());
+            addGrams(SKU_NAME, sku.getSkuName(), sku.getId());
+            addGrams(BARCODE, sku.getBarcode(), sku.getId());
+        }
+    }
+
+    private void remove(Long itemId) {
+        Set<Long> skuIds = itemSkuIds.remove(itemId);
+        if (skuIds == null) {
+            return;
+        }
+        for (Long skuId : skuIds) {
+            Doc doc = docs.remove(skuId);
+            removeGrams(ITEM_NAME, doc.item.getItemName(), skuId);
+            removeGrams(ITEM_CODE, doc.item.getItemCode(), skuId);
+            removeGrams(SKU_NAME, doc.sku.getSkuName(), skuId);
+            removeGrams(BARCODE, doc.sku.getBarcode(), skuId);
+        }
+    }
+
+    private void addGrams(char field, String value, Long skuId) {
+        grams(field, value).forEach(gram -> postings.computeIfAbsent(gram, k -> new HashSet<>()).add(skuId));
+    }
+
+    private void removeGrams(char field, String value, Long skuId) {
+        grams(field, value).forEach(gram -> {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(skuId) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        });
+    }
+
+    /**
+     * 取值的全部 1~3 字子串
+     */
+    private static Set<String> grams(char field, String value) {
+        if (StrUtil.isEmpty(value)) {
+            return Collections.emptySet();
+        }
+        String text = value.toLowerCase();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            for (int len = 1; len <= GRAM && i + len <= text.length(); len++) {
+                grams.add(field + text.substring(i, i + len));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 按关键词缩小候选集，关键词为空时原样返回
+     */
+    private Set<Long> match(Set<Long> candidates, char field, String keyword) {
+        if (StrUtil.isEmpty(keyword)) {
+            return candidates;
+        }
+        String text = keyword.toLowerCase();
+        List<Set<Long>> lists = new ArrayList<>();
+        if (text.length() <= GRAM) {
+            lists.add(postings.getOrDefault(field + text, Collections.emptySet()));
+        } else {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                lists.add(postings.getOrDefault(field + text.substring(i, i + GRAM), Collections.emptySet()));
+            }
+        }
+        if (candidates != null) {
+            lists.add(candidates);
+        }
+        // 从最短的倒排表开始求交集
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return StrUtil.isEmpty(keyword) || StrUtil.containsIgnoreCase(value, keyword);
+    }
+
+    private static boolean matchCategory(Map<String, String> parents, String category, String keyword) {
+        // 与 SQL 的 inner join 一致，分类不存在的商品不返回
+        if (category == null || !parents.containsKey(category)) {
+            return false;
+        }
+        return StrUtil.isEmpty(keyword) || keyword.equals(category) || keyword.equals(parents.get(category));
+    }
+
+    private ItemSkuVo toVo(Doc doc) {
+        ItemSkuVo vo = MapstructUtils.convert(doc.sku, ItemSkuVo.class);
+        vo.setItem(MapstructUtils.convert(doc.item, ItemVo.class));
+        return vo;
+    }
+
+    private record Doc(Item item, ItemSku sku) {
+    }
+
+    /**
+     * 索引更新通知
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RefreshMessage implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 需要重新加载的商品ID
+         */
+        private List<Long> itemIds;
+
+        /**
+         * 是否重新加载分类
+         */
+        private boolean categories;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ruoyi.wms.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 加密货币行情K线
+ *
+ * @author zcc
+ */
+@Data
+@TableName("crypto_market_candle")
+public class CryptoMarketCandle {
+
+    /**
+     * 币种名称
+     */
+    private String name;
+
+    /**
+     * 周期：1m、1h、1d
+     */
+    private String period;
+
+    /**
+     * 开盘时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime openTime;
+
+    /**
+     * 开盘价
+     */
+    private BigDecimal open;
+
+    /**
+     * 最高价
+     */
+    private BigDecimal high;
+
+    /**
+     * 最低价
+     */
+    private BigDecimal low;
+
+    /**
+     * 收盘价
+     */
+    private BigDecimal close;
+
+    /**
+     * 开盘价对应的行情时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime openTickTime;
+
+    /**
+     * 收盘价对应的行情时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime closeTickTime;
+
+    /**
+     * 采样次数
+     */
+    private Integer tickCount;
+}
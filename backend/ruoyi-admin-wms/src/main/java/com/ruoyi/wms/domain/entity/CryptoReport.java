@@ -9,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -31,4 +32,13 @@ public class CryptoReport {
     private LocalDateTime createTime;
     @TableField(fill = FieldFill.INSERT_UPDATE)
     private LocalDateTime updateTime;
+    /**
+     * 最新审核，由审核通过/驳回在同一事务内维护
+     */
+    private Long latestReviewId;
+    private String reviewStatus;
+    private BigDecimal reviewConfidence;
+    private BigDecimal reviewExpectedReturn;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reviewTime;
 }
@@ -41,6 +41,10 @@ public class InventoryHistory extends BaseHistoryEntity {
      * 操作类型
      */
     private Integer orderType;
+    /**
+     * 单据内行号，与 orderId 组成唯一键
+     */
+    private Integer lineNo;
     /**
      * 物料ID
      */
@@ -0,0 +1,112 @@
+package com.ruoyi.wms.domain.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 持仓分析视图对象
+ *
+ * @author zcc
+ */
+@Data
+public class PortfolioAnalyticsVo implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 持仓ID
+     */
+    private Integer portfolioId;
+
+    /**
+     * 资产类型
+     */
+    private String assetType;
+
+    /**
+     * 快照数
+     */
+    private long snapshotCount;
+
+    /**
+     * 首个快照时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date firstSnapshotTime;
+
+    /**
+     * 最新快照时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private Date lastSnapshotTime;
+
+    /**
+     * 首个快照美元价值
+     */
+    private Double firstUsdValue;
+
+    /**
+     * 最新快照美元价值
+     */
+    private Double lastUsdValue;
+
+    /**
+     * 累计收益率
+     */
+    private Double cumulativeReturn;
+
+    /**
+     * 历史最高美元价值
+     */
+    private Double peakUsdValue;
+
+    /**
+     * 最大回撤
+     */
+    private Double maxDrawdown;
+
+    /**
+     * 相邻快照收益率的标准差
+     */
+    private Double volatility;
+
+    /**
+     * 目标持仓百分比，取当前持仓
+     */
+    private Double targetPercentage;
+
+    /**
+     * 最新快照持仓百分比
+     */
+    private Double currentPercentage;
+
+    /**
+     * 配置偏离，最新快照持仓百分比 - 目标持仓百分比
+     */
+    private Double allocationDrift;
+
+    /**
+     * 降采样后的历史序列
+     */
+    private List<Point> series;
+
+    @Data
+    public static class Point implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        private Date time;
+
+        private Double usdValue;
+
+        private Double percentage;
+    }
+}
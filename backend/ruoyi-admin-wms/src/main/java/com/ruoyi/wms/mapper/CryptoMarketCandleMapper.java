@@ -0,0 +1,21 @@
+package com.ruoyi.wms.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ruoyi.wms.domain.entity.CryptoMarketCandle;
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.List;
+
+/**
+ * 加密货币行情K线Mapper接口
+ *
+ * @author zcc
+ */
+@Mapper
+public interface CryptoMarketCandleMapper extends BaseMapper<CryptoMarketCandle> {
+
+    /**
+     * 合并K线，已存在时取最高价/最低价的极值、更新收盘价并累加采样次数
+     */
+    int upsertBatch(List<CryptoMarketCandle> list);
+}
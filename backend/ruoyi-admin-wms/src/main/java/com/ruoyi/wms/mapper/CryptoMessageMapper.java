@@ -3,9 +3,32 @@ package com.ruoyi.wms.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ruoyi.wms.domain.entity.CryptoMessage;
+import com.ruoyi.wms.domain.query.CryptoMessageQuery;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
 
 @Mapper
 public interface CryptoMessageMapper extends BaseMapper<CryptoMessage> {
+
+    /**
+     * 全文检索消息，按相关度倒序、发布时间倒序
+     *
+     * @param page  分页
+     * @param query 筛选条件
+     * @param term  boolean mode 检索表达式
+     * @param pendingReadIds 已标记已读、尚未刷写的消息ID，按已读筛选
+     */
+    Page<CryptoMessage> selectFulltextPage(Page<CryptoMessage> page, @Param("query") CryptoMessageQuery query, @Param("term") String term,
+                                           @Param("pendingReadIds") Collection<Long> pendingReadIds);
+
+    /**
+     * 全文索引是否存在
+     */
+    @Select("select count(1) from information_schema.statistics where table_schema = database() and table_name = 'crypto_message' and index_name = 'ft_title_content'")
+    int countFulltextIndex();
 }
@@ -2,6 +2,23 @@ package com.ruoyi.wms.mapper;
 
 import com.ruoyi.common.mybatis.core.mapper.BaseMapperPlus;
 import com.ruoyi.wms.domain.entity.CryptoReport;
+import com.ruoyi.wms.domain.entity.CryptoReportReview;
+import org.apache.ibatis.annotations.Param;
 
 public interface CryptoReportMapper extends BaseMapperPlus<CryptoReport, CryptoReport> {
+
+    /**
+     * 把审核记录写入报告的最新审核字段，已有更晚的审核时不覆盖
+     */
+    int updateLatestReview(@Param("review") CryptoReportReview review);
+
+    /**
+     * 按审核表回填所有报告的最新审核字段
+     */
+    int backfillLatestReview();
+
+    /**
+     * 是否存在有审核记录但未回填的报告
+     */
+    boolean existsUnprojectedReview();
 }
@@ -6,7 +6,9 @@ import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 import com.ruoyi.wms.domain.entity.InventoryDetail;
 import com.ruoyi.wms.domain.vo.InventoryDetailVo;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,9 +19,22 @@ import java.util.List;
  * @date 2024-07-22
  */
 public interface InventoryDetailMapper extends BaseMapperPlus<InventoryDetail, InventoryDetailVo> {
-    void deductInventoryDetailQuantity(@Param("list")List<InventoryDetailBo> list, @Param("updateBy") String updateBy, @Param("updateTime") LocalDateTime updateTime);
+    /**
+     * 扣减单条库存记录剩余数，剩余数不足时不更新
+     * @return 影响行数，0 表示剩余数不足或记录不存在
+     */
+    int deductRemainQuantity(@Param("id") Long id, @Param("quantity") BigDecimal quantity, @Param("updateBy") String updateBy, @Param("updateTime") LocalDateTime updateTime);
 
-    Page<InventoryDetailVo> selectPageByBo(Page<InventoryDetailVo> page, @Param("bo") InventoryDetailBo bo);
+    /**
+     * 分页查询库存详情
+     * @param cursor 游标分页时为上一页最后一行的 (warehouse_id, area_id, sku_id, id)，首页为空数组，普通分页为 null
+     */
+    Page<InventoryDetailVo> selectPageByBo(Page<InventoryDetailVo> page, @Param("bo") InventoryDetailBo bo, @Param("cursor") Object[] cursor);
 
     List<InventoryDetailVo> selectListByBo(@Param("bo") InventoryDetailBo bo);
+
+    /**
+     * 流式查询，条件和排序与 selectListByBo 一致，需在事务内遍历
+     */
+    Cursor<InventoryDetailVo> selectCursorByBo(@Param("bo") InventoryDetailBo bo);
 }
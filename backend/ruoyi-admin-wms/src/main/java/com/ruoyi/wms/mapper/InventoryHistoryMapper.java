@@ -7,6 +7,8 @@ import com.ruoyi.wms.domain.entity.InventoryHistory;
 import com.ruoyi.wms.domain.vo.InventoryHistoryVo;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 库存记录Mapper接口
  *
@@ -15,5 +17,14 @@ import org.apache.ibatis.annotations.Param;
  */
 public interface InventoryHistoryMapper extends BaseMapperPlus<InventoryHistory, InventoryHistoryVo> {
 
-    Page<InventoryHistoryVo> selectVoPageByBo(Page<Object> page, @Param("bo") InventoryHistoryBo bo);
+    /**
+     * 分页查询库存记录
+     * @param cursor 游标分页时为上一页最后一行的 (create_time, id)，首页为空数组，普通分页为 null
+     */
+    Page<InventoryHistoryVo> selectVoPageByBo(Page<Object> page, @Param("bo") InventoryHistoryBo bo, @Param("cursor") Object[] cursor);
+
+    /**
+     * 批量写入库存记录，id 或 单据id+行号 已存在的记录忽略，重复写入是幂等的
+     */
+    int insertIgnoreBatch(@Param("list") List<InventoryHistory> list);
 }
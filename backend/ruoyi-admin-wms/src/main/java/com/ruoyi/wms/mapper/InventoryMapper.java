@@ -1,12 +1,18 @@
 package com.ruoyi.wms.mapper;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ruoyi.common.mybatis.core.domain.PlaceAndItem;
 import com.ruoyi.common.mybatis.core.mapper.BaseMapperPlus;
+import com.ruoyi.wms.core.board.WarehouseBoardEntry;
 import com.ruoyi.wms.domain.bo.InventoryBo;
 import com.ruoyi.wms.domain.entity.Inventory;
 import com.ruoyi.wms.domain.vo.InventoryVo;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 库存Mapper接口
  *
@@ -19,4 +25,20 @@ public interface InventoryMapper extends BaseMapperPlus<Inventory, InventoryVo>
     Page<InventoryVo> queryAreaBoardList(Page<InventoryVo> page, @Param("bo") InventoryBo bo);
 
     Page<InventoryVo> selectBoardPageByWarehouse(Page<InventoryVo> page, @Param("bo") InventoryBo bo);
+
+    /**
+     * 按 仓库/商品/规格 汇总全部库存，用于重建仓库维度看板
+     */
+    List<WarehouseBoardEntry> selectWarehouseBoardSummary();
+
+    /**
+     * 按 仓库/库区/规格 批量累加库存，不存在则新增（依赖唯一索引 uk_warehouse_area_sku，库区为空按0参与唯一性）
+     * @param list 库存增量，quantity 为带符号的变动数
+     */
+    int upsertInventoryQuantity(@Param("list") List<Inventory> list, @Param("updateBy") String updateBy, @Param("updateTime") LocalDateTime updateTime);
+
+    /**
+     * 按 仓库/库区/规格 批量查询库存
+     */
+    List<Inventory> selectListByPlaces(@Param("list") Collection<? extends PlaceAndItem> list);
 }
@@ -12,24 +12,23 @@ import com.ruoyi.common.core.utils.StringUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.wms.domain.bo.CheckOrderDetailBo;
 import com.ruoyi.wms.domain.bo.InventoryBo;
 import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 import com.ruoyi.wms.domain.entity.CheckOrderDetail;
 import com.ruoyi.wms.domain.entity.InventoryDetail;
 import com.ruoyi.wms.domain.entity.InventoryHistory;
-import com.ruoyi.wms.mapper.InventoryDetailMapper;
+import com.ruoyi.wms.core.lock.InventoryLockTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.ruoyi.wms.domain.bo.CheckOrderBo;
 import com.ruoyi.wms.domain.vo.CheckOrderVo;
 import com.ruoyi.wms.domain.entity.CheckOrder;
+import com.ruoyi.wms.core.ledger.InventoryHistoryLedger;
 import com.ruoyi.wms.mapper.CheckOrderMapper;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -45,9 +44,9 @@ public class CheckOrderService {
     private final CheckOrderMapper checkOrderMapper;
     private final CheckOrderDetailService checkOrderDetailService;
     private final InventoryDetailService inventoryDetailService;
-    private final InventoryDetailMapper inventoryDetailMapper;
     private final InventoryService inventoryService;
-    private final InventoryHistoryService inventoryHistoryService;
+    private final InventoryHistoryLedger inventoryHistoryLedger;
+    private final InventoryLockTemplate inventoryLockTemplate;
 
     /**
      * 查询库存盘点单据
@@ -174,30 +173,33 @@ public class CheckOrderService {
         // 拆分盘盈入库和盘盈出库数据
         List<InventoryDetailBo> shipmentList = splitOutShipmentData(details);
         List<InventoryDetailBo> receiptList = splitOutReceiptData(bo);
-        // 有盘亏出库
-        if (CollUtil.isNotEmpty(shipmentList)) {
-            // 校验入库记录剩余数
-            inventoryDetailService.validateRemainQuantity(shipmentList);
-            // 扣减入库记录剩余数
-            inventoryDetailMapper.deductInventoryDetailQuantity(shipmentList, LoginHelper.getUsername(), LocalDateTime.now());
-            // 合并
-            List<InventoryBo> mergedDeductInventoryBoList = mergeInventoryDetailByPlaceAndItem(shipmentList);
-            // 扣减库存
-            inventoryService.updateInventoryQuantity(mergedDeductInventoryBoList);
-            // 创建库存记录流水
-            createInventoryHistory(shipmentList, bo.getId(), bo.getCheckOrderNo());
-        }
-        // 有盘盈入库
-        if (CollUtil.isNotEmpty(receiptList)) {
-            // 合并
-            List<InventoryBo> mergedAddInventoryBoList = mergeInventoryDetailByPlaceAndItem(receiptList);
-            // 加库存
-            inventoryService.updateInventoryQuantity(mergedAddInventoryBoList);
-            // 创建入库记录
-            inventoryDetailService.saveBatch(MapstructUtils.convert(receiptList, InventoryDetail.class));
-            // 创建库存记录流水
-            createInventoryHistory(receiptList, bo.getId(), bo.getCheckOrderNo());
-        }
+        // 盘亏和盘盈涉及的库存一次性按顺序加锁
+        List<InventoryDetailBo> lockList = new ArrayList<>(shipmentList);
+        lockList.addAll(receiptList);
+        inventoryLockTemplate.execute(lockList, () -> {
+            // 有盘亏出库
+            if (CollUtil.isNotEmpty(shipmentList)) {
+                // 扣减入库记录剩余数，剩余数不足时抛出异常回滚
+                inventoryDetailService.deductRemainQuantity(shipmentList);
+                // 合并
+                List<InventoryBo> mergedDeductInventoryBoList = mergeInventoryDetailByPlaceAndItem(shipmentList);
+                // 扣减库存
+                inventoryService.updateInventoryQuantity(mergedDeductInventoryBoList);
+                // 创建库存记录流水
+                createInventoryHistory(shipmentList, bo.getId(), bo.getCheckOrderNo(), 0);
+            }
+            // 有盘盈入库
+            if (CollUtil.isNotEmpty(receiptList)) {
+                // 合并
+                List<InventoryBo> mergedAddInventoryBoList = mergeInventoryDetailByPlaceAndItem(receiptList);
+                // 加库存
+                inventoryService.updateInventoryQuantity(mergedAddInventoryBoList);
+                // 创建入库记录
+                inventoryDetailService.saveBatch(MapstructUtils.convert(receiptList, InventoryDetail.class));
+                // 创建库存记录流水
+                createInventoryHistory(receiptList, bo.getId(), bo.getCheckOrderNo(), shipmentList.size());
+            }
+        });
     }
 
     private void calcProfitAndLoss(List<CheckOrderDetailBo> details) {
@@ -261,16 +263,21 @@ public class CheckOrderService {
         return new ArrayList<>(mergedMap.values());
     }
 
-    @Transactional
-    public void createInventoryHistory(List<InventoryDetailBo> inventoryDetailBoList, Long checkOrderId, String checkOrderNo) {
-        List<InventoryHistory> addInventoryHistoryList = inventoryDetailBoList.stream().map(bo -> {
-            InventoryHistory addInventoryHistory = MapstructUtils.convert(bo, InventoryHistory.class);
+    /**
+     * 创建库存记录流水
+     * @param lineOffset 行号起始值，盘亏、盘盈两次写入的行号不能重叠
+     */
+    public void createInventoryHistory(List<InventoryDetailBo> inventoryDetailBoList, Long checkOrderId, String checkOrderNo, int lineOffset) {
+        List<InventoryHistory> addInventoryHistoryList = new ArrayList<>(inventoryDetailBoList.size());
+        for (int i = 0; i < inventoryDetailBoList.size(); i++) {
+            InventoryHistory addInventoryHistory = MapstructUtils.convert(inventoryDetailBoList.get(i), InventoryHistory.class);
             addInventoryHistory.setId(null);
             addInventoryHistory.setOrderId(checkOrderId);
             addInventoryHistory.setOrderNo(checkOrderNo);
             addInventoryHistory.setOrderType(ServiceConstants.InventoryHistoryOrderType.CHECK);
-            return addInventoryHistory;
-        }).toList();
-        inventoryHistoryService.saveBatch(addInventoryHistoryList);
+            addInventoryHistory.setLineNo(lineOffset + i);
+            addInventoryHistoryList.add(addInventoryHistory);
+        }
+        inventoryHistoryLedger.append(addInventoryHistoryList);
     }
 }
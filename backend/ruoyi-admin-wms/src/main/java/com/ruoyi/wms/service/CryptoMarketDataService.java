@@ -1,8 +1,21 @@
 package com.ruoyi.wms.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.ruoyi.wms.domain.entity.CryptoMarketCandle;
 import com.ruoyi.wms.domain.entity.CryptoMarketData;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface CryptoMarketDataService extends IService<CryptoMarketData> {
-}
 
+    /**
+     * 查询K线
+     *
+     * @param name      币种名称
+     * @param period    周期：1m、1h、1d
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     */
+    List<CryptoMarketCandle> queryCandles(String name, String period, LocalDateTime startTime, LocalDateTime endTime);
+}
@@ -2,9 +2,45 @@ package com.ruoyi.wms.service;
 
 
 
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.wms.domain.entity.CryptoMessage;
+import com.ruoyi.wms.domain.query.CryptoMessageQuery;
+
+import java.util.List;
 
 
 public interface CryptoMessageService extends IService<CryptoMessage> {
+
+    /**
+     * 分页查询消息，关键词走全文索引并按相关度排序
+     */
+    Page<CryptoMessage> queryPageList(CryptoMessageQuery query);
+
+    /**
+     * 批量保存消息并登记未读
+     */
+    boolean saveMessages(List<CryptoMessage> messages);
+
+    /**
+     * 查询消息详情并标记已读
+     */
+    CryptoMessage readMessage(Long id);
+
+    /**
+     * 未读数
+     */
+    long countUnread();
+
+    /**
+     * 全部未读消息
+     */
+    List<CryptoMessage> listUnread();
+
+    /**
+     * 未读消息游标分页，按ID倒序
+     */
+    TableDataInfo<CryptoMessage> pageUnread(PageQuery pageQuery);
 }
@@ -4,4 +4,16 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.ruoyi.wms.domain.entity.CryptoReportReview;
 
 public interface CryptoReportReviewService extends IService<CryptoReportReview> {
+
+    /**
+     * 保存审核记录，并在同一事务内更新报告的最新审核字段
+     */
+    boolean saveReview(CryptoReportReview review);
+
+    /**
+     * 按审核表回填报告的最新审核字段
+     *
+     * @return 更新的报告数
+     */
+    int backfillLatestReview();
 }
@@ -5,19 +5,30 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.ruoyi.common.core.exception.base.BaseException;
+import com.ruoyi.common.core.exception.ServiceException;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.core.utils.StringUtils;
+import com.ruoyi.common.excel.utils.ExcelUtil;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
+import com.ruoyi.common.satoken.utils.LoginHelper;
+import com.ruoyi.wms.core.allocation.InventoryAllocator;
+import com.ruoyi.wms.core.exception.InsufficientStockException;
 import com.ruoyi.wms.domain.vo.ItemSkuVo;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 import com.ruoyi.wms.domain.entity.InventoryDetail;
 import com.ruoyi.wms.domain.vo.InventoryDetailVo;
 import com.ruoyi.wms.mapper.InventoryDetailMapper;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -36,8 +47,15 @@ import java.util.stream.Collectors;
 @Service
 public class InventoryDetailService extends ServiceImpl<InventoryDetailMapper, InventoryDetail> {
 
+    /**
+     * 每次提交给数据库的扣减语句数
+     */
+    private static final int DEDUCT_BATCH_SIZE = 200;
+
     private final InventoryDetailMapper inventoryDetailMapper;
     private final ItemSkuService itemSkuService;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final InventoryAllocator inventoryAllocator;
 
     /**
      * 查询库存详情
@@ -56,10 +74,28 @@ public class InventoryDetailService extends ServiceImpl<InventoryDetailMapper, I
             LocalDateTime expirationEndTime = expirationStartTime.plusDays(bo.getDaysToExpires());
             bo.setExpirationEndTime(expirationEndTime);
         }
-        Page<InventoryDetailVo> result = inventoryDetailMapper.selectPageByBo(pageQuery.build(), bo);
+        if (pageQuery.isCursorMode()) {
+            Object[] cursor = pageQuery.decodeCursor(Long.class, Long.class, Long.class, Long.class);
+            Page<InventoryDetailVo> result = inventoryDetailMapper.selectPageByBo(pageQuery.buildCursor(), bo, cursor);
+            return TableDataInfo.buildCursor(result.getRecords(), pageQuery,
+                it -> new Object[]{it.getWarehouseId(), it.getAreaId(), it.getSkuId(), it.getId()}, "wms_inventory_detail");
+        }
+        Page<InventoryDetailVo> result = inventoryDetailMapper.selectPageByBo(pageQuery.build(), bo, null);
         return TableDataInfo.build(result);
     }
 
+    /**
+     * 流式导出库存详情，条件和排序与 {@link #queryList} 一致
+     */
+    @Transactional(readOnly = true)
+    public void export(InventoryDetailBo bo, HttpServletResponse response) {
+        try (Cursor<InventoryDetailVo> cursor = inventoryDetailMapper.selectCursorByBo(bo)) {
+            ExcelUtil.exportExcelByIterator(cursor.iterator(), "库存详情", InventoryDetailVo.class, response);
+        } catch (IOException e) {
+            throw new ServiceException("导出库存详情失败");
+        }
+    }
+
     /**
      * 查询库存详情列表
      */
@@ -97,6 +133,18 @@ public class InventoryDetailService extends ServiceImpl<InventoryDetailMapper, I
     public void insertByBo(InventoryDetailBo bo) {
         InventoryDetail add = MapstructUtils.convert(bo, InventoryDetail.class);
         inventoryDetailMapper.insert(add);
+        inventoryAllocator.onChanged(List.of(add.getId()));
+    }
+
+    /**
+     * 批量新增库存明细，入库、移库和盘库的新增明细都经过这里
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean saveBatch(Collection<InventoryDetail> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        inventoryAllocator.onChanged(entityList.stream().map(InventoryDetail::getId).toList());
+        return result;
     }
 
     /**
@@ -105,6 +153,7 @@ public class InventoryDetailService extends ServiceImpl<InventoryDetailMapper, I
     public void updateByBo(InventoryDetailBo bo) {
         InventoryDetail update = MapstructUtils.convert(bo, InventoryDetail.class);
         inventoryDetailMapper.updateById(update);
+        inventoryAllocator.onChanged(List.of(update.getId()));
     }
 
     /**
@@ -112,32 +161,50 @@ public class InventoryDetailService extends ServiceImpl<InventoryDetailMapper, I
      */
     public void deleteByIds(Collection<Long> ids) {
         inventoryDetailMapper.deleteBatchIds(ids);
+        inventoryAllocator.onChanged(ids);
     }
 
     /**
-     * 校验入库记录剩余数
-     * @param inventoryDetailBoList
+     * 扣减入库记录剩余数
+     * 剩余数校验放在更新语句的条件中，按影响行数判断是否扣减成功，不再预先查询剩余数
+     * @param inventoryDetailBoList id 和 shipmentQuantity 必填
+     * @throws InsufficientStockException 剩余数不足时抛出，包含不足的库存记录id
      */
-    public void validateRemainQuantity(List<InventoryDetailBo> inventoryDetailBoList) {
+    public void deductRemainQuantity(List<InventoryDetailBo> inventoryDetailBoList) {
         if (CollUtil.isEmpty(inventoryDetailBoList)) {
             return;
         }
-        List<InventoryDetail> inventoryDetailList = inventoryDetailMapper.selectBatchIds(inventoryDetailBoList.stream().map(InventoryDetailBo::getId).toList());
-        if (CollUtil.isEmpty(inventoryDetailList)) {
-            throw new BaseException("库存不足");
+        // 同一条库存记录可能出现在多行明细中，先合并；按id排序保证行锁顺序一致
+        Map<Long, BigDecimal> deductMap = new TreeMap<>();
+        inventoryDetailBoList.forEach(it -> deductMap.merge(it.getId(), it.getShipmentQuantity(), BigDecimal::add));
+        List<Map.Entry<Long, BigDecimal>> deductList = new ArrayList<>(deductMap.entrySet());
+
+        String statement = InventoryDetailMapper.class.getName() + ".deductRemainQuantity";
+        String updateBy = LoginHelper.getUsername();
+        LocalDateTime updateTime = LocalDateTime.now();
+        List<Long> insufficientIds = new ArrayList<>();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            for (List<Map.Entry<Long, BigDecimal>> batch : CollUtil.split(deductList, DEDUCT_BATCH_SIZE)) {
+                batch.forEach(entry -> {
+                    Map<String, Object> param = new HashMap<>(4);
+                    param.put("id", entry.getKey());
+                    param.put("quantity", entry.getValue());
+                    param.put("updateBy", updateBy);
+                    param.put("updateTime", updateTime);
+                    sqlSession.update(statement, param);
+                });
+                int[] updateCounts = sqlSession.flushStatements().get(0).getUpdateCounts();
+                for (int i = 0; i < updateCounts.length; i++) {
+                    if (updateCounts[i] == 0) {
+                        insufficientIds.add(batch.get(i).getKey());
+                    }
+                }
+            }
         }
-        Map<Long, BigDecimal> remainQuantityMap = inventoryDetailList
-            .stream()
-            .collect(Collectors.toMap(InventoryDetail::getId, InventoryDetail::getRemainQuantity));
-        boolean validResult = inventoryDetailBoList
-            .stream()
-            .anyMatch(inventoryDetailBo ->
-                !remainQuantityMap.containsKey(inventoryDetailBo.getId())
-                    || remainQuantityMap.get(inventoryDetailBo.getId()).compareTo(inventoryDetailBo.getShipmentQuantity()) < 0
-            );
-        if (validResult) {
-            throw new BaseException("库存不足");
+        if (!insufficientIds.isEmpty()) {
+            throw new InsufficientStockException(insufficientIds);
         }
+        inventoryAllocator.onChanged(deductMap.keySet());
     }
 
     public void clearDataWithZeroRemainQuantity() {
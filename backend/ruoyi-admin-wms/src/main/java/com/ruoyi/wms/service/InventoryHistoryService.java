@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import com.ruoyi.wms.domain.vo.InventoryHistoryVo;
 import com.ruoyi.wms.mapper.InventoryHistoryMapper;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -41,15 +42,34 @@ public class InventoryHistoryService extends ServiceImpl<InventoryHistoryMapper,
      * 查询库存记录列表
      */
     public TableDataInfo<InventoryHistoryVo> queryPageList(InventoryHistoryBo bo, PageQuery pageQuery) {
-        Page<InventoryHistoryVo> result = inventoryHistoryMapper.selectVoPageByBo(pageQuery.build(), bo);
+        if (pageQuery.isCursorMode()) {
+            Object[] cursor = pageQuery.decodeCursor(LocalDateTime.class, Long.class);
+            Page<InventoryHistoryVo> result = inventoryHistoryMapper.selectVoPageByBo(pageQuery.buildCursor(), bo, cursor);
+            return TableDataInfo.buildCursor(result.getRecords(), pageQuery,
+                it -> new Object[]{it.getCreateTime(), it.getId()}, "wms_inventory_history");
+        }
+        Page<InventoryHistoryVo> result = inventoryHistoryMapper.selectVoPageByBo(pageQuery.build(), bo, null);
         return TableDataInfo.build(result);
     }
 
+    /**
+     * 按id倒序分批查询库存记录，用于导出，条件和排序与 {@link #queryList} 一致
+     *
+     * @param last 上一批最后一行，首批为 null
+     */
+    public List<InventoryHistoryVo> queryBatchAfter(InventoryHistoryBo bo, InventoryHistoryVo last) {
+        LambdaQueryWrapper<InventoryHistory> lqw = buildQueryWrapper(bo)
+            .lt(last != null, InventoryHistory::getId, last == null ? null : last.getId())
+            .orderByDesc(InventoryHistory::getId);
+        return inventoryHistoryMapper.selectVoPage(new Page<>(PageQuery.DEFAULT_PAGE_NUM, PageQuery.MAX_CURSOR_PAGE_SIZE, false), lqw)
+            .getRecords();
+    }
+
     /**
      * 查询库存记录列表
      */
     public List<InventoryHistoryVo> queryList(InventoryHistoryBo bo) {
-        LambdaQueryWrapper<InventoryHistory> lqw = buildQueryWrapper(bo);
+        LambdaQueryWrapper<InventoryHistory> lqw = buildQueryWrapper(bo).orderByDesc(InventoryHistory::getId);
         return inventoryHistoryMapper.selectVoList(lqw);
     }
 
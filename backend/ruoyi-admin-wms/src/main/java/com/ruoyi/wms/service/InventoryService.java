@@ -1,10 +1,13 @@
 package com.ruoyi.wms.service;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ruoyi.common.core.exception.ServiceException;
 import com.ruoyi.common.core.exception.base.BaseException;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.core.utils.ValidatorUtils;
@@ -12,6 +15,7 @@ import com.ruoyi.common.core.validate.AddGroup;
 import com.ruoyi.common.mybatis.core.domain.PlaceAndItem;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
+import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.wms.domain.bo.InventoryBo;
 import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 import com.ruoyi.wms.domain.bo.ShipmentDataBo;
@@ -19,6 +23,8 @@ import com.ruoyi.wms.domain.bo.ShipmentOrderDetailBo;
 import com.ruoyi.wms.domain.entity.Inventory;
 import com.ruoyi.wms.domain.vo.InventoryVo;
 import com.ruoyi.wms.domain.vo.ItemSkuVo;
+import com.ruoyi.wms.core.board.WarehouseBoard;
+import com.ruoyi.wms.core.lock.InventoryLockTemplate;
 import com.ruoyi.wms.mapper.InventoryMapper;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -27,6 +33,8 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -41,9 +49,16 @@ import java.util.stream.Collectors;
 @Service
 public class InventoryService extends ServiceImpl<InventoryMapper, Inventory> {
 
+    /**
+     * 单条 upsert 语句的最大行数
+     */
+    private static final int UPSERT_BATCH_SIZE = 500;
+
     private final InventoryMapper inventoryMapper;
     private final InventoryDetailService inventoryDetailService;
     private final ItemSkuService itemSkuService;
+    private final InventoryLockTemplate inventoryLockTemplate;
+    private final WarehouseBoard warehouseBoard;
 
     /**
      * 查询库存
@@ -72,57 +87,95 @@ public class InventoryService extends ServiceImpl<InventoryMapper, Inventory> {
     /**
      * 新增库存
      */
+    @Transactional(rollbackFor = Exception.class)
     public void insertByBo(InventoryBo bo) {
         Inventory add = MapstructUtils.convert(bo, Inventory.class);
         inventoryMapper.insert(add);
+        warehouseBoard.apply(List.of(bo));
     }
 
     /**
      * 修改库存
      */
+    @Transactional(rollbackFor = Exception.class)
     public void updateByBo(InventoryBo bo) {
         Inventory update = MapstructUtils.convert(bo, Inventory.class);
+        Inventory origin = inventoryMapper.selectById(bo.getId());
         inventoryMapper.updateById(update);
+        if (origin != null) {
+            Inventory current = inventoryMapper.selectById(bo.getId());
+            warehouseBoard.apply(List.of(toDelta(origin, origin.getQuantity().negate()), toDelta(current, current.getQuantity())));
+        }
     }
 
     /**
      * 批量删除库存
      */
+    @Transactional(rollbackFor = Exception.class)
     public void deleteByIds(Collection<Long> ids) {
+        List<Inventory> origins = inventoryMapper.selectBatchIds(ids);
         inventoryMapper.deleteBatchIds(ids);
+        // 删除后汇总为0的键从看板移除，与库存表汇总一致
+        warehouseBoard.apply(origins.stream()
+            .filter(it -> it.getQuantity() != null)
+            .map(it -> toDelta(it, it.getQuantity().negate()))
+            .toList(), true);
+    }
+
+    private InventoryBo toDelta(Inventory inventory, BigDecimal quantity) {
+        InventoryBo delta = new InventoryBo();
+        delta.setWarehouseId(inventory.getWarehouseId());
+        delta.setSkuId(inventory.getSkuId());
+        delta.setQuantity(quantity);
+        return delta;
     }
 
     /**
      * 更新库存
+     * 按 仓库/库区/规格 加锁，锁持有到事务结束，不相关的规格可以并行更新
      * @param list
      */
     @Transactional
-    public synchronized void updateInventoryQuantity(List<InventoryBo> list) {
+    public void updateInventoryQuantity(List<InventoryBo> list) {
         list.forEach(inventoryBo -> {
             ValidatorUtils.validate(inventoryBo, AddGroup.class);
         });
+        inventoryLockTemplate.execute(list, () -> doUpdateInventoryQuantity(list));
+    }
 
-        List<Inventory> addList = new LinkedList<>();
-        List<Inventory> updateList = new LinkedList<>();
-        list.forEach(inventoryBo -> {
-            LambdaQueryWrapper<Inventory> wrapper = Wrappers.lambdaQuery();
-            wrapper.eq(Inventory::getWarehouseId, inventoryBo.getWarehouseId());
-            wrapper.eq(Inventory::getAreaId, inventoryBo.getAreaId());
-            wrapper.eq(Inventory::getSkuId, inventoryBo.getSkuId());
-            Inventory result = inventoryMapper.selectOne(wrapper);
-            if(result!=null){
-                result.setQuantity(result.getQuantity().add(inventoryBo.getQuantity()));
-                updateList.add(result);
-            }else {
-                Inventory inventory = MapstructUtils.convert(inventoryBo, Inventory.class);
-                addList.add(inventory);
-            }
-        });
-        if (addList.size() > 0) {
-            saveBatch(addList);
+    private void doUpdateInventoryQuantity(List<InventoryBo> list) {
+        List<Inventory> deltaList = list.stream().map(inventoryBo -> {
+            Inventory delta = MapstructUtils.convert(inventoryBo, Inventory.class);
+            delta.setId(IdWorker.getId());
+            return delta;
+        }).toList();
+        String username = LoginHelper.getUsername();
+        LocalDateTime now = LocalDateTime.now();
+        // 单条语句完成累加或新增，避免逐行查询后再更新
+        CollUtil.split(deltaList, UPSERT_BATCH_SIZE)
+            .forEach(batch -> inventoryMapper.upsertInventoryQuantity(batch, username, now));
+        validateDeductedQuantity(list);
+        warehouseBoard.apply(list);
+    }
+
+    /**
+     * 校验扣减后的库存不能为负数
+     * @param list
+     */
+    private void validateDeductedQuantity(List<InventoryBo> list) {
+        List<InventoryBo> deductList = list.stream()
+            .filter(it -> it.getQuantity().signum() < 0)
+            .toList();
+        if (CollUtil.isEmpty(deductList)) {
+            return;
         }
-        if (updateList.size() > 0) {
-            updateBatchById(updateList);
+        List<String> shortageKeys = CollUtil.split(deductList, UPSERT_BATCH_SIZE).stream()
+            .flatMap(batch -> inventoryMapper.selectListByPlaces(batch).stream())
+            .filter(it -> it.getQuantity().signum() < 0)
+            .map(Inventory::getKey)
+            .toList();
+        if (CollUtil.isNotEmpty(shortageKeys)) {
+            throw new ServiceException("库存不足：" + String.join(",", shortageKeys));
         }
     }
 
@@ -148,8 +201,14 @@ public class InventoryService extends ServiceImpl<InventoryMapper, Inventory> {
         return inventoryMapper.exists(lqw);
     }
 
+    /**
+     * 查询库存列表仓库维度
+     * 没有商品条件时直接读取看板汇总，否则走 SQL 聚合
+     */
     public TableDataInfo<InventoryVo> queryWarehouseBoardList(InventoryBo bo, PageQuery pageQuery) {
-            TableDataInfo<InventoryVo> tableDataInfo = TableDataInfo.build(inventoryMapper.selectBoardPageByWarehouse(pageQuery.build(), bo));
+            TableDataInfo<InventoryVo> tableDataInfo = hasItemCondition(bo)
+                ? TableDataInfo.build(inventoryMapper.selectBoardPageByWarehouse(pageQuery.build(), bo))
+                : TableDataInfo.build(warehouseBoard.page(bo, pageQuery));
             if (CollUtil.isEmpty(tableDataInfo.getRows())) {
                 return tableDataInfo;
             }
@@ -158,11 +217,31 @@ public class InventoryService extends ServiceImpl<InventoryMapper, Inventory> {
             tableDataInfo.getRows().forEach(it -> {
                 ItemSkuVo itemSku = skuMap.get(it.getSkuId());
                 it.setItemSku(itemSku);
-                it.setItem(itemSku.getItem());
+                it.setItem(itemSku == null ? null : itemSku.getItem());
             });
             return tableDataInfo;
     }
 
+    private boolean hasItemCondition(InventoryBo bo) {
+        return StrUtil.isNotBlank(bo.getItemName()) || StrUtil.isNotBlank(bo.getItemCode())
+            || StrUtil.isNotBlank(bo.getSkuName()) || StrUtil.isNotBlank(bo.getSkuCode())
+            || bo.getItemCategory() != null;
+    }
+
+    /**
+     * 重建仓库维度看板
+     */
+    public void rebuildWarehouseBoard() {
+        warehouseBoard.rebuild();
+    }
+
+    /**
+     * 检查仓库维度看板与库存表是否一致
+     */
+    public List<String> checkWarehouseBoard() {
+        return warehouseBoard.check();
+    }
+
     /**
      * 查询库存列表
      */
@@ -13,6 +13,7 @@ import com.ruoyi.wms.domain.bo.ItemCategoryBo;
 import com.ruoyi.wms.domain.entity.Item;
 import com.ruoyi.wms.domain.vo.ItemCategoryVo;
 import com.ruoyi.wms.domain.vo.ItemTypeTreeSelectVo;
+import com.ruoyi.wms.core.search.ItemSkuSearchIndex;
 import com.ruoyi.wms.mapper.ItemCategoryMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -32,6 +33,7 @@ public class ItemCategoryService extends ServiceImpl<ItemCategoryMapper, ItemCat
 
     private final ItemCategoryMapper itemCategoryMapper;
     private final ItemMapper itemMapper;
+    private final ItemSkuSearchIndex itemSkuSearchIndex;
 
     /**
      * 查询物料类型
@@ -90,6 +92,7 @@ public class ItemCategoryService extends ServiceImpl<ItemCategoryMapper, ItemCat
         ItemCategory itemType = itemCategoryMapper.selectOne(wrapper);
         add.setOrderNum(itemType == null ? 0L : itemType.getOrderNum() + 1);
         itemCategoryMapper.insert(add);
+        itemSkuSearchIndex.refreshCategories();
     }
 
     /**
@@ -100,6 +103,7 @@ public class ItemCategoryService extends ServiceImpl<ItemCategoryMapper, ItemCat
         validateItemTypeName(bo);
         ItemCategory update = MapstructUtils.convert(bo, ItemCategory.class);
         itemCategoryMapper.updateById(update);
+        itemSkuSearchIndex.refreshCategories();
     }
 
     private void validateItemTypeName(ItemCategoryBo bo) {
@@ -126,6 +130,7 @@ public class ItemCategoryService extends ServiceImpl<ItemCategoryMapper, ItemCat
         LambdaQueryWrapper<ItemCategory> deleteWrapper = new LambdaQueryWrapper<>();
         deleteWrapper.in(ItemCategory::getId, ids);
         itemCategoryMapper.delete(deleteWrapper);
+        itemSkuSearchIndex.refreshCategories();
     }
 
     /**
@@ -9,6 +9,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
+import com.ruoyi.wms.core.search.ItemSkuSearchIndex;
 import com.ruoyi.wms.domain.bo.ItemBo;
 import com.ruoyi.wms.domain.bo.ItemSkuBo;
 import com.ruoyi.wms.domain.entity.Item;
@@ -37,6 +38,7 @@ public class ItemService {
     private final ItemSkuService itemSkuService;
     private final ItemCategoryMapper itemCategoryMapper;
     private final InventoryService inventoryService;
+    private final ItemSkuSearchIndex itemSkuSearchIndex;
 
     /**
      * 查询物料
@@ -125,6 +127,7 @@ public class ItemService {
         itemMapper.insert(item);
         itemSkuService.setItemId(bo.getSku(),item.getId());
         itemSkuService.saveOrUpdateBatchByBo(bo.getSku());
+        itemSkuSearchIndex.refreshItems(List.of(item.getId()));
     }
 
     /**
@@ -138,6 +141,7 @@ public class ItemService {
         itemMapper.updateById(MapstructUtils.convert(bo, Item.class));
         itemSkuService.setItemId(bo.getSku(),bo.getId());
         itemSkuService.saveOrUpdateBatchByBo(bo.getSku());
+        itemSkuSearchIndex.refreshItems(List.of(bo.getId()));
     }
 
     /**
@@ -172,6 +176,7 @@ public class ItemService {
         List<Long> skuIds = itemSkuService.queryByItemIds(List.of(id)).stream().map(ItemSku::getId).toList();
         itemMapper.deleteById(id);
         itemSkuService.deleteByIds(skuIds);
+        itemSkuSearchIndex.refreshItems(List.of(id));
     }
 
 }
@@ -12,6 +12,7 @@ import com.ruoyi.common.core.exception.base.BaseException;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
+import com.ruoyi.wms.core.search.ItemSkuSearchIndex;
 import com.ruoyi.wms.mapper.ItemMapper;
 import com.ruoyi.wms.mapper.ItemSkuMapper;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +42,7 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
     private final ItemCategoryMapper itemCategoryMapper;
     private final InventoryService inventoryService;
     private final ItemMapper itemMapper;
+    private final ItemSkuSearchIndex itemSkuSearchIndex;
 
     /**
      * 查询sku信息
@@ -56,8 +58,10 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
      */
 
     public TableDataInfo<ItemSkuVo> queryPageList(ItemSkuBo bo, PageQuery pageQuery) {
-        //开始查sku
-        IPage<ItemSkuVo> result = itemSkuMapper.selectByBo(pageQuery.build(), bo);
+        // 索引就绪后走内存索引，冷启动期间查库
+        IPage<ItemSkuVo> result = itemSkuSearchIndex.isReady()
+            ? itemSkuSearchIndex.page(bo, pageQuery)
+            : itemSkuMapper.selectByBo(pageQuery.build(), bo);
         return TableDataInfo.build(result);
     }
 
@@ -86,7 +90,9 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
 
     public Boolean insertByBo(ItemSkuBo bo) {
         ItemSku add = MapstructUtils.convert(bo, ItemSku.class);
-        return itemSkuMapper.insert(add) > 0;
+        boolean flag = itemSkuMapper.insert(add) > 0;
+        itemSkuSearchIndex.refreshItems(List.of(add.getItemId()));
+        return flag;
     }
 
     /**
@@ -95,12 +101,16 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
 
     public Boolean updateByBo(ItemSkuBo bo) {
         ItemSku update = MapstructUtils.convert(bo, ItemSku.class);
-        return itemSkuMapper.updateById(update) > 0;
+        boolean flag = itemSkuMapper.updateById(update) > 0;
+        itemSkuSearchIndex.refreshSkus(List.of(update.getId()));
+        return flag;
     }
 
+    @Transactional
     public void deleteById(Long id) {
         validateIdBeforeDelete(id);
         itemSkuMapper.deleteById(id);
+        itemSkuSearchIndex.refreshSkus(List.of(id));
     }
 
     private void validateIdBeforeDelete(Long id) {
@@ -124,12 +134,13 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
     /**
      * 批量删除sku信息
      */
-
+    @Transactional
     public void deleteByIds(Collection<Long> ids) {
         // 校验库存是否已关联
         validateSkuIdsBeforeDelete(ids);
         // 删除
         itemSkuMapper.deleteBatchIds(ids);
+        itemSkuSearchIndex.refreshSkus(ids);
     }
 
     /**
@@ -140,6 +151,7 @@ public class ItemSkuService extends ServiceImpl<ItemSkuMapper, ItemSku> {
     public void saveOrUpdateBatchByBo(List<ItemSkuBo> sku) {
         List<ItemSku> itemSkuList = MapstructUtils.convert(sku, ItemSku.class);
         saveOrUpdateBatch(itemSkuList);
+        itemSkuSearchIndex.refreshItems(itemSkuList.stream().map(ItemSku::getItemId).filter(Objects::nonNull).toList());
     }
 
     /**
@@ -12,7 +12,6 @@ import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.mybatis.core.domain.BaseEntity;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
-import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.wms.domain.bo.InventoryBo;
 import com.ruoyi.wms.domain.bo.InventoryDetailBo;
 import com.ruoyi.wms.domain.bo.MovementOrderBo;
@@ -22,14 +21,14 @@ import com.ruoyi.wms.domain.entity.InventoryHistory;
 import com.ruoyi.wms.domain.entity.MovementOrder;
 import com.ruoyi.wms.domain.entity.MovementOrderDetail;
 import com.ruoyi.wms.domain.vo.MovementOrderVo;
-import com.ruoyi.wms.mapper.InventoryDetailMapper;
+import com.ruoyi.wms.core.lock.InventoryLockTemplate;
+import com.ruoyi.wms.core.ledger.InventoryHistoryLedger;
 import com.ruoyi.wms.mapper.MovementOrderMapper;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -46,8 +45,8 @@ public class MovementOrderService {
     private final MovementOrderDetailService movementOrderDetailService;
     private final InventoryService inventoryService;
     private final InventoryDetailService inventoryDetailService;
-    private final InventoryDetailMapper inventoryDetailMapper;
-    private final InventoryHistoryService inventoryHistoryService;
+    private final InventoryHistoryLedger inventoryHistoryLedger;
+    private final InventoryLockTemplate inventoryLockTemplate;
 
 
     /**
@@ -172,27 +171,29 @@ public class MovementOrderService {
         // 1.校验商品明细不能为空！
         validateBeforeMove(bo);
 
-        // 2.校验库存记录
-        inventoryDetailService.validateRemainQuantity(inventoryDetailBoList);
-
-        // 3.保存移库单核移库单明细
+        // 2.保存移库单核移库单明细
         if (Objects.isNull(bo.getId())) {
             insertByBo(bo);
         } else {
             updateByBo(bo);
         }
-        // 4.更新库存Inventory
+        // 3.更新库存Inventory
         List<InventoryBo> mergedShipmentInventoryList = mergeShipmentDetailByPlaceAndItem(bo.getDetails());
         List<InventoryBo> mergedReceiptInventoryList = mergeReceiptDetailByPlaceAndItem(bo.getDetails());
         mergedShipmentInventoryList.forEach(mergedShipmentInventory -> mergedShipmentInventory.setQuantity(mergedShipmentInventory.getQuantity().negate()));
-        inventoryService.updateInventoryQuantity(mergedShipmentInventoryList);
-        inventoryService.updateInventoryQuantity(mergedReceiptInventoryList);
+        // 移出和移入库存一次性按顺序加锁，避免分两次加锁导致死锁
+        List<InventoryBo> lockInventoryList = new ArrayList<>(mergedShipmentInventoryList);
+        lockInventoryList.addAll(mergedReceiptInventoryList);
+        inventoryLockTemplate.execute(lockInventoryList, () -> {
+            inventoryService.updateInventoryQuantity(mergedShipmentInventoryList);
+            inventoryService.updateInventoryQuantity(mergedReceiptInventoryList);
+        });
 
-        // 5.更新库存明细InventoryDetail: deductInventoryDetailQuantity移出扣减库存，addInventoryDetail为移入增加库存
-        inventoryDetailMapper.deductInventoryDetailQuantity(inventoryDetailBoList, LoginHelper.getUsername(), LocalDateTime.now());
+        // 4.更新库存明细InventoryDetail: deductRemainQuantity移出扣减库存，addInventoryDetail为移入增加库存
+        inventoryDetailService.deductRemainQuantity(inventoryDetailBoList);
         addInventoryDetail(bo);
 
-        // 6.创建库存记录流水
+        // 5.创建库存记录流水
         createInventoryHistory(bo);
     }
 
@@ -289,9 +290,13 @@ public class MovementOrderService {
      */
     @Transactional
     public void createInventoryHistory(MovementOrderBo bo) {
-        List<InventoryHistory> addInventoryHistoryList = new LinkedList<>();
-        bo.getDetails().forEach(detail -> {
+        List<MovementOrderDetailBo> details = bo.getDetails();
+        List<InventoryHistory> addInventoryHistoryList = new ArrayList<>(details.size() * 2);
+        for (int i = 0; i < details.size(); i++) {
+            MovementOrderDetailBo detail = details.get(i);
+            // 每行明细生成移出、移入两条记录，行号分别为 2i、2i+1
             InventoryHistory shipmentInventoryHistory = new InventoryHistory();
+            shipmentInventoryHistory.setLineNo(2 * i);
             shipmentInventoryHistory.setWarehouseId(detail.getSourceWarehouseId());
             shipmentInventoryHistory.setAreaId(detail.getSourceAreaId());
             shipmentInventoryHistory.setSkuId(detail.getSkuId());
@@ -304,6 +309,7 @@ public class MovementOrderService {
             shipmentInventoryHistory.setOrderType(ServiceConstants.InventoryHistoryOrderType.MOVEMENT);
             addInventoryHistoryList.add(shipmentInventoryHistory);
             InventoryHistory receiptInventoryHistory = new InventoryHistory();
+            receiptInventoryHistory.setLineNo(2 * i + 1);
             receiptInventoryHistory.setWarehouseId(detail.getTargetWarehouseId());
             receiptInventoryHistory.setAreaId(detail.getTargetAreaId());
             receiptInventoryHistory.setSkuId(detail.getSkuId());
@@ -315,7 +321,7 @@ public class MovementOrderService {
             receiptInventoryHistory.setOrderNo(bo.getMovementOrderNo());
             receiptInventoryHistory.setOrderType(ServiceConstants.InventoryHistoryOrderType.MOVEMENT);
             addInventoryHistoryList.add(receiptInventoryHistory);
-        });
-        inventoryHistoryService.saveBatch(addInventoryHistoryList);
+        }
+        inventoryHistoryLedger.append(addInventoryHistoryList);
     }
 }
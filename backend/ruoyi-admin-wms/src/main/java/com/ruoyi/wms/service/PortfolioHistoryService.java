@@ -2,6 +2,7 @@ package com.ruoyi.wms.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.ruoyi.wms.domain.entity.PortfolioHistory;
+import com.ruoyi.wms.domain.vo.PortfolioAnalyticsVo;
 
 import java.util.List;
 
@@ -10,5 +11,7 @@ public interface PortfolioHistoryService extends IService<PortfolioHistory> {
     List<PortfolioHistory> getPortfolioHistoryList(Integer portfolioId);
     // 查询近N天记录
     List<PortfolioHistory> getRecentHistory(Integer historyId, Integer days);
+    // 持仓分析指标和降采样历史序列
+    List<PortfolioAnalyticsVo> getAnalytics(Integer portfolioId);
 }
 
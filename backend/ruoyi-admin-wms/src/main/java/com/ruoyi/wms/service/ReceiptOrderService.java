@@ -23,6 +23,7 @@ import com.ruoyi.wms.domain.entity.InventoryHistory;
 import com.ruoyi.wms.domain.entity.ReceiptOrder;
 import com.ruoyi.wms.domain.entity.ReceiptOrderDetail;
 import com.ruoyi.wms.domain.vo.ReceiptOrderVo;
+import com.ruoyi.wms.core.ledger.InventoryHistoryLedger;
 import com.ruoyi.wms.mapper.ReceiptOrderDetailMapper;
 import com.ruoyi.wms.mapper.ReceiptOrderMapper;
 import lombok.RequiredArgsConstructor;
@@ -48,7 +49,7 @@ public class ReceiptOrderService {
     private final ReceiptOrderDetailMapper receiptOrderDetailMapper;
     private final InventoryService inventoryService;
     private final InventoryDetailService inventoryDetailService;
-    private final InventoryHistoryService inventoryHistoryService;
+    private final InventoryHistoryLedger inventoryHistoryLedger;
     private final SysDictTypeService dictTypeService;
 
     /**
@@ -149,10 +150,13 @@ public class ReceiptOrderService {
     }
 
     private void saveInventoryHistory(ReceiptOrderBo bo){
-        List<InventoryHistory> inventoryHistoryList = new LinkedList<>();
-        bo.getDetails().forEach(detail -> {
+        List<ReceiptOrderDetailBo> details = bo.getDetails();
+        List<InventoryHistory> inventoryHistoryList = new ArrayList<>(details.size());
+        for (int i = 0; i < details.size(); i++) {
+            ReceiptOrderDetailBo detail = details.get(i);
             InventoryHistory inventoryHistory = new InventoryHistory();
             inventoryHistory.setOrderId(bo.getId());
+            inventoryHistory.setLineNo(i);
             inventoryHistory.setOrderNo(bo.getReceiptOrderNo());
             inventoryHistory.setOrderType(ServiceConstants.InventoryHistoryOrderType.RECEIPT);
             inventoryHistory.setSkuId(detail.getSkuId());
@@ -164,8 +168,8 @@ public class ReceiptOrderService {
             inventoryHistory.setExpirationDate(detail.getExpirationDate());
             inventoryHistory.setAmount(detail.getAmount());
             inventoryHistoryList.add(inventoryHistory);
-        });
-        inventoryHistoryService.saveBatch(inventoryHistoryList);
+        }
+        inventoryHistoryLedger.append(inventoryHistoryList);
     }
 
     private void saveInventoryDetails(ReceiptOrderBo bo){
@@ -104,7 +104,19 @@ public class ShipmentOrderDetailService extends ServiceImpl<ShipmentOrderDetailM
         if (CollUtil.isEmpty(list)) {
             return;
         }
-        saveOrUpdateBatch(list);
+        // 一次查询已存在的id，拆分为批量新增和批量更新，避免 saveOrUpdateBatch 逐行查询是否存在
+        List<Long> ids = list.stream().map(ShipmentOrderDetail::getId).filter(Objects::nonNull).toList();
+        Set<Long> existIds = ids.isEmpty() ? Collections.emptySet() : shipmentOrderDetailMapper.selectList(
+                Wrappers.<ShipmentOrderDetail>lambdaQuery().select(ShipmentOrderDetail::getId).in(ShipmentOrderDetail::getId, ids))
+            .stream().map(ShipmentOrderDetail::getId).collect(Collectors.toSet());
+        Map<Boolean, List<ShipmentOrderDetail>> partitioned = list.stream()
+            .collect(Collectors.partitioningBy(it -> existIds.contains(it.getId())));
+        if (CollUtil.isNotEmpty(partitioned.get(false))) {
+            saveBatch(partitioned.get(false));
+        }
+        if (CollUtil.isNotEmpty(partitioned.get(true))) {
+            updateBatchById(partitioned.get(true));
+        }
     }
 
     public List<ShipmentOrderDetailVo> queryByShipmentOrderId(Long shipmentOrderId) {
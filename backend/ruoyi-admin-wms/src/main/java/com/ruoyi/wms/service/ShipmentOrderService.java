@@ -13,13 +13,15 @@ import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.mybatis.core.domain.BaseEntity;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
-import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.wms.domain.bo.*;
 import com.ruoyi.wms.domain.entity.InventoryHistory;
 import com.ruoyi.wms.domain.entity.ShipmentOrder;
 import com.ruoyi.wms.domain.entity.ShipmentOrderDetail;
 import com.ruoyi.wms.domain.vo.ShipmentOrderVo;
-import com.ruoyi.wms.mapper.InventoryDetailMapper;
+import com.ruoyi.wms.config.properties.InventoryProperties.AllocationStrategy;
+import com.ruoyi.wms.core.allocation.InventoryAllocator;
+import com.ruoyi.wms.core.ledger.InventoryHistoryLedger;
+import com.ruoyi.wms.core.posting.PostingMetrics;
 import com.ruoyi.wms.mapper.ShipmentOrderMapper;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
@@ -27,7 +29,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -43,9 +44,10 @@ public class ShipmentOrderService {
     private final ShipmentOrderMapper shipmentOrderMapper;
     private final ShipmentOrderDetailService shipmentOrderDetailService;
     private final InventoryService inventoryService;
-    private final InventoryDetailMapper inventoryDetailMapper;
-    private final InventoryHistoryService inventoryHistoryService;
+    private final InventoryHistoryLedger inventoryHistoryLedger;
     private final InventoryDetailService inventoryDetailService;
+    private final PostingMetrics postingMetrics;
+    private final InventoryAllocator inventoryAllocator;
 
     /**
      * 查询出库单
@@ -147,32 +149,60 @@ public class ShipmentOrderService {
         }
     }
 
+    /**
+     * 为未指定库存明细的出库明细自动分配库存明细
+     * @param bo 出库单
+     * @param strategy 分配策略，为空时取配置
+     * @return 分配后的出库单
+     */
+    public ShipmentOrderBo allocate(ShipmentOrderBo bo, AllocationStrategy strategy) {
+        validateBeforeShipment(bo);
+        bo.setDetails(inventoryAllocator.allocate(bo.getDetails(), strategy));
+        return bo;
+    }
+
     /**
      * 出库
+     * 先在内存中计划好本次出库涉及的全部数据（库存增量、库存明细扣减、库存记录），再按阶段批量写库，
+     * 各阶段耗时见 {@link PostingMetrics}
      * @param bo
      */
     @Transactional
     public void shipment(ShipmentOrderBo bo) {
         // 1.校验商品明细不能为空！
         validateBeforeShipment(bo);
-        // 2.按仓库库区规格合并商品明细数量
-        List<InventoryBo> mergedInventoryBoList = mergeShipmentOrderDetailByPlaceAndItem(bo.getDetails());
-        // 3.校验库存明细
-        List<InventoryDetailBo> inventoryDetailBoList = convertShipmentOrderDetailToInventoryDetail(bo.getDetails());
-        inventoryDetailService.validateRemainQuantity(inventoryDetailBoList);
-        // 4. 保存入库单和入库单明细
-        if (Objects.isNull(bo.getId())) {
-            insertByBo(bo);
-        } else {
-            updateByBo(bo);
-        }
+        PostingMetrics.Stages stages = postingMetrics.start("shipment", bo.getShipmentOrderNo());
+        // 未指定库存明细的行按默认策略自动分配
+        stages.record("allocate", () -> bo.setDetails(inventoryAllocator.allocate(bo.getDetails(), null)));
+        // 2.计划：按仓库库区规格合并扣减数量，转换库存明细扣减和库存记录，不访问数据库
+        ShipmentPlan plan = stages.record("plan", () -> new ShipmentPlan(
+            mergeShipmentOrderDetailByPlaceAndItem(bo.getDetails()),
+            convertShipmentOrderDetailToInventoryDetail(bo.getDetails()),
+            buildInventoryHistory(bo)));
+        List<InventoryBo> mergedInventoryBoList = plan.inventoryList();
+        List<InventoryDetailBo> inventoryDetailBoList = plan.inventoryDetailList();
+        List<InventoryHistory> inventoryHistoryList = plan.inventoryHistoryList();
+        // 3.保存出库单和出库单明细
+        stages.record("order", () -> {
+            if (Objects.isNull(bo.getId())) {
+                insertByBo(bo);
+            } else {
+                updateByBo(bo);
+            }
+        });
+        // 4.扣减库存明细：InventoryDetail表，剩余数不足时抛出异常回滚
+        stages.record("inventoryDetail", () -> inventoryDetailService.deductRemainQuantity(inventoryDetailBoList));
         // 5.更新库存：Inventory表
-        mergedInventoryBoList.forEach(mergedInventoryBo -> mergedInventoryBo.setQuantity(mergedInventoryBo.getQuantity().negate()));
-        inventoryService.updateInventoryQuantity(mergedInventoryBoList);
-        // 6.更新库存明细：InventoryHistory表
-        inventoryDetailMapper.deductInventoryDetailQuantity(inventoryDetailBoList, LoginHelper.getUsername(), LocalDateTime.now());
-        // 7.创建库存记录
-        saveInventoryHistory(bo);
+        stages.record("inventory", () -> {
+            mergedInventoryBoList.forEach(mergedInventoryBo -> mergedInventoryBo.setQuantity(mergedInventoryBo.getQuantity().negate()));
+            inventoryService.updateInventoryQuantity(mergedInventoryBoList);
+        });
+        // 6.创建库存记录
+        stages.record("history", () -> {
+            inventoryHistoryList.forEach(it -> it.setOrderId(bo.getId()));
+            inventoryHistoryLedger.append(inventoryHistoryList);
+        });
+        stages.finish();
     }
 
     /**
@@ -211,12 +241,14 @@ public class ShipmentOrderService {
             }).toList();
     }
 
-    private void saveInventoryHistory(ShipmentOrderBo bo){
-        List<InventoryHistory> inventoryHistoryList = new LinkedList<>();
-        bo.getDetails().forEach(detail -> {
+    private List<InventoryHistory> buildInventoryHistory(ShipmentOrderBo bo){
+        List<ShipmentOrderDetailBo> details = bo.getDetails();
+        List<InventoryHistory> inventoryHistoryList = new ArrayList<>(details.size());
+        for (int i = 0; i < details.size(); i++) {
+            ShipmentOrderDetailBo detail = details.get(i);
             InventoryHistory inventoryHistory = new InventoryHistory();
-            inventoryHistory.setOrderId(bo.getId());
             inventoryHistory.setOrderNo(bo.getShipmentOrderNo());
+            inventoryHistory.setLineNo(i);
             inventoryHistory.setOrderType(ServiceConstants.InventoryHistoryOrderType.SHIPMENT);
             inventoryHistory.setSkuId(detail.getSkuId());
             inventoryHistory.setQuantity(detail.getQuantity().negate());
@@ -227,8 +259,8 @@ public class ShipmentOrderService {
             inventoryHistory.setExpirationDate(detail.getExpirationDate());
             inventoryHistory.setAmount(detail.getAmount());
             inventoryHistoryList.add(inventoryHistory);
-        });
-        inventoryHistoryService.saveBatch(inventoryHistoryList);
+        }
+        return inventoryHistoryList;
     }
 
     private void validateBeforeShipment(ShipmentOrderBo bo) {
@@ -236,4 +268,15 @@ public class ShipmentOrderService {
             throw new BaseException("商品明细不能为空！");
         }
     }
+
+    /**
+     * 出库计划
+     *
+     * @param inventoryList        按仓库库区规格合并的扣减数量
+     * @param inventoryDetailList  库存明细扣减
+     * @param inventoryHistoryList 库存记录
+     */
+    private record ShipmentPlan(List<InventoryBo> inventoryList, List<InventoryDetailBo> inventoryDetailList,
+                                List<InventoryHistory> inventoryHistoryList) {
+    }
 }
@@ -1,12 +1,58 @@
 package com.ruoyi.wms.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.wms.core.market.MarketCandlePeriod;
+import com.ruoyi.wms.core.market.MarketCandleStore;
+import com.ruoyi.wms.domain.entity.CryptoMarketCandle;
 import com.ruoyi.wms.domain.entity.CryptoMarketData;
 import com.ruoyi.wms.mapper.CryptoMarketDataMapper;
 import com.ruoyi.wms.service.CryptoMarketDataService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 行情数据
+ * <p>
+ * 行情入库的同时由 {@link MarketCandleStore} 聚合K线
+ */
 @Service
+@RequiredArgsConstructor
 public class CryptoMarketDataServiceImpl extends ServiceImpl<CryptoMarketDataMapper, CryptoMarketData> implements CryptoMarketDataService {
-}
 
+    private final MarketCandleStore marketCandleStore;
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean save(CryptoMarketData entity) {
+        boolean result = super.save(entity);
+        if (result) {
+            marketCandleStore.onTicks(List.of(entity));
+        }
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveBatch(Collection<CryptoMarketData> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        if (result) {
+            marketCandleStore.onTicks(entityList);
+        }
+        return result;
+    }
+
+    @Override
+    public List<CryptoMarketCandle> queryCandles(String name, String period, LocalDateTime startTime, LocalDateTime endTime) {
+        MarketCandlePeriod candlePeriod = MarketCandlePeriod.of(period);
+        if (candlePeriod == null) {
+            throw new ServiceException("不支持的K线周期：" + period);
+        }
+        return marketCandleStore.query(name, candlePeriod, startTime, endTime);
+    }
+}
@@ -1,12 +1,204 @@
 package com.ruoyi.wms.service.impl;
 
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.common.mybatis.core.page.TableDataInfo;
+import com.ruoyi.wms.core.message.CryptoMessageUnreadTracker;
 import com.ruoyi.wms.domain.entity.CryptoMessage;
+import com.ruoyi.wms.domain.query.CryptoMessageQuery;
 import com.ruoyi.wms.mapper.CryptoMessageMapper;
 import com.ruoyi.wms.service.CryptoMessageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 加密货币消息
+ * <p>
+ * 关键词检索使用 title/content 上的 ngram 全文索引（ft_title_content），新消息随 saveBatch 写入即被索引。
+ * 索引随建表脚本创建（关闭停用词），启动时只检查是否存在；索引缺失或关键词短于分词长度时回退到 like 查询。
+ * 未读数、未读列表和标记已读由 {@link CryptoMessageUnreadTracker} 维护，未就绪时直接查询和更新数据库
+ */
+@Slf4j
 @Service
-public class CryptoMessageServiceImpl extends ServiceImpl<CryptoMessageMapper, CryptoMessage> implements CryptoMessageService {
+@RequiredArgsConstructor
+public class CryptoMessageServiceImpl extends ServiceImpl<CryptoMessageMapper, CryptoMessage> implements CryptoMessageService, ApplicationRunner {
+
+    /**
+     * 与 MySQL ngram_token_size 默认值一致
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * boolean mode 下有特殊含义的字符
+     */
+    private static final String BOOLEAN_OPERATORS = "+-<>()~*\"@";
+
+    private final CryptoMessageUnreadTracker unreadTracker;
+
+    private volatile boolean fulltextReady;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            fulltextReady = baseMapper.countFulltextIndex() > 0;
+        } catch (Exception e) {
+            log.warn("检查消息全文索引失败: {}", e.getMessage());
+        }
+        if (!fulltextReady) {
+            log.warn("消息全文索引 ft_title_content 不存在，关键词检索使用 like 查询，请执行建表脚本中的索引语句");
+        }
+    }
+
+    @Override
+    public Page<CryptoMessage> queryPageList(CryptoMessageQuery query) {
+        Page<CryptoMessage> page = new Page<>(query.getPageNum(), query.getPageSize());
+        // 已标记已读、尚未刷写的消息按已读处理，与未读列表一致
+        Set<Long> pending = unreadTracker.isReady() ? unreadTracker.pendingReadIds() : Set.of();
+        String term = buildFulltextTerm(query.getKeyword());
+        if (term != null) {
+            return markPendingRead(baseMapper.selectFulltextPage(page, query, term, pending), pending);
+        }
+        LambdaQueryWrapper<CryptoMessage> lqw = new LambdaQueryWrapper<>();
+        lqw.eq(StrUtil.isNotBlank(query.getCoin()) && !"all".equals(query.getCoin()), CryptoMessage::getCoin, query.getCoin());
+        lqw.eq(StrUtil.isNotBlank(query.getSentiment()) && !"all".equals(query.getSentiment()), CryptoMessage::getSentiment, query.getSentiment());
+        if (pending.isEmpty() || query.getStatus() == null || (query.getStatus() != 0 && query.getStatus() != 1)) {
+            lqw.eq(query.getStatus() != null, CryptoMessage::getStatus, query.getStatus());
+        } else if (query.getStatus() == 0) {
+            lqw.eq(CryptoMessage::getStatus, 0).notIn(CryptoMessage::getId, pending);
+        } else {
+            lqw.and(wrapper -> wrapper.eq(CryptoMessage::getStatus, 1).or().in(CryptoMessage::getId, pending));
+        }
+        if (StrUtil.isNotBlank(query.getKeyword())) {
+            lqw.and(wrapper -> wrapper
+                .like(CryptoMessage::getTitle, query.getKeyword())
+                .or()
+                .like(CryptoMessage::getContent, query.getKeyword())
+            );
+        }
+        lqw.ge(query.getStartTime() != null, CryptoMessage::getPublishTime, query.getStartTime());
+        lqw.orderByDesc(CryptoMessage::getPublishTime);
+        return markPendingRead(baseMapper.selectPage(page, lqw), pending);
+    }
+
+    private static Page<CryptoMessage> markPendingRead(Page<CryptoMessage> page, Set<Long> pending) {
+        if (!pending.isEmpty()) {
+            page.getRecords().forEach(message -> {
+                if (pending.contains(message.getId())) {
+                    message.setStatus(1);
+                }
+            });
+        }
+        return page;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveMessages(List<CryptoMessage> messages) {
+        messages.forEach(message -> {
+            if (message.getStatus() == null) {
+                message.setStatus(0);
+            }
+        });
+        boolean result = saveBatch(messages);
+        if (result) {
+            unreadTracker.addUnread(messages);
+        }
+        return result;
+    }
+
+    @Override
+    public CryptoMessage readMessage(Long id) {
+        CryptoMessage message = baseMapper.selectById(id);
+        if (message == null || message.getStatus() != 0) {
+            return message;
+        }
+        // 未读集合中没有且未登记待刷写时（正在重新加载或加入集合失败），直接写库
+        if (!unreadTracker.isReady() || (!unreadTracker.markRead(id) && !unreadTracker.isPendingRead(id))) {
+            baseMapper.update(null, Wrappers.<CryptoMessage>lambdaUpdate()
+                .set(CryptoMessage::getStatus, 1)
+                .eq(CryptoMessage::getId, id)
+                .eq(CryptoMessage::getStatus, 0));
+            unreadTracker.onReadInDatabase(id);
+        }
+        return message;
+    }
+
+    @Override
+    public long countUnread() {
+        if (unreadTracker.isReady()) {
+            return unreadTracker.count();
+        }
+        return baseMapper.selectCount(new LambdaQueryWrapper<CryptoMessage>().eq(CryptoMessage::getStatus, 0));
+    }
+
+    @Override
+    public List<CryptoMessage> listUnread() {
+        List<CryptoMessage> list = baseMapper.selectList(new LambdaQueryWrapper<CryptoMessage>().eq(CryptoMessage::getStatus, 0));
+        if (unreadTracker.isReady()) {
+            Set<Long> pending = unreadTracker.pendingReadIds();
+            list.removeIf(message -> pending.contains(message.getId()));
+        }
+        return list;
+    }
+
+    @Override
+    public TableDataInfo<CryptoMessage> pageUnread(PageQuery pageQuery) {
+        Object[] cursor = pageQuery.decodeCursor(Long.class);
+        Long beforeId = cursor == null || cursor.length == 0 ? null : (Long) cursor[0];
+        int limit = pageQuery.getCursorPageSize() + 1;
+        List<CryptoMessage> list;
+        long total;
+        if (unreadTracker.isReady()) {
+            List<Long> ids = unreadTracker.pageUnreadIds(beforeId, limit);
+            Map<Long, CryptoMessage> rows = ids.isEmpty() ? Map.of()
+                : baseMapper.selectBatchIds(ids).stream().collect(Collectors.toMap(CryptoMessage::getId, Function.identity()));
+            list = ids.stream().map(rows::get).filter(Objects::nonNull).collect(Collectors.toList());
+            total = unreadTracker.count();
+        } else {
+            list = baseMapper.selectList(new LambdaQueryWrapper<CryptoMessage>()
+                .eq(CryptoMessage::getStatus, 0)
+                .lt(beforeId != null, CryptoMessage::getId, beforeId)
+                .orderByDesc(CryptoMessage::getId)
+                .last("limit " + limit));
+            total = countUnread();
+        }
+        TableDataInfo<CryptoMessage> rspData = TableDataInfo.buildCursor(list, pageQuery,
+            message -> new Object[]{message.getId()}, "crypto_message");
+        rspData.setTotal(total);
+        return rspData;
+    }
+
+    /**
+     * 把关键词转成短语检索表达式，去掉 boolean mode 运算符；无法走全文索引时返回 null
+     */
+    private String buildFulltextTerm(String keyword) {
+        if (!fulltextReady || StrUtil.isBlank(keyword)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(keyword.length());
+        for (char c : keyword.toCharArray()) {
+            sb.append(BOOLEAN_OPERATORS.indexOf(c) >= 0 ? ' ' : c);
+        }
+        String text = StrUtil.cleanBlank(sb);
+        if (text.codePointCount(0, text.length()) < NGRAM_TOKEN_SIZE) {
+            return null;
+        }
+        return "\"" + StrUtil.trim(sb).replaceAll("\\s+", " ") + "\"";
+    }
 }
@@ -2,10 +2,53 @@ package com.ruoyi.wms.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ruoyi.wms.domain.entity.CryptoReportReview;
+import com.ruoyi.wms.mapper.CryptoReportMapper;
 import com.ruoyi.wms.mapper.CryptoReportReviewMapper;
 import com.ruoyi.wms.service.CryptoReportReviewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * 报告审核
+ * <p>
+ * 报告的最新审核（状态、重合度、预期收益、审核时间）冗余在 crypto_report 上，审核写入时在同一事务内更新，
+ * 列表按 (user_id, review_status, generation_time) 索引直接分页筛选。启动时回填尚未冗余的历史审核
+ */
+@Slf4j
 @Service
-public class CryptoReportReviewServiceImpl extends ServiceImpl<CryptoReportReviewMapper, CryptoReportReview> implements CryptoReportReviewService {
+@RequiredArgsConstructor
+public class CryptoReportReviewServiceImpl extends ServiceImpl<CryptoReportReviewMapper, CryptoReportReview> implements CryptoReportReviewService, ApplicationRunner {
+
+    private final CryptoReportMapper reportMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (reportMapper.existsUnprojectedReview()) {
+                log.info("回填报告最新审核，共更新{}条", backfillLatestReview());
+            }
+        } catch (Exception e) {
+            log.error("回填报告最新审核失败", e);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean saveReview(CryptoReportReview review) {
+        if (!save(review)) {
+            return false;
+        }
+        reportMapper.updateLatestReview(review);
+        return true;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int backfillLatestReview() {
+        return reportMapper.backfillLatestReview();
+    }
 }
@@ -3,17 +3,44 @@ package com.ruoyi.wms.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ruoyi.wms.core.portfolio.PortfolioAnalyticsEngine;
 import com.ruoyi.wms.domain.entity.PortfolioHistory;
+import com.ruoyi.wms.domain.vo.PortfolioAnalyticsVo;
 import com.ruoyi.wms.mapper.PortfolioHistoryMapper;
 import com.ruoyi.wms.service.PortfolioHistoryService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
+@RequiredArgsConstructor
 public class PortfolioHistoryServiceImpl extends ServiceImpl<PortfolioHistoryMapper, PortfolioHistory> implements PortfolioHistoryService {
 
+    private final PortfolioAnalyticsEngine portfolioAnalyticsEngine;
+
+    @Override
+    public boolean save(PortfolioHistory entity) {
+        boolean result = super.save(entity);
+        if (result) {
+            portfolioAnalyticsEngine.onSnapshots(List.of(entity));
+        }
+        return result;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public boolean saveBatch(Collection<PortfolioHistory> entityList, int batchSize) {
+        boolean result = super.saveBatch(entityList, batchSize);
+        if (result) {
+            portfolioAnalyticsEngine.onSnapshots(entityList);
+        }
+        return result;
+    }
+
     @Override
     public List<PortfolioHistory> getPortfolioHistoryList(Integer portfolioId) {
         return baseMapper.getPortfolioHistoryList(portfolioId);
@@ -32,5 +59,10 @@ public class PortfolioHistoryServiceImpl extends ServiceImpl<PortfolioHistoryMap
         return this.list(queryWrapper);
     }
 
+    @Override
+    public List<PortfolioAnalyticsVo> getAnalytics(Integer portfolioId) {
+        return portfolioAnalyticsEngine.get(portfolioId);
+    }
+
 
 }
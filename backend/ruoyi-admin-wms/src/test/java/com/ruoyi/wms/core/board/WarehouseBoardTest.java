@@ -0,0 +1,268 @@
+package com.ruoyi.wms.core.board;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ruoyi.common.mybatis.core.page.PageQuery;
+import com.ruoyi.wms.domain.bo.InventoryBo;
+import com.ruoyi.wms.domain.vo.InventoryVo;
+import com.ruoyi.wms.mapper.InventoryMapper;
+import com.ruoyi.wms.mapper.ItemSkuMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 仓库库存看板，Redis 使用 mock，变动通知直接调用订阅的监听器
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("仓库库存看板")
+class WarehouseBoardTest {
+
+    private static final int KEYS = 1000;
+
+    /**
+     * 与看板相同的排序：仓库、商品、规格
+     */
+    private final TreeMap<Key, Long> model = new TreeMap<>();
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RTopic topic = mock(RTopic.class);
+    private final List<Object[]> scriptCalls = new ArrayList<>();
+    private MessageListener<Map<?, ?>> listener;
+    private WarehouseBoard board;
+    private long version;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Map<String, Long> values = new HashMap<>();
+        for (long n = 0; n < KEYS; n++) {
+            Key key = new Key(n < 600 ? 1 : 2, n / 10, n);
+            long cents = (n * 37) % 500;
+            model.put(key, cents);
+            values.put(key.field(), cents);
+        }
+        RMap<String, Long> map = mock(RMap.class);
+        when(map.readAllMap()).thenReturn(values);
+        when(redissonClient.<String, Long>getMap(anyString(), any(Codec.class))).thenReturn(map);
+        RAtomicLong atomicLong = mock(RAtomicLong.class);
+        when(redissonClient.getAtomicLong(anyString())).thenReturn(atomicLong);
+        when(redissonClient.getTopic(anyString())).thenReturn(topic);
+        when(topic.addListener(eq(Map.class), any())).thenAnswer(invocation -> {
+            listener = invocation.getArgument(1);
+            return 1;
+        });
+        // 脚本返回 新版本号、各键累加后的值，这里固定为 版本 5、每个键 0
+        RScript script = mock(RScript.class, invocation -> {
+            if (!"eval".equals(invocation.getMethod().getName())) {
+                return null;
+            }
+            // 可变参数已展开，第5个参数起为 ARGV
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 4, invocation.getArguments().length);
+            scriptCalls.add(args);
+            List<Object> result = new ArrayList<>();
+            result.add(5L);
+            for (int i = 1; i < args.length; i += 2) {
+                result.add(0L);
+            }
+            return result;
+        });
+        when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+
+        board = new WarehouseBoard(mock(InventoryMapper.class), mock(ItemSkuMapper.class), redissonClient);
+        board.run(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("按仓库和最小数量分页，结果与逐条过滤一致")
+    void pageMatchesFilteredList() {
+        assertAllPages();
+    }
+
+    @Test
+    @DisplayName("变动、新增和删除的键在分页中立即生效")
+    void pageAfterUpdates() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Map<String, Long> msg = new HashMap<>();
+            for (int j = 0; j < 30; j++) {
+                long n = random.nextInt(KEYS + 200);
+                Key key = new Key(n < 600 ? 1 : 2, n / 10, n);
+                long cents = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextInt(600);
+                msg.put(key.field(), cents);
+            }
+            publish(msg);
+            if (round % 5 == 0) {
+                assertAllPages();
+            }
+        }
+        assertAllPages();
+    }
+
+    @Test
+    @DisplayName("版本号不新于已应用版本的通知被忽略")
+    void ignoreStaleUpdates() {
+        Key key = model.firstKey();
+        publish(Map.of(key.field(), 100L));
+        long applied = version;
+        publish(Map.of(key.field(), 200L));
+
+        listener.onMessage("test", message(applied, Map.of(key.field(), 300L)));
+
+        InventoryBo bo = new InventoryBo();
+        bo.setWarehouseId(key.warehouseId());
+        assertEquals(new BigDecimal("2.00"), board.page(bo, pageQuery(1, 1)).getRecords().get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("存在事务时提交后才写入 Redis 并通知")
+    void applyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        board.apply(List.of(delta(1L, 100L, "1.5"), delta(1L, 100L, "-0.5")));
+
+        assertTrue(scriptCalls.isEmpty());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, scriptCalls.size());
+        // 同一键的增量合并后一次提交：是否删除为0的键、键、增量
+        assertArrayEquals(new Object[]{"0", "1:0:100", "100"}, scriptCalls.get(0));
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(topic).publish(published.capture());
+        assertEquals(Map.of("#", 5L, "1:0:100", 0L), published.getValue());
+    }
+
+    @Test
+    @DisplayName("删除库存时累加为0的键通知移除")
+    void publishRemovalForEmptyKeys() {
+        board.apply(List.of(delta(1L, 100L, "-1")), true);
+
+        assertEquals("1", scriptCalls.get(0)[0]);
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(topic).publish(published.capture());
+        assertEquals(Map.of("#", 5L, "1:0:100", Long.MIN_VALUE), published.getValue());
+    }
+
+    private void assertAllPages() {
+        for (Long warehouseId : Arrays.asList(null, 1L, 2L)) {
+            for (String minQuantity : Arrays.asList(null, "0", "1.5", "3", "4.99", "10")) {
+                for (int pageSize : new int[]{7, 100, 300}) {
+                    for (int pageNum = 1; pageNum <= 4; pageNum++) {
+                        assertPage(warehouseId, minQuantity == null ? null : new BigDecimal(minQuantity), pageNum, pageSize);
+                    }
+                }
+                assertPage(warehouseId, minQuantity == null ? null : new BigDecimal(minQuantity), 1000, 7);
+            }
+        }
+    }
+
+    private void assertPage(Long warehouseId, BigDecimal minQuantity, int pageNum, int pageSize) {
+        InventoryBo bo = new InventoryBo();
+        bo.setWarehouseId(warehouseId);
+        bo.setMinQuantity(minQuantity);
+        Page<InventoryVo> page = board.page(bo, pageQuery(pageNum, pageSize));
+
+        List<Map.Entry<Key, Long>> expected = model.entrySet().stream()
+            .filter(it -> warehouseId == null || it.getKey().warehouseId() == warehouseId)
+            .filter(it -> minQuantity == null || it.getValue() >= minQuantity.movePointRight(2).longValue())
+            .toList();
+        String message = "warehouseId=" + warehouseId + " minQuantity=" + minQuantity + " page=" + pageNum + "/" + pageSize;
+        assertEquals(expected.size(), page.getTotal(), message);
+        int from = Math.min((pageNum - 1) * pageSize, expected.size());
+        List<String> expectedRows = expected.subList(from, Math.min(from + pageSize, expected.size())).stream()
+            .map(it -> it.getKey().skuId() + "=" + BigDecimal.valueOf(it.getValue(), 2))
+            .toList();
+        List<String> actualRows = page.getRecords().stream()
+            .map(it -> it.getSkuId() + "=" + it.getQuantity())
+            .toList();
+        assertEquals(expectedRows, actualRows, message);
+    }
+
+    /**
+     * 以递增的版本号发送变动通知，同时更新期望值
+     */
+    private void publish(Map<String, Long> values) {
+        listener.onMessage("test", message(++version, values));
+        values.forEach((field, cents) -> {
+            Key key = Key.parse(field);
+            if (cents == Long.MIN_VALUE) {
+                model.remove(key);
+            } else {
+                model.put(key, cents);
+            }
+        });
+    }
+
+    private static Map<String, Long> message(long version, Map<String, Long> values) {
+        Map<String, Long> msg = new HashMap<>(values);
+        msg.put("#", version);
+        return msg;
+    }
+
+    private static PageQuery pageQuery(int pageNum, int pageSize) {
+        PageQuery pageQuery = new PageQuery();
+        pageQuery.setPageNum(pageNum);
+        pageQuery.setPageSize(pageSize);
+        return pageQuery;
+    }
+
+    private static InventoryBo delta(Long warehouseId, Long skuId, String quantity) {
+        InventoryBo bo = new InventoryBo();
+        bo.setWarehouseId(warehouseId);
+        bo.setSkuId(skuId);
+        bo.setQuantity(new BigDecimal(quantity));
+        return bo;
+    }
+
+    private record Key(long warehouseId, long itemId, long skuId) implements Comparable<Key> {
+
+        static Key parse(String field) {
+            String[] parts = field.split(":");
+            return new Key(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        }
+
+        String field() {
+            return warehouseId + ":" + itemId + ":" + skuId;
+        }
+
+        @Override
+        public int compareTo(Key o) {
+            int result = Long.compare(warehouseId, o.warehouseId);
+            if (result == 0) {
+                result = Long.compare(itemId, o.itemId);
+            }
+            return result == 0 ? Long.compare(skuId, o.skuId) : result;
+        }
+    }
+}
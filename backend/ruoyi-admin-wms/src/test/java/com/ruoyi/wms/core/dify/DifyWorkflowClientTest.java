@@ -0,0 +1,230 @@
+package com.ruoyi.wms.core.dify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.common.core.utils.SpringUtils;
+import com.ruoyi.wms.config.properties.DifyProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Dify 工作流 SSE 转发，使用本地 HttpServer 作为上游
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("Dify 工作流转发")
+class DifyWorkflowClientTest {
+
+    private static final long WAIT_MILLIS = 5000;
+
+    private LocalDifyServer server;
+    private DifyWorkflowClient client;
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void setUpContext() {
+        // JsonUtils 从容器中获取 ObjectMapper
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(ObjectMapper.class, ObjectMapper::new);
+        context.refresh();
+        new SpringUtils().setApplicationContext(context);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new LocalDifyServer();
+        DifyProperties properties = new DifyProperties();
+        properties.setWorkflowUrl(server.workflowUrl());
+        properties.setApiKey("test-key");
+        properties.setRunTimeout(10000);
+        properties.setMaxConcurrentPerUser(1);
+        properties.setMaxConcurrent(3);
+        client = new DifyWorkflowClient(properties);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(client)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("上游事件按原样转发，多行 data 合并为一个事件")
+    void relayEvents() throws Exception {
+        server.respond(LocalDifyServer.Mode.STREAM, """
+            event: workflow_started
+            data: {"task_id":"t-1"}
+
+            : keep-alive
+
+            data: 第一行
+            data: 第二行
+
+            event: workflow_finished
+            data: {"status":"succeeded"}""");
+
+        List<Event> events = parse(streamAndWait(7L));
+
+        assertEquals(3, events.size());
+        assertEquals(new Event("workflow_started", "{\"task_id\":\"t-1\"}"), events.get(0));
+        assertEquals(new Event(null, "第一行\n第二行"), events.get(1));
+        // 结尾没有空行的事件在上游结束时发出
+        assertEquals(new Event("workflow_finished", "{\"status\":\"succeeded\"}"), events.get(2));
+        assertEquals("Bearer test-key", server.authorizations().get(0));
+        String body = server.requestBodies().get(0);
+        assertTrue(body.contains("\"user\":\"user-7\""), body);
+        assertTrue(body.contains("\"response_mode\":\"streaming\""), body);
+    }
+
+    @Test
+    @DisplayName("上游返回非 200 时以 error 事件返回状态和内容")
+    void relayErrorStatus() throws Exception {
+        server.respond(LocalDifyServer.Mode.ERROR, "boom");
+
+        assertEquals(List.of(new Event("error", "HTTP 500: boom")), parse(streamAndWait(7L)));
+    }
+
+    @Test
+    @DisplayName("一次性返回时合并上游的全部行")
+    void collectWholeOutput() throws Exception {
+        server.respond(LocalDifyServer.Mode.STREAM, "data: a\n\ndata: b\n");
+
+        assertEquals("data: adata: b", awaitResult(client.collect(7L)));
+
+        server.respond(LocalDifyServer.Mode.ERROR, "boom");
+        assertEquals("{\"error\":\"HTTP 500: boom\"}", awaitResult(client.collect(7L)));
+    }
+
+    @Test
+    @DisplayName("按用户和全局限制同时运行数，结束后释放名额")
+    void limitConcurrentRuns() throws Exception {
+        server.respond(LocalDifyServer.Mode.HOLD, "data: start\n\n");
+        DeferredResult<String> first = client.collect(7L);
+        DeferredResult<String> second = client.collect(8L);
+
+        ServiceException perUser = assertThrows(ServiceException.class, () -> client.collect(7L));
+        assertEquals("已有分析正在进行，请等待完成后再试", perUser.getMessage());
+        // 流式接口以 error 事件返回
+        assertEquals(List.of(new Event("error", "已有分析正在进行，请等待完成后再试")), parse(streamAndWait(7L)));
+        DeferredResult<String> third = client.collect(9L);
+        ServiceException global = assertThrows(ServiceException.class, () -> client.collect(10L));
+        assertEquals("智能体繁忙，请稍后再试", global.getMessage());
+
+        server.release();
+        for (DeferredResult<String> result : List.of(first, second, third)) {
+            assertTrue(awaitResult(result).endsWith("data: done"));
+        }
+        server.respond(LocalDifyServer.Mode.STREAM, "data: again\n\n");
+        assertEquals("data: again", awaitResult(client.collect(7L)));
+    }
+
+    @Test
+    @DisplayName("客户端断开时取消上游请求并释放名额")
+    void cancelUpstreamWhenClientLeaves() throws Exception {
+        server.respond(LocalDifyServer.Mode.HOLD, "data: start\n\n");
+        MvcResult result = mockMvc.perform(get("/stream").param("userId", "7"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        awaitContent(result, "data:start");
+
+        result.getRequest().getAsyncContext().complete();
+
+        assertTrue(server.awaitDisconnect(WAIT_MILLIS), "上游连接未断开");
+        server.respond(LocalDifyServer.Mode.STREAM, "data: again\n\n");
+        assertEquals("data: again", awaitResult(client.collect(7L)));
+    }
+
+    private String streamAndWait(Long userId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/stream").param("userId", String.valueOf(userId)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult(WAIT_MILLIS);
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("未收到事件: " + expected);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static String awaitResult(DeferredResult<String> result) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!result.hasResult()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("工作流未结束");
+            }
+            Thread.sleep(20);
+        }
+        return (String) result.getResult();
+    }
+
+    /**
+     * 按 SSE 格式拆分响应内容
+     */
+    private static List<Event> parse(String content) {
+        List<Event> events = new ArrayList<>();
+        for (String block : content.split("\n\n")) {
+            String name = null;
+            StringBuilder data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data = data == null ? new StringBuilder() : data.append('\n');
+                    data.append(line.substring(5));
+                }
+            }
+            if (data != null) {
+                events.add(new Event(name, data.toString()));
+            }
+        }
+        return events;
+    }
+
+    private record Event(String name, String data) {
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final DifyWorkflowClient client;
+
+        StreamController(DifyWorkflowClient client) {
+            this.client = client;
+        }
+
+        @GetMapping("/stream")
+        public SseEmitter stream(@RequestParam Long userId) {
+            return client.stream(userId);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ruoyi.wms.core.dify;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地 Dify 替身，工作流运行接口按设置的模式返回 SSE、错误状态或一直保持连接
+ *
+ * @author zcc
+ */
+class LocalDifyServer implements AutoCloseable {
+
+    enum Mode {
+        /**
+         * 一次写出 body 后结束
+         */
+        STREAM,
+        /**
+         * 返回 500 和 body
+         */
+        ERROR,
+        /**
+         * 写出第一个事件后每 50 毫秒发送注释行，直到 release 或客户端断开
+         */
+        HOLD
+    }
+
+    private final HttpServer server;
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final CountDownLatch disconnected = new CountDownLatch(1);
+
+    private volatile Mode mode = Mode.STREAM;
+    private volatile String body = "";
+
+    LocalDifyServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/workflows/run", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String workflowUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/workflows/run";
+    }
+
+    void respond(Mode mode, String body) {
+        this.mode = mode;
+        this.body = body;
+    }
+
+    List<String> authorizations() {
+        return authorizations;
+    }
+
+    List<String> requestBodies() {
+        return requestBodies;
+    }
+
+    void release() {
+        released.countDown();
+    }
+
+    boolean awaitDisconnect(long millis) throws InterruptedException {
+        return disconnected.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        released.countDown();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            Mode current = mode;
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (current == Mode.ERROR) {
+                exchange.sendResponseHeaders(500, bytes.length);
+                exchange.getResponseBody().write(bytes);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write(bytes);
+            out.flush();
+            if (current == Mode.HOLD) {
+                hold(out);
+            }
+            out.close();
+        }
+    }
+
+    private void hold(OutputStream out) throws IOException {
+        try {
+            while (!released.await(50, TimeUnit.MILLISECONDS)) {
+                out.write(": ping\n\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            out.write("data: done\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            disconnected.countDown();
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.ruoyi.wms.core.lock;
+
+import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.common.mybatis.core.domain.PlaceAndItem;
+import com.ruoyi.wms.config.properties.InventoryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 库存并发锁（进程内分段锁）
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("库存并发锁")
+class InventoryLockTemplateTest {
+
+    private static final Place SKU_1 = new Place(1L, 1L, 1L);
+    private static final Place SKU_2 = new Place(1L, 1L, 2L);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private InventoryLockTemplate lockTemplate;
+
+    @BeforeEach
+    void setUp() {
+        lockTemplate = lockTemplate(200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("同一规格的过账等待，超时后提示重试；不同规格可以并行")
+    void lockSameKeyOnly() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> lockTemplate.execute(List.of(SKU_1), () -> {
+            locked.countDown();
+            await(finish);
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        ServiceException e = assertThrows(ServiceException.class,
+            () -> runInOtherThread(() -> lockTemplate.execute(List.of(SKU_1), () -> { })));
+        assertEquals("库存正在被其他单据操作，请稍后重试", e.getMessage());
+        assertEquals("ok", runInOtherThread(() -> lockTemplate.execute(List.of(SKU_2), () -> "ok")));
+
+        finish.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals("ok", runInOtherThread(() -> lockTemplate.execute(List.of(SKU_1), () -> "ok")));
+    }
+
+    @Test
+    @DisplayName("多个规格按固定顺序加锁，交叉顺序的过账不会死锁")
+    void lockKeysInFixedOrder() throws Exception {
+        InventoryLockTemplate template = lockTemplate(5000);
+        AtomicInteger done = new AtomicInteger();
+        int rounds = 500;
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < rounds; i++) {
+                template.execute(List.of(SKU_1, SKU_2), () -> {
+                    done.incrementAndGet();
+                });
+            }
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < rounds; i++) {
+                template.execute(List.of(SKU_2, SKU_1, SKU_2), () -> {
+                    done.incrementAndGet();
+                });
+            }
+        });
+
+        forward.get(30, TimeUnit.SECONDS);
+        backward.get(30, TimeUnit.SECONDS);
+        assertEquals(rounds * 2, done.get());
+    }
+
+    @Test
+    @DisplayName("存在事务时锁持有到事务结束")
+    void holdLockUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lockTemplate.execute(List.of(SKU_1), () -> { });
+
+        assertThrows(ServiceException.class,
+            () -> runInOtherThread(() -> lockTemplate.execute(List.of(SKU_1), () -> { })));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(it -> it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals("ok", runInOtherThread(() -> lockTemplate.execute(List.of(SKU_1), () -> "ok")));
+    }
+
+    @Test
+    @DisplayName("业务处理异常时释放锁")
+    void releaseLockWhenActionFails() throws Exception {
+        assertThrows(IllegalStateException.class, () -> lockTemplate.execute(List.of(SKU_1), () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals("ok", runInOtherThread(() -> lockTemplate.execute(List.of(SKU_1), () -> "ok")));
+    }
+
+    private InventoryLockTemplate lockTemplate(long waitTime) {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getLock().setWaitTime(waitTime);
+        return new InventoryLockTemplate(properties, new StaticListableBeanFactory().getBeanProvider(RedissonClient.class));
+    }
+
+    private void runInOtherThread(Runnable runnable) throws Exception {
+        runInOtherThread(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private <T> T runInOtherThread(Callable<T> callable) throws Exception {
+        try {
+            return executor.submit(callable).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Place(Long warehouseId, Long areaId, Long skuId) implements PlaceAndItem {
+
+        @Override
+        public Long getWarehouseId() {
+            return warehouseId;
+        }
+
+        @Override
+        public Long getAreaId() {
+            return areaId;
+        }
+
+        @Override
+        public Long getSkuId() {
+            return skuId;
+        }
+    }
+}
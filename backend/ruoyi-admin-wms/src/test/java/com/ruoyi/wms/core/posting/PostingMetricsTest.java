@@ -0,0 +1,90 @@
+package com.ruoyi.wms.core.posting;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单据过账分阶段耗时统计
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("过账分阶段耗时")
+class PostingMetricsTest {
+
+    @Test
+    @DisplayName("每个阶段按单据类型和阶段记录到计时器")
+    void recordStagesOnTimer() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PostingMetrics metrics = metrics(registry);
+
+        for (int i = 0; i < 3; i++) {
+            PostingMetrics.Stages stages = metrics.start("shipment", "CK" + i);
+            stages.record("order", () -> { });
+            assertEquals(Integer.valueOf(1), stages.record("detail", () -> 1));
+            stages.record("inventory", () -> { });
+            stages.finish();
+        }
+
+        for (String stage : List.of("order", "detail", "inventory")) {
+            Timer timer = registry.find(PostingMetrics.STAGE_TIMER).tags("order_type", "shipment", "stage", stage).timer();
+            assertNotNull(timer, stage);
+            assertEquals(3, timer.count());
+        }
+    }
+
+    @Test
+    @DisplayName("阶段抛出异常时同样记录耗时，多次进入同一阶段时累加")
+    void recordFailedAndRepeatedStages() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PostingMetrics.Stages stages = metrics(registry).start("shipment", "CK1");
+
+        assertThrows(IllegalStateException.class, () -> stages.record("history", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        stages.record("history", () -> sleep(20));
+
+        Map<String, Double> stageMillis = stages.getStageMillis();
+        assertEquals(List.of("history"), List.copyOf(stageMillis.keySet()));
+        assertTrue(stageMillis.get("history") >= 20, "耗时: " + stageMillis);
+        assertEquals(2, registry.get(PostingMetrics.STAGE_TIMER).tag("stage", "history").timer().count());
+    }
+
+    @Test
+    @DisplayName("没有 MeterRegistry 时只统计本次过账")
+    void workWithoutRegistry() {
+        PostingMetrics metrics = new PostingMetrics(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        PostingMetrics.Stages stages = metrics.start("shipment", "CK1");
+
+        stages.record("order", () -> { });
+        stages.finish();
+
+        assertEquals(List.of("order"), List.copyOf(stages.getStageMillis().keySet()));
+    }
+
+    private static PostingMetrics metrics(MeterRegistry registry) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        return new PostingMetrics(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ruoyi.wms.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ruoyi.wms.core.message.CryptoMessageUnreadTracker;
+import com.ruoyi.wms.domain.entity.CryptoMessage;
+import com.ruoyi.wms.domain.query.CryptoMessageQuery;
+import com.ruoyi.wms.mapper.CryptoMessageMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 消息分页查询中已标记已读、尚未刷写的消息按已读处理
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("消息分页查询的待刷写已读")
+class CryptoMessageServiceImplTest {
+
+    private final CryptoMessageMapper mapper = mock(CryptoMessageMapper.class);
+    private final CryptoMessageUnreadTracker unreadTracker = mock(CryptoMessageUnreadTracker.class);
+    private final AtomicReference<Wrapper<CryptoMessage>> lastWrapper = new AtomicReference<>();
+    private CryptoMessageServiceImpl service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // lambda 条件需要实体的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CryptoMessage.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new CryptoMessageServiceImpl(unreadTracker);
+        ReflectionTestUtils.setField(service, "baseMapper", mapper);
+        when(mapper.selectPage(any(), any())).thenAnswer(invocation -> {
+            lastWrapper.set(invocation.getArgument(1));
+            Page<CryptoMessage> page = invocation.getArgument(0);
+            return page.setRecords(List.of(message(1L, 0), message(2L, 0), message(3L, 1)));
+        });
+        when(unreadTracker.isReady()).thenReturn(true);
+        when(unreadTracker.pendingReadIds()).thenReturn(Set.of(2L));
+    }
+
+    @Test
+    @DisplayName("查询未读时排除待刷写的消息")
+    void excludePendingFromUnread() {
+        service.queryPageList(query(0, null));
+
+        String sql = lastWrapper.get().getSqlSegment();
+        assertTrue(sql.contains("status ="), sql);
+        assertTrue(sql.contains("id NOT IN"), sql);
+    }
+
+    @Test
+    @DisplayName("查询已读时包含待刷写的消息")
+    void includePendingInRead() {
+        service.queryPageList(query(1, null));
+
+        String sql = lastWrapper.get().getSqlSegment();
+        assertTrue(sql.contains("OR id IN"), sql);
+        assertFalse(sql.contains("NOT IN"), sql);
+    }
+
+    @Test
+    @DisplayName("返回的待刷写消息标记为已读")
+    void markPendingRowsAsRead() {
+        List<CryptoMessage> records = service.queryPageList(query(null, null)).getRecords();
+
+        assertEquals(List.of(0, 1, 1), records.stream().map(CryptoMessage::getStatus).toList());
+        assertFalse(lastWrapper.get().getSqlSegment().contains(" IN "));
+    }
+
+    @Test
+    @DisplayName("全文检索传入待刷写的消息ID")
+    void passPendingToFulltextQuery() {
+        ReflectionTestUtils.setField(service, "fulltextReady", true);
+        when(mapper.selectFulltextPage(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Page<CryptoMessage> page = invocation.getArgument(0);
+            return page.setRecords(List.of(message(2L, 0)));
+        });
+
+        List<CryptoMessage> records = service.queryPageList(query(1, "比特币")).getRecords();
+
+        verify(mapper).selectFulltextPage(any(), any(), eq("\"比特币\""), eq(Set.of(2L)));
+        assertEquals(1, records.get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("未读状态未就绪时只按数据库状态查询")
+    void queryDatabaseWhenTrackerNotReady() {
+        when(unreadTracker.isReady()).thenReturn(false);
+
+        List<CryptoMessage> records = service.queryPageList(query(0, null)).getRecords();
+
+        verify(unreadTracker, never()).pendingReadIds();
+        assertFalse(lastWrapper.get().getSqlSegment().contains(" IN "));
+        assertEquals(0, records.get(1).getStatus());
+    }
+
+    private static CryptoMessageQuery query(Integer status, String keyword) {
+        CryptoMessageQuery query = new CryptoMessageQuery();
+        query.setStatus(status);
+        query.setKeyword(keyword);
+        return query;
+    }
+
+    private static CryptoMessage message(Long id, Integer status) {
+        CryptoMessage message = new CryptoMessage();
+        message.setId(id);
+        message.setStatus(status);
+        return message;
+    }
+}
@@ -1,5 +1,8 @@
 package com.ruoyi.common.core.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 通用 部门服务
  *
@@ -15,4 +18,12 @@ public interface DeptService {
      */
     String selectDeptNameByIds(String deptIds);
 
+    /**
+     * 通过部门ID批量查询部门名称
+     *
+     * @param deptIds 部门ID
+     * @return 部门ID与部门名称的映射，不存在的部门不返回
+     */
+    Map<Long, String> selectDeptNamesByIds(Collection<Long> deptIds);
+
 }
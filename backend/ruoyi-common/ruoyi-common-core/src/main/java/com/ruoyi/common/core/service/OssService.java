@@ -1,5 +1,8 @@
 package com.ruoyi.common.core.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 通用 OSS服务
  *
@@ -15,4 +18,12 @@ public interface OssService {
      */
     String selectUrlByIds(String ossIds);
 
+    /**
+     * 通过ossId批量查询对应的url
+     *
+     * @param ossIds ossId
+     * @return ossId与url的映射，不存在的文件不返回
+     */
+    Map<Long, String> selectUrlsByIds(Collection<Long> ossIds);
+
 }
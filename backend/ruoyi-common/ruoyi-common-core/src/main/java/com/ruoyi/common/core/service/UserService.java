@@ -1,5 +1,8 @@
 package com.ruoyi.common.core.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 通用 用户服务
  *
@@ -15,4 +18,12 @@ public interface UserService {
      */
     String selectUserNameById(Long userId);
 
+    /**
+     * 通过用户ID批量查询用户账户
+     *
+     * @param userIds 用户ID
+     * @return 用户ID与用户账户的映射，不存在的用户不返回
+     */
+    Map<Long, String> selectUserNamesByIds(Collection<Long> userIds);
+
 }
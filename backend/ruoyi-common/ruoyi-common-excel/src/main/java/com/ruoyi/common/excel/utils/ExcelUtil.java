@@ -23,9 +23,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Excel相关处理
@@ -35,6 +34,16 @@ import java.util.Map;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ExcelUtil {
 
+    /**
+     * 流式导出每次写入的行数
+     */
+    public static final int WRITE_BATCH_SIZE = 1000;
+
+    /**
+     * 单个工作表的最大数据行数(xlsx 上限 1048576 行，预留表头)
+     */
+    private static final int MAX_SHEET_ROWS = 1000000;
+
     /**
      * 同步导入(适用于小数据量)
      *
@@ -201,6 +210,131 @@ public class ExcelUtil {
         builder.doWrite(list);
     }
 
+    /**
+     * 分批导出excel(适用于大数据量)
+     * 每批写入后即释放，内存占用与总行数无关
+     *
+     * @param batchLoader 按上一批最后一行查询下一批，首批传入 null，返回空表示结束
+     * @param sheetName   工作表的名称
+     * @param clazz       实体类
+     * @param response    响应体
+     */
+    public static <T> void exportExcelByBatch(Function<T, List<T>> batchLoader, String sheetName, Class<T> clazz, HttpServletResponse response) {
+        try {
+            resetResponse(sheetName, response);
+            ServletOutputStream os = response.getOutputStream();
+            exportExcelByBatch(batchLoader, sheetName, clazz, os);
+        } catch (IOException e) {
+            throw new RuntimeException("导出Excel异常");
+        }
+    }
+
+    /**
+     * 分批导出excel(适用于大数据量)
+     *
+     * @param batchLoader 按上一批最后一行查询下一批，首批传入 null，返回空表示结束
+     * @param sheetName   工作表的名称
+     * @param clazz       实体类
+     * @param os          输出流
+     */
+    public static <T> void exportExcelByBatch(Function<T, List<T>> batchLoader, String sheetName, Class<T> clazz, OutputStream os) {
+        exportExcelByIterator(new Iterator<>() {
+
+            private Iterator<T> current = Collections.emptyIterator();
+            private T last;
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && !finished) {
+                    List<T> batch = batchLoader.apply(last);
+                    if (CollUtil.isEmpty(batch)) {
+                        finished = true;
+                    } else {
+                        last = batch.get(batch.size() - 1);
+                        current = batch.iterator();
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        }, sheetName, clazz, os);
+    }
+
+    /**
+     * 流式导出excel(适用于大数据量)
+     * 可直接传入 MyBatis Cursor，需在事务内调用保持连接
+     *
+     * @param rows      数据
+     * @param sheetName 工作表的名称
+     * @param clazz     实体类
+     * @param response  响应体
+     */
+    public static <T> void exportExcelByIterator(Iterator<T> rows, String sheetName, Class<T> clazz, HttpServletResponse response) {
+        try {
+            resetResponse(sheetName, response);
+            ServletOutputStream os = response.getOutputStream();
+            exportExcelByIterator(rows, sheetName, clazz, os);
+        } catch (IOException e) {
+            throw new RuntimeException("导出Excel异常");
+        }
+    }
+
+    /**
+     * 流式导出excel(适用于大数据量)
+     * 按 {@link #WRITE_BATCH_SIZE} 分块写入，超过单个工作表行数上限时自动新建工作表
+     * 不支持合并单元格和级联下拉选，字典和枚举转换照常生效
+     *
+     * @param rows      数据
+     * @param sheetName 工作表的名称
+     * @param clazz     实体类
+     * @param os        输出流
+     */
+    public static <T> void exportExcelByIterator(Iterator<T> rows, String sheetName, Class<T> clazz, OutputStream os) {
+        ExcelWriter excelWriter = EasyExcel.write(os, clazz)
+            .autoCloseStream(false)
+            // 自动适配
+            .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy())
+            // 大数值自动转换 防止失真
+            .registerConverter(new ExcelBigNumberConvert())
+            .build();
+        try {
+            int sheetNo = 0;
+            int sheetRows = 0;
+            WriteSheet writeSheet = EasyExcel.writerSheet(sheetNo, sheetName).build();
+            List<T> chunk = new ArrayList<>(WRITE_BATCH_SIZE);
+            boolean written = false;
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() < WRITE_BATCH_SIZE && rows.hasNext()) {
+                    continue;
+                }
+                if (sheetRows + chunk.size() > MAX_SHEET_ROWS) {
+                    sheetNo++;
+                    sheetRows = 0;
+                    writeSheet = EasyExcel.writerSheet(sheetNo, sheetName + "_" + (sheetNo + 1)).build();
+                }
+                excelWriter.write(chunk, writeSheet);
+                written = true;
+                sheetRows += chunk.size();
+                chunk = new ArrayList<>(WRITE_BATCH_SIZE);
+            }
+            if (!written) {
+                // 没有数据时也输出表头
+                excelWriter.write(Collections.emptyList(), writeSheet);
+            }
+        } finally {
+            excelWriter.finish();
+        }
+    }
+
     /**
      * 单表多数据模板导出 模板格式为 {.属性}
      *
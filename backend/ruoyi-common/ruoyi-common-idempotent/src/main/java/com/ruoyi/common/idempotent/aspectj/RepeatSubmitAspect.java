@@ -3,7 +3,6 @@ package com.ruoyi.common.idempotent.aspectj;
 import cn.dev33.satoken.SaManager;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.crypto.SecureUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.aspectj.lang.JoinPoint;
@@ -23,10 +22,15 @@ import com.ruoyi.common.redis.utils.RedisUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.StringJoiner;
 
 /**
  * 防止重复提交(参考美团GTIS防重系统)
@@ -38,6 +42,14 @@ public class RepeatSubmitAspect {
 
     private static final ThreadLocal<String> KEY_CACHE = new ThreadLocal<>();
 
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     @Before("@annotation(repeatSubmit)")
     public void doBefore(JoinPoint point, RepeatSubmit repeatSubmit) throws Throwable {
         // 如果注解不为0 则使用注解数值
@@ -47,7 +59,6 @@ public class RepeatSubmitAspect {
             throw new ServiceException("重复提交间隔时间不能小于'1'秒");
         }
         HttpServletRequest request = ServletUtils.getRequest();
-        String nowParams = argsArrayToString(point.getArgs());
 
         // 请求地址（作为存放cache的key值）
         String url = request.getRequestURI();
@@ -55,10 +66,10 @@ public class RepeatSubmitAspect {
         // 唯一值（没有消息头则使用请求地址）
         String submitKey = StringUtils.trimToEmpty(request.getHeader(SaManager.getConfig().getTokenName()));
 
-        submitKey = SecureUtil.md5(submitKey + ":" + nowParams);
+        submitKey = fingerprint(submitKey, point.getArgs());
         // 唯一标识（指定key + url + 消息头）
         String cacheRepeatKey = GlobalConstants.REPEAT_SUBMIT_KEY + url + submitKey;
-        if (RedisUtils.setObjectIfAbsent(cacheRepeatKey, "", Duration.ofMillis(interval))) {
+        if (RedisUtils.setStringIfAbsent(cacheRepeatKey, "", Duration.ofMillis(interval))) {
             KEY_CACHE.set(cacheRepeatKey);
         } else {
             String message = repeatSubmit.message();
@@ -102,19 +113,28 @@ public class RepeatSubmitAspect {
     }
 
     /**
-     * 参数拼装
+     * 请求指纹，等同于 md5(token + ":" + 以空格分隔的各参数JSON)
+     * JSON 由生成器直接写入摘要，不生成中间字符串
      */
-    private String argsArrayToString(Object[] paramsArray) {
-        StringJoiner params = new StringJoiner(" ");
-        if (ArrayUtil.isEmpty(paramsArray)) {
-            return params.toString();
-        }
-        for (Object o : paramsArray) {
-            if (ObjectUtil.isNotNull(o) && !isFilterObject(o)) {
-                params.add(JsonUtils.toJsonString(o));
+    String fingerprint(String token, Object[] paramsArray) throws IOException {
+        MessageDigest digest = MD5.get();
+        digest.reset();
+        DigestSink sink = new DigestSink(digest);
+        sink.write(token.getBytes(StandardCharsets.UTF_8));
+        sink.write(':');
+        if (ArrayUtil.isNotEmpty(paramsArray)) {
+            boolean first = true;
+            for (Object o : paramsArray) {
+                if (ObjectUtil.isNotNull(o) && !isFilterObject(o)) {
+                    if (!first) {
+                        sink.write(' ');
+                    }
+                    first = false;
+                    JsonUtils.getObjectMapper().writeValue(sink, o);
+                }
             }
         }
-        return params.toString();
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     /**
@@ -143,4 +163,26 @@ public class RepeatSubmitAspect {
                || o instanceof BindingResult;
     }
 
+    /**
+     * 把写入的字节直接更新到摘要，关闭时不做处理（ObjectMapper 写完会关闭目标流）
+     */
+    private static final class DigestSink extends OutputStream {
+
+        private final MessageDigest digest;
+
+        DigestSink(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+
 }
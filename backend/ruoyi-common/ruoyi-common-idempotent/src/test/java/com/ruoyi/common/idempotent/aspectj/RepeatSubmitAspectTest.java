@@ -0,0 +1,128 @@
+package com.ruoyi.common.idempotent.aspectj;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.core.utils.SpringUtils;
+import com.ruoyi.common.json.utils.JsonUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 防重复提交请求指纹，与按字符串拼接计算的摘要保持一致
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("防重复提交请求指纹")
+class RepeatSubmitAspectTest {
+
+    private static final String TOKEN = "Bearer test-token";
+
+    private final RepeatSubmitAspect aspect = new RepeatSubmitAspect();
+
+    @BeforeAll
+    static void setUpContext() {
+        // JsonUtils 从容器中获取 ObjectMapper
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(ObjectMapper.class, ObjectMapper::new);
+        context.refresh();
+        new SpringUtils().setApplicationContext(context);
+    }
+
+    @Test
+    @DisplayName("多个参数时与字符串拼接的摘要一致")
+    void matchStringDigestForArgs() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("orderNo", "SO-0001");
+        body.put("items", List.of(1, 2, 3));
+        Object[] args = {1001L, "remark", body, new Form("张三", 18)};
+
+        assertEquals(legacyFingerprint(TOKEN, args), aspect.fingerprint(TOKEN, args));
+    }
+
+    @Test
+    @DisplayName("空参数、空值和需要过滤的参数不参与摘要")
+    void skipNullAndFilteredArgs() throws Exception {
+        Form form = new Form("李四", 20);
+        MockMultipartFile file = new MockMultipartFile("file", "a.txt", "text/plain", new byte[]{1, 2, 3});
+        Object[] args = {null, form, file, new BeanPropertyBindingResult(form, "form"), List.of(file),
+            new MockMultipartFile[]{file}, null};
+
+        assertEquals(legacyFingerprint(TOKEN, args), aspect.fingerprint(TOKEN, args));
+        assertEquals(aspect.fingerprint(TOKEN, new Object[]{form}), aspect.fingerprint(TOKEN, args));
+        assertEquals(legacyFingerprint(TOKEN, new Object[0]), aspect.fingerprint(TOKEN, new Object[0]));
+        assertEquals(legacyFingerprint(TOKEN, null), aspect.fingerprint(TOKEN, null));
+        assertEquals(legacyFingerprint("", new Object[]{form}), aspect.fingerprint("", new Object[]{form}));
+    }
+
+    @Test
+    @DisplayName("非 ASCII 内容按 UTF-8 计算")
+    void matchStringDigestForNonAscii() throws Exception {
+        Object[] args = {"中文备注 ✓", new Form("Zoë 王", 30)};
+
+        assertEquals(legacyFingerprint("令牌", args), aspect.fingerprint("令牌", args));
+    }
+
+    @Test
+    @DisplayName("同一线程连续计算时摘要状态互不影响")
+    void resetDigestBetweenCalls() throws Exception {
+        Object[] first = {new Form("a", 1)};
+        Object[] second = {new Form("b", 2)};
+
+        String expected = aspect.fingerprint(TOKEN, second);
+        aspect.fingerprint(TOKEN, first);
+        assertEquals(expected, aspect.fingerprint(TOKEN, second));
+        assertNotEquals(aspect.fingerprint(TOKEN, first), aspect.fingerprint(TOKEN, second));
+    }
+
+    /**
+     * 原实现：md5(token + ":" + 以空格分隔的各参数JSON)
+     */
+    private String legacyFingerprint(String token, Object[] paramsArray) {
+        StringJoiner params = new StringJoiner(" ");
+        if (ArrayUtil.isNotEmpty(paramsArray)) {
+            for (Object o : paramsArray) {
+                if (ObjectUtil.isNotNull(o) && !aspect.isFilterObject(o)) {
+                    params.add(JsonUtils.toJsonString(o));
+                }
+            }
+        }
+        return SecureUtil.md5(token + ":" + params);
+    }
+
+    public static class Form {
+
+        private final String name;
+
+        private final Integer age;
+
+        Form(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.ruoyi.common.json.utils;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
@@ -13,8 +16,11 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * JSON 工具类
@@ -48,6 +54,64 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * 将对象转换为JSON格式的字符串，最多保留前 maxLength 个字符，达到上限后停止生成
+     *
+     * @param object    要转换的对象
+     * @param maxLength 最大长度
+     * @return JSON格式的字符串，如果对象为null，则返回null
+     */
+    public static String toJsonString(Object object, int maxLength) {
+        if (ObjectUtil.isNull(object)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(Math.min(maxLength, 256));
+        appendJsonString(out, object, maxLength, Collections.emptySet());
+        return out.toString();
+    }
+
+    /**
+     * 将对象转换为JSON格式的字符串追加到 out，out 达到 maxLength 个字符后停止生成。
+     * 对象为JSON对象时，生成过程中跳过顶层的 excludeProperties 属性，嵌套对象和数组元素中的同名属性保留
+     *
+     * @param out               输出
+     * @param object            要转换的对象
+     * @param maxLength         out 的最大长度
+     * @param excludeProperties 跳过的顶层属性
+     * @return 完整写入返回 true，达到长度上限返回 false
+     * @throws RuntimeException 如果转换过程中发生JSON处理异常，则抛出运行时异常
+     */
+    public static boolean appendJsonString(StringBuilder out, Object object, int maxLength, Set<String> excludeProperties) {
+        if (out.length() >= maxLength) {
+            return false;
+        }
+        BoundedWriter writer = new BoundedWriter(out, maxLength);
+        JsonGenerator generator = null;
+        try {
+            generator = OBJECT_MAPPER.getFactory().createGenerator(writer);
+            if (!excludeProperties.isEmpty()) {
+                generator = new FilteringGeneratorDelegate(generator, new ExcludePropertiesFilter(excludeProperties),
+                    TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+            }
+            OBJECT_MAPPER.writeValue(generator, object);
+            generator.flush();
+            return true;
+        } catch (IOException e) {
+            if (writer.isFull()) {
+                return false;
+            }
+            throw new RuntimeException(e);
+        } finally {
+            if (generator != null) {
+                try {
+                    generator.close();
+                } catch (IOException ignored) {
+                    // 达到长度上限后关闭时的刷写同样会失败
+                }
+            }
+        }
+    }
+
     /**
      * 将JSON格式的字符串转换为指定类型的对象
      *
@@ -167,4 +231,86 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * 写满后抛出异常中止生成的 Writer
+     */
+    private static final class BoundedWriter extends Writer {
+
+        private final StringBuilder out;
+        private final int maxLength;
+        private boolean full;
+
+        BoundedWriter(StringBuilder out, int maxLength) {
+            this.out = out;
+            this.maxLength = maxLength;
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int remaining = maxLength - out.length();
+            if (len <= remaining) {
+                out.append(cbuf, off, len);
+                return;
+            }
+            out.append(cbuf, off, Math.max(remaining, 0));
+            full = true;
+            throw new IOException("JSON length exceeds " + maxLength);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            int remaining = maxLength - out.length();
+            if (len <= remaining) {
+                out.append(str, off, off + len);
+                return;
+            }
+            out.append(str, off, off + Math.max(remaining, 0));
+            full = true;
+            throw new IOException("JSON length exceeds " + maxLength);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 只过滤顶层对象的属性
+     */
+    private static final class ExcludePropertiesFilter extends TokenFilter {
+
+        private final Set<String> excludeProperties;
+
+        ExcludePropertiesFilter(Set<String> excludeProperties) {
+            this.excludeProperties = excludeProperties;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return excludeProperties.contains(name) ? null : TokenFilter.INCLUDE_ALL;
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+
+        @Override
+        public boolean includeEmptyObject(boolean contentsFiltered) {
+            return true;
+        }
+
+        @Override
+        public boolean includeEmptyArray(boolean contentsFiltered) {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package com.ruoyi.common.json.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.core.utils.SpringUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 限制长度的 JSON 生成
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("限制长度的 JSON 生成")
+class JsonUtilsBoundedTest {
+
+    @BeforeAll
+    static void setUpContext() {
+        // JsonUtils 从容器中获取 ObjectMapper
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(ObjectMapper.class, ObjectMapper::new);
+        context.refresh();
+        new SpringUtils().setApplicationContext(context);
+    }
+
+    @Test
+    @DisplayName("未达到上限时与完整生成一致")
+    void matchFullJsonWithinLimit() {
+        Map<String, Object> value = sample();
+
+        assertEquals(JsonUtils.toJsonString(value), JsonUtils.toJsonString(value, 2000));
+        assertNull(JsonUtils.toJsonString(null, 2000));
+    }
+
+    @Test
+    @DisplayName("达到上限时保留完整结果的前缀")
+    void truncateAtLimit() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(sample());
+        }
+        String full = JsonUtils.toJsonString(rows);
+
+        for (int maxLength : new int[]{1, 17, 2000, full.length() - 1}) {
+            assertEquals(full.substring(0, maxLength), JsonUtils.toJsonString(rows, maxLength));
+        }
+        assertEquals(full, JsonUtils.toJsonString(rows, full.length()));
+    }
+
+    @Test
+    @DisplayName("只跳过顶层的排除属性")
+    void excludeTopLevelProperties() {
+        StringBuilder out = new StringBuilder();
+
+        assertTrue(JsonUtils.appendJsonString(out, sample(), 2000, Set.of("password")));
+        assertEquals("{\"name\":\"张三\",\"items\":[1,2,3],\"nested\":{\"password\":\"inner\"}}", out.toString());
+    }
+
+    @Test
+    @DisplayName("多个参数共用同一长度上限，达到上限后不再写入")
+    void shareLimitAcrossAppends() {
+        StringBuilder out = new StringBuilder();
+        String first = JsonUtils.toJsonString(sample());
+
+        assertTrue(JsonUtils.appendJsonString(out, sample(), first.length() + 10, Collections.emptySet()));
+        assertFalse(JsonUtils.appendJsonString(out, sample(), first.length() + 10, Collections.emptySet()));
+        assertEquals(first.length() + 10, out.length());
+        assertEquals(first + first.substring(0, 10), out.toString());
+        assertFalse(JsonUtils.appendJsonString(out, "more", first.length() + 10, Collections.emptySet()));
+        assertEquals(first.length() + 10, out.length());
+    }
+
+    private static Map<String, Object> sample() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("password", "secret");
+        value.put("name", "张三");
+        value.put("items", List.of(1, 2, 3));
+        value.put("nested", Map.of("password", "inner"));
+        return value;
+    }
+}
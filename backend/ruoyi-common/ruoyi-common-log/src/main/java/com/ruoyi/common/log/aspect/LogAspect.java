@@ -1,6 +1,5 @@
 package com.ruoyi.common.log.aspect;
 
-import cn.hutool.core.lang.Dict;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
@@ -28,8 +27,10 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.StringJoiner;
+import java.util.Set;
 
 /**
  * 操作日志记录处理
@@ -46,6 +47,13 @@ public class LogAspect {
      */
     public static final String[] EXCLUDE_PROPERTIES = { "password", "oldPassword", "newPassword", "confirmPassword" };
 
+    private static final Set<String> EXCLUDE_PROPERTY_SET = Set.of(EXCLUDE_PROPERTIES);
+
+    /**
+     * 请求参数和返回结果保存的最大长度
+     */
+    private static final int MAX_LENGTH = 2000;
+
 
     /**
      * 计时 key
@@ -145,7 +153,7 @@ public class LogAspect {
         }
         // 是否需要保存response，参数和值
         if (log.isSaveResponseData() && ObjectUtil.isNotNull(jsonResult)) {
-            operLog.setJsonResult(StringUtils.substring(JsonUtils.toJsonString(jsonResult), 0, 2000));
+            operLog.setJsonResult(JsonUtils.toJsonString(jsonResult, MAX_LENGTH));
         }
     }
 
@@ -160,8 +168,7 @@ public class LogAspect {
         String requestMethod = operLog.getRequestMethod();
         if (MapUtil.isEmpty(paramsMap)
                 && HttpMethod.PUT.name().equals(requestMethod) || HttpMethod.POST.name().equals(requestMethod)) {
-            String params = argsArrayToString(joinPoint.getArgs(), excludeParamNames);
-            operLog.setOperParam(StringUtils.substring(params, 0, 2000));
+            operLog.setOperParam(argsArrayToString(joinPoint.getArgs(), excludeParamNames));
         } else {
             MapUtil.removeAny(paramsMap, EXCLUDE_PROPERTIES);
             MapUtil.removeAny(paramsMap, excludeParamNames);
@@ -170,26 +177,31 @@ public class LogAspect {
     }
 
     /**
-     * 参数拼装
+     * 参数拼装，以空格分隔，生成时跳过顶层的排除属性，最多 MAX_LENGTH 个字符
      */
     private String argsArrayToString(Object[] paramsArray, String[] excludeParamNames) {
-        StringJoiner params = new StringJoiner(" ");
+        StringBuilder params = new StringBuilder();
         if (ArrayUtil.isEmpty(paramsArray)) {
             return params.toString();
         }
+        Set<String> excludes = EXCLUDE_PROPERTY_SET;
+        if (ArrayUtil.isNotEmpty(excludeParamNames)) {
+            excludes = new HashSet<>(EXCLUDE_PROPERTY_SET);
+            Collections.addAll(excludes, excludeParamNames);
+        }
+        boolean first = true;
         for (Object o : paramsArray) {
             if (ObjectUtil.isNotNull(o) && !isFilterObject(o)) {
-                String str = JsonUtils.toJsonString(o);
-                Dict dict = JsonUtils.parseMap(str);
-                if (MapUtil.isNotEmpty(dict)) {
-                    MapUtil.removeAny(dict, EXCLUDE_PROPERTIES);
-                    MapUtil.removeAny(dict, excludeParamNames);
-                    str = JsonUtils.toJsonString(dict);
+                if (!first) {
+                    params.append(' ');
+                }
+                first = false;
+                if (params.length() >= MAX_LENGTH || !JsonUtils.appendJsonString(params, o, MAX_LENGTH, excludes)) {
+                    break;
                 }
-                params.add(str);
             }
         }
-        return params.toString();
+        return StringUtils.substring(params.toString(), 0, MAX_LENGTH);
     }
 
     /**
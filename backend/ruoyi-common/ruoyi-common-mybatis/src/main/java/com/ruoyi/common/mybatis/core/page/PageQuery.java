@@ -1,6 +1,9 @@
 package com.ruoyi.common.mybatis.core.page;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -11,8 +14,12 @@ import lombok.Data;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.StringJoiner;
 
 /**
  * 分页查询实体类
@@ -46,6 +53,16 @@ public class PageQuery implements Serializable {
      */
     private String isAsc;
 
+    /**
+     * 游标，不为 null 时使用游标分页，首页传空字符串，后续传上一页返回的 nextCursor
+     */
+    private String cursor;
+
+    /**
+     * 游标分页时是否返回估算的总记录数
+     */
+    private Boolean estimateTotal;
+
     /**
      * 当前记录起始索引 默认值
      */
@@ -56,6 +73,21 @@ public class PageQuery implements Serializable {
      */
     public static final int DEFAULT_PAGE_SIZE = Integer.MAX_VALUE;
 
+    /**
+     * 游标分页每页显示记录数 默认值
+     */
+    public static final int DEFAULT_CURSOR_PAGE_SIZE = 10;
+
+    /**
+     * 游标分页每页显示记录数 最大值
+     */
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * 游标中表示 null 的值，不在 Base64 URL 字符集中
+     */
+    private static final String CURSOR_NULL = "~";
+
     public <T> Page<T> build() {
         Integer pageNum = ObjectUtil.defaultIfNull(getPageNum(), DEFAULT_PAGE_NUM);
         Integer pageSize = ObjectUtil.defaultIfNull(getPageSize(), DEFAULT_PAGE_SIZE);
@@ -70,6 +102,86 @@ public class PageQuery implements Serializable {
         return page;
     }
 
+    /**
+     * 构建游标分页，不查询总数，多取一条用于判断是否还有下一页
+     * 排序由查询本身固定，忽略 orderByColumn
+     */
+    public <T> Page<T> buildCursor() {
+        return new Page<>(DEFAULT_PAGE_NUM, getCursorPageSize() + 1L, false);
+    }
+
+    /**
+     * 是否游标分页
+     */
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
+    /**
+     * 游标分页的每页大小
+     */
+    public int getCursorPageSize() {
+        Integer pageSize = ObjectUtil.defaultIfNull(getPageSize(), DEFAULT_CURSOR_PAGE_SIZE);
+        if (pageSize <= 0 || pageSize > MAX_CURSOR_PAGE_SIZE) {
+            return MAX_CURSOR_PAGE_SIZE;
+        }
+        return pageSize;
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param types 排序列的类型，与生成游标时的顺序一致
+     * @return 排序列的值（可能含 null），首页返回空数组，非游标分页返回 null
+     */
+    public Object[] decodeCursor(Class<?>... types) {
+        if (!isCursorMode()) {
+            return null;
+        }
+        if (StringUtils.isBlank(cursor)) {
+            return new Object[0];
+        }
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != types.length) {
+            throw new ServiceException("分页游标有误");
+        }
+        Object[] values = new Object[types.length];
+        try {
+            for (int i = 0; i < types.length; i++) {
+                if (CURSOR_NULL.equals(parts[i])) {
+                    continue;
+                }
+                String value = new String(Base64.getUrlDecoder().decode(parts[i]), StandardCharsets.UTF_8);
+                values[i] = types[i] == LocalDateTime.class
+                    ? LocalDateTimeUtil.parse(value, DatePattern.NORM_DATETIME_MS_PATTERN)
+                    : Convert.convert(types[i], value);
+            }
+        } catch (Exception e) {
+            throw new ServiceException("分页游标有误");
+        }
+        return values;
+    }
+
+    /**
+     * 生成游标
+     *
+     * @param values 当前页最后一行的排序列的值，可以为 null
+     */
+    public static String encodeCursor(Object... values) {
+        StringJoiner joiner = new StringJoiner(".");
+        for (Object value : values) {
+            if (value == null) {
+                joiner.add(CURSOR_NULL);
+                continue;
+            }
+            String str = value instanceof LocalDateTime time
+                ? LocalDateTimeUtil.format(time, DatePattern.NORM_DATETIME_MS_PATTERN)
+                : Convert.toStr(value);
+            joiner.add(Base64.getUrlEncoder().withoutPadding().encodeToString(str.getBytes(StandardCharsets.UTF_8)));
+        }
+        return joiner.toString();
+    }
+
     /**
      * 构建排序
      *
@@ -2,12 +2,15 @@ package com.ruoyi.common.mybatis.core.page;
 
 import cn.hutool.http.HttpStatus;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.ruoyi.common.mybatis.helper.DataBaseHelper;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 表格分页数据对象
@@ -42,6 +45,11 @@ public class TableDataInfo<T> implements Serializable {
      */
     private String msg;
 
+    /**
+     * 下一页游标，游标分页时返回，为空表示没有下一页
+     */
+    private String nextCursor;
+
     /**
      * 分页
      *
@@ -71,6 +79,31 @@ public class TableDataInfo<T> implements Serializable {
         return rspData;
     }
 
+    /**
+     * 游标分页
+     *
+     * @param list         按 {@link PageQuery#buildCursor()} 查询到的数据，比每页大小多一条时表示还有下一页
+     * @param pageQuery    分页参数
+     * @param cursorValues 取一行的排序列的值，用于生成下一页游标
+     * @param tableName    估算总数使用的表名，未要求估算时不查询，总数返回 -1
+     */
+    public static <T> TableDataInfo<T> buildCursor(List<T> list, PageQuery pageQuery,
+                                                   Function<T, Object[]> cursorValues, String tableName) {
+        int pageSize = pageQuery.getCursorPageSize();
+        boolean hasMore = list.size() > pageSize;
+        List<T> rows = hasMore ? new ArrayList<>(list.subList(0, pageSize)) : list;
+        TableDataInfo<T> rspData = new TableDataInfo<>();
+        rspData.setCode(HttpStatus.HTTP_OK);
+        rspData.setMsg("查询成功");
+        rspData.setRows(rows);
+        rspData.setTotal(Boolean.TRUE.equals(pageQuery.getEstimateTotal())
+            ? DataBaseHelper.estimateRowCount(tableName) : -1L);
+        if (hasMore) {
+            rspData.setNextCursor(PageQuery.encodeCursor(cursorValues.apply(rows.get(rows.size() - 1))));
+        }
+        return rspData;
+    }
+
     public static <T> TableDataInfo<T> build() {
         TableDataInfo<T> rspData = new TableDataInfo<>();
         rspData.setCode(HttpStatus.HTTP_OK);
@@ -2,13 +2,22 @@ package com.ruoyi.common.mybatis.helper;
 
 import cn.hutool.core.convert.Convert;
 import lombok.AccessLevel;
+import com.ruoyi.common.core.utils.SpringUtils;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 /**
  * 数据库助手
  *
  * @author Lion Li
  */
+@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class DataBaseHelper {
 
@@ -17,4 +26,24 @@ public class DataBaseHelper {
         // find_in_set(100 , '0,100,101')
         return "find_in_set('%s' , %s) <> 0".formatted(var, var2);
     }
+
+    /**
+     * 按统计信息估算表的总行数，不执行 count，忽略查询条件
+     *
+     * @param tableName 表名
+     * @return 估算行数，获取失败返回 -1
+     */
+    public static long estimateRowCount(String tableName) {
+        DataSource dataSource = SpringUtils.getBean(DataSource.class);
+        String sql = "select table_rows from information_schema.tables where table_schema = database() and table_name = ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        } catch (SQLException e) {
+            log.warn("估算表 {} 行数失败: {}", tableName, e.getMessage());
+            return -1L;
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.ruoyi.common.mybatis.core.page;
+
+import com.ruoyi.common.core.exception.ServiceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 游标分页的游标生成和解析
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("游标分页")
+class PageQueryCursorTest {
+
+    @Test
+    @DisplayName("各类型的排序值生成游标后原样解析")
+    void roundTripValues() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000);
+        Object[] values = {1001L, "批次.A/1", time, new BigDecimal("10.5")};
+
+        Object[] decoded = query(PageQuery.encodeCursor(values))
+            .decodeCursor(Long.class, String.class, LocalDateTime.class, BigDecimal.class);
+
+        assertArrayEquals(values, decoded);
+    }
+
+    @Test
+    @DisplayName("排序值为 null 时解析为 null，包括末尾的 null")
+    void roundTripNullValues() {
+        String cursor = PageQuery.encodeCursor(null, 5L, null);
+
+        assertArrayEquals(new Object[]{null, 5L, null},
+            query(cursor).decodeCursor(String.class, Long.class, LocalDateTime.class));
+        assertArrayEquals(new Object[]{null},
+            query(PageQuery.encodeCursor((Object) null)).decodeCursor(Long.class));
+    }
+
+    @Test
+    @DisplayName("首页传空字符串，未传游标时不是游标分页")
+    void firstPageAndOffsetMode() {
+        assertEquals(0, query("").decodeCursor(Long.class).length);
+        PageQuery offset = new PageQuery();
+        assertFalse(offset.isCursorMode());
+        assertNull(offset.decodeCursor(Long.class));
+    }
+
+    @Test
+    @DisplayName("列数不一致或内容损坏的游标报错")
+    void rejectMalformedCursor() {
+        String cursor = PageQuery.encodeCursor(1L, 2L);
+
+        ServiceException e = assertThrows(ServiceException.class, () -> query(cursor).decodeCursor(Long.class));
+        assertEquals("分页游标有误", e.getMessage());
+        assertThrows(ServiceException.class, () -> query("@@@").decodeCursor(Long.class));
+        assertThrows(ServiceException.class,
+            () -> query(PageQuery.encodeCursor("abc")).decodeCursor(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("每页大小超出范围时使用上限")
+    void clampPageSize() {
+        PageQuery pageQuery = query("");
+        assertEquals(PageQuery.DEFAULT_CURSOR_PAGE_SIZE, pageQuery.getCursorPageSize());
+        pageQuery.setPageSize(0);
+        assertEquals(PageQuery.MAX_CURSOR_PAGE_SIZE, pageQuery.getCursorPageSize());
+        pageQuery.setPageSize(PageQuery.MAX_CURSOR_PAGE_SIZE + 1);
+        assertEquals(PageQuery.MAX_CURSOR_PAGE_SIZE, pageQuery.getCursorPageSize());
+        pageQuery.setPageSize(20);
+        assertEquals(20, pageQuery.getCursorPageSize());
+        // 多取一条判断是否还有下一页
+        assertEquals(21, pageQuery.buildCursor().getSize());
+    }
+
+    private static PageQuery query(String cursor) {
+        PageQuery pageQuery = new PageQuery();
+        pageQuery.setCursor(cursor);
+        return pageQuery;
+    }
+}
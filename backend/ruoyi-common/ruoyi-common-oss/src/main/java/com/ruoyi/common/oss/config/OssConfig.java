@@ -0,0 +1,16 @@
+package com.ruoyi.common.oss.config;
+
+import com.ruoyi.common.oss.properties.OssUploadProperties;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * 对象存储配置
+ *
+ * @author zcc
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(OssUploadProperties.class)
+public class OssConfig {
+
+}
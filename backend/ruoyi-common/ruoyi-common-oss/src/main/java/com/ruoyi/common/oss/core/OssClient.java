@@ -1,6 +1,6 @@
 package com.ruoyi.common.oss.core;
 
-import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.IdUtil;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.HttpMethod;
@@ -22,30 +22,62 @@ import com.ruoyi.common.oss.enumd.AccessPolicyType;
 import com.ruoyi.common.oss.enumd.PolicyType;
 import com.ruoyi.common.oss.exception.OssException;
 import com.ruoyi.common.oss.properties.OssProperties;
+import com.ruoyi.common.oss.properties.OssUploadProperties;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * S3 存储协议 所有兼容S3协议的云厂商均支持
  * 阿里云 腾讯云 七牛云 minio
+ * <p>
+ * 大于分片大小的文件使用分片上传，流式读取分片并行上传，内存占用与文件大小无关
  *
  * @author Lion Li
  */
 public class OssClient {
 
+    /**
+     * S3 要求除最后一片外分片不小于 5MB
+     */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
     private final String configKey;
 
     private final OssProperties properties;
 
     private final AmazonS3 client;
 
+    private final int partSize;
+
+    private final int partConcurrency;
+
+    /**
+     * 分片上传线程池，空闲时线程退出
+     */
+    private final ThreadPoolExecutor partExecutor;
+
     public OssClient(String configKey, OssProperties ossProperties) {
+        this(configKey, ossProperties, new OssUploadProperties());
+    }
+
+    public OssClient(String configKey, OssProperties ossProperties, OssUploadProperties uploadProperties) {
         this.configKey = configKey;
         this.properties = ossProperties;
+        this.partSize = (int) Math.min(Math.max(uploadProperties.getPartSize().toBytes(), MIN_PART_SIZE), Integer.MAX_VALUE - 8);
+        this.partConcurrency = Math.max(uploadProperties.getPartConcurrency(), 1);
+        this.partExecutor = new ThreadPoolExecutor(partConcurrency, partConcurrency, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), ThreadUtil.newNamedThreadFactory("oss-part-" + configKey + "-", true));
+        this.partExecutor.allowCoreThreadTimeOut(true);
         try {
             AwsClientBuilder.EndpointConfiguration endpointConfig =
                 new AwsClientBuilder.EndpointConfiguration(properties.getEndpoint(), properties.getRegion());
@@ -95,21 +127,37 @@ public class OssClient {
     }
 
     public UploadResult upload(byte[] data, String path, String contentType) {
-        return upload(new ByteArrayInputStream(data), path, contentType);
+        return upload(new ByteArrayInputStream(data), data.length, path, contentType);
     }
 
+    /**
+     * 上传长度未知的流，不超过分片大小时一次上传，否则分片上传
+     */
     public UploadResult upload(InputStream inputStream, String path, String contentType) {
-        if (!(inputStream instanceof ByteArrayInputStream)) {
-            inputStream = new ByteArrayInputStream(IoUtil.readBytes(inputStream));
+        try {
+            byte[] first = readPart(inputStream);
+            if (first.length < partSize) {
+                putObject(new ByteArrayInputStream(first), first.length, path, contentType);
+            } else {
+                uploadMultipart(inputStream, first, path, contentType);
+            }
+        } catch (Exception e) {
+            throw new OssException("上传文件失败，请检查配置信息:[" + e.getMessage() + "]");
+        }
+        return UploadResult.builder().url(getUrl() + "/" + path).filename(path).build();
+    }
+
+    /**
+     * 上传长度已知的流，不超过分片大小时直接流式上传，否则分片上传
+     *
+     * @param length 流的长度
+     */
+    public UploadResult upload(InputStream inputStream, long length, String path, String contentType) {
+        if (length > partSize) {
+            return upload(inputStream, path, contentType);
         }
         try {
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(contentType);
-            metadata.setContentLength(inputStream.available());
-            PutObjectRequest putObjectRequest = new PutObjectRequest(properties.getBucketName(), path, inputStream, metadata);
-            // 设置上传对象的 Acl 为公共读
-            putObjectRequest.setCannedAcl(getAccessPolicy().getAcl());
-            client.putObject(putObjectRequest);
+            putObject(inputStream, length, path, contentType);
         } catch (Exception e) {
             throw new OssException("上传文件失败，请检查配置信息:[" + e.getMessage() + "]");
         }
@@ -118,16 +166,141 @@ public class OssClient {
 
     public UploadResult upload(File file, String path) {
         try {
-            PutObjectRequest putObjectRequest = new PutObjectRequest(properties.getBucketName(), path, file);
-            // 设置上传对象的 Acl 为公共读
-            putObjectRequest.setCannedAcl(getAccessPolicy().getAcl());
-            client.putObject(putObjectRequest);
+            if (file.length() > partSize) {
+                uploadMultipart(file, path);
+            } else {
+                PutObjectRequest putObjectRequest = new PutObjectRequest(properties.getBucketName(), path, file);
+                // 设置上传对象的 Acl 为公共读
+                putObjectRequest.setCannedAcl(getAccessPolicy().getAcl());
+                client.putObject(putObjectRequest);
+            }
         } catch (Exception e) {
             throw new OssException("上传文件失败，请检查配置信息:[" + e.getMessage() + "]");
         }
         return UploadResult.builder().url(getUrl() + "/" + path).filename(path).build();
     }
 
+    private void putObject(InputStream inputStream, long length, String path, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setContentLength(length);
+        PutObjectRequest putObjectRequest = new PutObjectRequest(properties.getBucketName(), path, inputStream, metadata);
+        // 设置上传对象的 Acl 为公共读
+        putObjectRequest.setCannedAcl(getAccessPolicy().getAcl());
+        client.putObject(putObjectRequest);
+    }
+
+    /**
+     * 从流中依次读取分片并行上传，读下一片前等待空闲的并发数，内存中最多 并发数+1 个分片
+     *
+     * @param first 已读取的第一个分片
+     */
+    private void uploadMultipart(InputStream inputStream, byte[] first, String path, String contentType) throws Exception {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        String uploadId = initiateMultipart(path, metadata);
+        Semaphore permits = new Semaphore(partConcurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<PartETag>> parts = new ArrayList<>();
+        try {
+            byte[] data = first;
+            int partNumber = 1;
+            while (data.length > 0 && !failed.get()) {
+                permits.acquire();
+                UploadPartRequest request = new UploadPartRequest()
+                    .withBucketName(properties.getBucketName())
+                    .withKey(path)
+                    .withUploadId(uploadId)
+                    .withPartNumber(partNumber++)
+                    .withInputStream(new ByteArrayInputStream(data))
+                    .withPartSize(data.length);
+                parts.add(partExecutor.submit(() -> {
+                    try {
+                        return client.uploadPart(request).getPartETag();
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+                if (data.length < partSize) {
+                    break;
+                }
+                data = readPart(inputStream);
+            }
+            completeMultipart(path, uploadId, parts);
+        } catch (Exception e) {
+            abortMultipart(path, uploadId, parts);
+            throw e;
+        }
+    }
+
+    /**
+     * 按偏移量直接从文件读取分片并行上传
+     */
+    private void uploadMultipart(File file, String path) throws Exception {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(file.length());
+        String uploadId = initiateMultipart(path, metadata);
+        List<Future<PartETag>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long offset = 0; offset < file.length(); offset += partSize) {
+                UploadPartRequest request = new UploadPartRequest()
+                    .withBucketName(properties.getBucketName())
+                    .withKey(path)
+                    .withUploadId(uploadId)
+                    .withPartNumber(partNumber++)
+                    .withFile(file)
+                    .withFileOffset(offset)
+                    .withPartSize(Math.min(partSize, file.length() - offset));
+                parts.add(partExecutor.submit(() -> client.uploadPart(request).getPartETag()));
+            }
+            completeMultipart(path, uploadId, parts);
+        } catch (Exception e) {
+            abortMultipart(path, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private String initiateMultipart(String path, ObjectMetadata metadata) {
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(properties.getBucketName(), path, metadata);
+        // 设置上传对象的 Acl 为公共读
+        request.setCannedACL(getAccessPolicy().getAcl());
+        return client.initiateMultipartUpload(request).getUploadId();
+    }
+
+    private void completeMultipart(String path, String uploadId, List<Future<PartETag>> parts) throws Exception {
+        List<PartETag> etags = new ArrayList<>(parts.size());
+        for (Future<PartETag> part : parts) {
+            try {
+                etags.add(part.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        client.completeMultipartUpload(new CompleteMultipartUploadRequest(properties.getBucketName(), path, uploadId, etags));
+    }
+
+    private void abortMultipart(String path, String uploadId, List<Future<PartETag>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            client.abortMultipartUpload(new AbortMultipartUploadRequest(properties.getBucketName(), path, uploadId));
+        } catch (Exception ignored) {
+            // 未完成的分片由存储服务的生命周期规则清理
+        }
+    }
+
+    /**
+     * 读取一个分片，流结束时返回的长度小于分片大小
+     */
+    private byte[] readPart(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[partSize];
+        int length = inputStream.readNBytes(buffer, 0, partSize);
+        return length == partSize ? buffer : Arrays.copyOf(buffer, length);
+    }
+
     public void delete(String path) {
         path = path.replace(getUrl() + "/", "");
         try {
@@ -145,6 +318,10 @@ public class OssClient {
         return upload(inputStream, getPath(properties.getPrefix(), suffix), contentType);
     }
 
+    public UploadResult uploadSuffix(InputStream inputStream, long length, String suffix, String contentType) {
+        return upload(inputStream, length, getPath(properties.getPrefix(), suffix), contentType);
+    }
+
     public UploadResult uploadSuffix(File file, String suffix) {
         return upload(file, getPath(properties.getPrefix(), suffix));
     }
@@ -156,8 +333,7 @@ public class OssClient {
      */
     public ObjectMetadata getObjectMetadata(String path) {
         path = path.replace(getUrl() + "/", "");
-        S3Object object = client.getObject(properties.getBucketName(), path);
-        return object.getObjectMetadata();
+        return client.getObjectMetadata(properties.getBucketName(), path);
     }
 
     public InputStream getObjectContent(String path) {
@@ -166,6 +342,19 @@ public class OssClient {
         return object.getObjectContent();
     }
 
+    /**
+     * 获取文件指定范围的内容
+     *
+     * @param path  完整文件路径
+     * @param start 起始字节，含
+     * @param end   结束字节，含
+     */
+    public InputStream getObjectContent(String path, long start, long end) {
+        path = path.replace(getUrl() + "/", "");
+        GetObjectRequest request = new GetObjectRequest(properties.getBucketName(), path).withRange(start, end);
+        return client.getObject(request).getObjectContent();
+    }
+
     public String getUrl() {
         String domain = properties.getDomain();
         String endpoint = properties.getEndpoint();
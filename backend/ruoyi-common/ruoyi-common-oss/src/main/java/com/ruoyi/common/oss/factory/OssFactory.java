@@ -1,12 +1,14 @@
 package com.ruoyi.common.oss.factory;
 
 import com.ruoyi.common.core.constant.CacheNames;
+import com.ruoyi.common.core.utils.SpringUtils;
 import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.json.utils.JsonUtils;
 import com.ruoyi.common.oss.constant.OssConstant;
 import com.ruoyi.common.oss.core.OssClient;
 import com.ruoyi.common.oss.exception.OssException;
 import com.ruoyi.common.oss.properties.OssProperties;
+import com.ruoyi.common.oss.properties.OssUploadProperties;
 import com.ruoyi.common.redis.utils.CacheUtils;
 import com.ruoyi.common.redis.utils.RedisUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -47,13 +49,13 @@ public class OssFactory {
         OssProperties properties = JsonUtils.parseObject(json, OssProperties.class);
         OssClient client = CLIENT_CACHE.get(configKey);
         if (client == null) {
-            CLIENT_CACHE.put(configKey, new OssClient(configKey, properties));
+            CLIENT_CACHE.put(configKey, new OssClient(configKey, properties, SpringUtils.getBean(OssUploadProperties.class)));
             log.info("创建OSS实例 key => {}", configKey);
             return CLIENT_CACHE.get(configKey);
         }
         // 配置不相同则重新构建
         if (!client.checkPropertiesSame(properties)) {
-            CLIENT_CACHE.put(configKey, new OssClient(configKey, properties));
+            CLIENT_CACHE.put(configKey, new OssClient(configKey, properties, SpringUtils.getBean(OssUploadProperties.class)));
             log.info("重载OSS实例 key => {}", configKey);
             return CLIENT_CACHE.get(configKey);
         }
@@ -0,0 +1,28 @@
+package com.ruoyi.common.oss.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * OSS上传 配置属性
+ * <p>
+ * 大于分片大小的文件使用分片上传，单个上传同时在内存中的分片不超过 并发数+1 个
+ *
+ * @author zcc
+ */
+@Data
+@ConfigurationProperties(prefix = "oss.upload")
+public class OssUploadProperties {
+
+    /**
+     * 分片大小，S3 要求除最后一片外不小于 5MB
+     */
+    private DataSize partSize = DataSize.ofMegabytes(8);
+
+    /**
+     * 单个文件并行上传的分片数
+     */
+    private int partConcurrency = 4;
+
+}
@@ -0,0 +1,249 @@
+package com.ruoyi.common.oss.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地 S3 替身，只实现 OssClient 用到的请求：检查桶、PutObject、分片上传、GetObject（含 Range）
+ * <p>
+ * 不校验签名，对象保存在内存中
+ *
+ * @author zcc
+ */
+class LocalS3Server implements AutoCloseable {
+
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final List<String> aborted = new CopyOnWriteArrayList<>();
+    private final AtomicInteger uploadIds = new AtomicInteger();
+    private final AtomicInteger activeParts = new AtomicInteger();
+    private final AtomicInteger maxActiveParts = new AtomicInteger();
+    private final AtomicInteger partRequests = new AtomicInteger();
+
+    /**
+     * 返回 400 的分片号，0 表示不失败
+     */
+    private volatile int failPartNumber;
+
+    /**
+     * 每个分片请求的处理耗时，用于观察并发数
+     */
+    private volatile long partDelayMillis;
+
+    LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String endpoint() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    byte[] object(String key) {
+        return objects.get(key);
+    }
+
+    List<String> aborted() {
+        return aborted;
+    }
+
+    int maxActiveParts() {
+        return maxActiveParts.get();
+    }
+
+    int partRequests() {
+        return partRequests.get();
+    }
+
+    void failPart(int partNumber) {
+        this.failPartNumber = partNumber;
+    }
+
+    void partDelay(long millis) {
+        this.partDelayMillis = millis;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String query = exchange.getRequestURI().getRawQuery();
+            Map<String, String> params = parseQuery(query);
+            // 路径形式为 /桶/对象键
+            String path = exchange.getRequestURI().getPath();
+            int slash = path.indexOf('/', 1);
+            String key = slash < 0 ? "" : path.substring(slash + 1);
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if (params.containsKey("acl")) {
+                // 桶存在但无权限，客户端视为桶已存在
+                sendError(exchange, 403, "AccessDenied");
+            } else if ("POST".equals(method) && params.containsKey("uploads")) {
+                String uploadId = "upload-" + uploadIds.incrementAndGet();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                sendXml(exchange, "<InitiateMultipartUploadResult><Bucket>test</Bucket><Key>" + key
+                    + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(method) && params.containsKey("partNumber")) {
+                uploadPart(exchange, params, body);
+            } else if ("POST".equals(method) && params.containsKey("uploadId")) {
+                completeMultipart(exchange, key, params.get("uploadId"), new String(body, StandardCharsets.UTF_8));
+            } else if ("DELETE".equals(method) && params.containsKey("uploadId")) {
+                aborted.add(params.get("uploadId"));
+                uploads.remove(params.get("uploadId"));
+                exchange.sendResponseHeaders(204, -1);
+            } else if ("PUT".equals(method)) {
+                objects.put(key, body);
+                exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("GET".equals(method)) {
+                getObject(exchange, key);
+            } else {
+                sendError(exchange, 400, "InvalidRequest");
+            }
+        }
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> params, byte[] body) throws IOException {
+        partRequests.incrementAndGet();
+        int partNumber = Integer.parseInt(params.get("partNumber"));
+        int active = activeParts.incrementAndGet();
+        maxActiveParts.accumulateAndGet(active, Math::max);
+        try {
+            if (partDelayMillis > 0) {
+                Thread.sleep(partDelayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeParts.decrementAndGet();
+        }
+        Map<Integer, byte[]> parts = uploads.get(params.get("uploadId"));
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        if (partNumber == failPartNumber) {
+            sendError(exchange, 400, "InvalidPart");
+            return;
+        }
+        parts.put(partNumber, body);
+        exchange.getResponseHeaders().add("ETag", "\"" + md5(body) + "\"");
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void completeMultipart(HttpExchange exchange, String key, String uploadId, String body) throws IOException {
+        Map<Integer, byte[]> parts = uploads.remove(uploadId);
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Matcher matcher = PART_NUMBER.matcher(body);
+        int count = 0;
+        while (matcher.find()) {
+            byte[] part = parts.get(Integer.parseInt(matcher.group(1)));
+            if (part == null) {
+                sendError(exchange, 400, "InvalidPart");
+                return;
+            }
+            out.write(part);
+            count++;
+        }
+        objects.put(key, out.toByteArray());
+        sendXml(exchange, "<CompleteMultipartUploadResult><Location>http://" + endpoint() + "/test/" + key
+            + "</Location><Bucket>test</Bucket><Key>" + key + "</Key><ETag>\"" + md5(out.toByteArray()) + "-" + count
+            + "\"</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void getObject(HttpExchange exchange, String key) throws IOException {
+        byte[] data = objects.get(key);
+        if (data == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        int status = 200;
+        int start = 0;
+        int end = data.length - 1;
+        if (matcher != null && matcher.matches()) {
+            status = 206;
+            start = Integer.parseInt(matcher.group(1));
+            end = Math.min(Integer.parseInt(matcher.group(2)), data.length - 1);
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+        } else {
+            exchange.getResponseHeaders().add("ETag", "\"" + md5(data) + "\"");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(status, end - start + 1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data, start, end - start + 1);
+        }
+    }
+
+    private static void sendXml(HttpExchange exchange, String xml) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>" + code
+            + "</Message><RequestId>local</RequestId></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new ConcurrentHashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            params.put(index < 0 ? pair : pair.substring(0, index), index < 0 ? "" : pair.substring(index + 1));
+        }
+        return params;
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
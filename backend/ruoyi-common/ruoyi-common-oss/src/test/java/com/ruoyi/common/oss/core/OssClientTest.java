@@ -0,0 +1,129 @@
+package com.ruoyi.common.oss.core;
+
+import com.ruoyi.common.oss.exception.OssException;
+import com.ruoyi.common.oss.properties.OssProperties;
+import com.ruoyi.common.oss.properties.OssUploadProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OssClient 分片上传和范围下载，使用本地 S3 替身
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("OSS 分片上传和范围下载")
+class OssClientTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private LocalS3Server server;
+    private OssClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new LocalS3Server();
+        OssProperties properties = new OssProperties();
+        properties.setEndpoint(server.endpoint());
+        properties.setAccessKey("test");
+        properties.setSecretKey("test");
+        properties.setBucketName("test");
+        properties.setRegion("us-east-1");
+        properties.setIsHttps("N");
+        properties.setAccessPolicy("1");
+        OssUploadProperties uploadProperties = new OssUploadProperties();
+        uploadProperties.setPartSize(DataSize.ofBytes(PART_SIZE));
+        uploadProperties.setPartConcurrency(2);
+        client = new OssClient("test", properties, uploadProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("不超过分片大小时一次上传")
+    void uploadSmallObjectInOnePut() {
+        byte[] data = randomBytes(1024);
+        client.upload(new ByteArrayInputStream(data), data.length, "small.bin", "application/octet-stream");
+
+        assertArrayEquals(data, server.object("small.bin"));
+        assertEquals(0, server.partRequests());
+    }
+
+    @Test
+    @DisplayName("长度未知的流按分片并行上传，并发数不超过配置")
+    void uploadStreamAsParallelParts() {
+        byte[] data = randomBytes(PART_SIZE * 2 + 1234);
+        server.partDelay(200);
+        client.upload(new ByteArrayInputStream(data), "multipart.bin", "application/octet-stream");
+
+        assertArrayEquals(data, server.object("multipart.bin"));
+        assertEquals(3, server.partRequests());
+        assertTrue(server.maxActiveParts() >= 1 && server.maxActiveParts() <= 2, "并发分片数: " + server.maxActiveParts());
+    }
+
+    @Test
+    @DisplayName("文件按偏移量分片上传")
+    void uploadFileAsParts() throws Exception {
+        byte[] data = randomBytes(PART_SIZE + 100);
+        File file = File.createTempFile("oss-client-test", ".bin");
+        try {
+            Files.write(file.toPath(), data);
+            client.upload(file, "file.bin");
+        } finally {
+            Files.delete(file.toPath());
+        }
+
+        assertArrayEquals(data, server.object("file.bin"));
+        assertEquals(2, server.partRequests());
+    }
+
+    @Test
+    @DisplayName("分片失败时取消分片上传")
+    void abortWhenPartFails() {
+        byte[] data = randomBytes(PART_SIZE * 2 + 1);
+        server.failPart(2);
+
+        assertThrows(OssException.class,
+            () -> client.upload(new ByteArrayInputStream(data), "failed.bin", "application/octet-stream"));
+        assertNull(server.object("failed.bin"));
+        assertEquals(1, server.aborted().size());
+    }
+
+    @Test
+    @DisplayName("按范围读取对象内容")
+    void readRange() throws Exception {
+        byte[] data = randomBytes(4096);
+        client.upload(data, "range.bin", "application/octet-stream");
+
+        try (InputStream in = client.getObjectContent("range.bin", 100, 199)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 100, 200), in.readAllBytes());
+        }
+        try (InputStream in = client.getObjectContent("range.bin", 4000, 4095)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 4000, 4096), in.readAllBytes());
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
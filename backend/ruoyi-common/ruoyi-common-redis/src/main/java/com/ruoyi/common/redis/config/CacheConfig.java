@@ -1,15 +1,13 @@
 package com.ruoyi.common.redis.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ruoyi.common.redis.manager.PlusSpringCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * 缓存配置
  *
@@ -19,27 +17,15 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 public class CacheConfig {
 
-    /**
-     * caffeine 本地缓存处理器
-     */
-    @Bean
-    public Cache<Object, Object> caffeine() {
-        return Caffeine.newBuilder()
-            // 设置最后一次写入或访问后经过固定时间过期
-            .expireAfterWrite(30, TimeUnit.SECONDS)
-            // 初始的缓存空间大小
-            .initialCapacity(100)
-            // 缓存的最大条数
-            .maximumSize(1000)
-            .build();
-    }
-
     /**
      * 自定义缓存管理器 整合spring-cache
+     * 一级缓存由每个缓存按 cacheName 参数单独创建
      */
     @Bean
-    public CacheManager cacheManager() {
-        return new PlusSpringCacheManager();
+    public CacheManager cacheManager(ObjectProvider<MeterRegistry> meterRegistry) {
+        PlusSpringCacheManager cacheManager = new PlusSpringCacheManager();
+        cacheManager.setMeterRegistry(meterRegistry.getIfAvailable());
+        return cacheManager;
     }
 
 }
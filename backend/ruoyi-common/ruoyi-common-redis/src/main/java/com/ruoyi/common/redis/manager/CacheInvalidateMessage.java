@@ -0,0 +1,37 @@
+package com.ruoyi.common.redis.manager;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 一级缓存失效消息
+ *
+ * @author Lion Li
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidateMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发送节点标识，节点忽略自己发出的消息
+     */
+    private String origin;
+
+    /**
+     * 缓存名称
+     */
+    private String cacheName;
+
+    /**
+     * 缓存 key，为空表示清空整个缓存
+     */
+    private String key;
+}
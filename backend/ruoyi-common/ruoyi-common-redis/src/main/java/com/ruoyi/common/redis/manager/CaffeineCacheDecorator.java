@@ -1,24 +1,59 @@
 package com.ruoyi.common.redis.manager;
 
-import com.ruoyi.common.core.utils.SpringUtils;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.spring.cache.CacheConfig;
 import org.springframework.cache.Cache;
 
+import java.time.Duration;
 import java.util.concurrent.Callable;
 
 /**
  * Cache 装饰器模式(用于扩展 Caffeine 一级缓存)
+ * <p>
+ * 每个缓存独立一个 Caffeine 实例，容量与过期时间取自 cacheName 的 ttl/idle/size 参数，
+ * 写入、删除、清空后通过 {@link PlusSpringCacheManager} 广播，其他节点同步失效本地缓存
  *
  * @author LionLi
  */
 public class CaffeineCacheDecorator implements Cache {
 
-    private static final com.github.benmanes.caffeine.cache.Cache<Object, Object>
-        CAFFEINE = SpringUtils.getBean("caffeine");
+    /**
+     * 本地缓存默认写入后过期时间，同时是丢失失效消息时的最长不一致时间
+     */
+    private static final Duration DEFAULT_EXPIRE = Duration.ofSeconds(30);
+
+    /**
+     * 本地缓存默认最大条数
+     */
+    private static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine;
 
     private final Cache cache;
 
-    public CaffeineCacheDecorator(Cache cache) {
+    private final PlusSpringCacheManager cacheManager;
+
+    public CaffeineCacheDecorator(Cache cache, CacheConfig config, PlusSpringCacheManager cacheManager) {
         this.cache = cache;
+        this.cacheManager = cacheManager;
+        this.caffeine = buildCaffeine(config);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCaffeine(CacheConfig config) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .initialCapacity(100)
+            .recordStats();
+        // 本地缓存不超过远程缓存的存活时间
+        Duration expire = DEFAULT_EXPIRE;
+        if (config.getTTL() > 0 && config.getTTL() < expire.toMillis()) {
+            expire = Duration.ofMillis(config.getTTL());
+        }
+        builder.expireAfterWrite(expire);
+        if (config.getMaxIdleTime() > 0) {
+            builder.expireAfterAccess(Duration.ofMillis(config.getMaxIdleTime()));
+        }
+        builder.maximumSize(config.getMaxSize() > 0 ? config.getMaxSize() : DEFAULT_MAX_SIZE);
+        return builder.build();
     }
 
     @Override
@@ -31,31 +66,39 @@ public class CaffeineCacheDecorator implements Cache {
         return cache.getNativeCache();
     }
 
+    /**
+     * 本地缓存实例，用于指标统计
+     */
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getCaffeine() {
+        return caffeine;
+    }
+
     public String getUniqueKey(Object key) {
-        return cache.getName() + ":" + key;
+        return String.valueOf(key);
     }
 
     @Override
     public ValueWrapper get(Object key) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key));
+        Object o = caffeine.get(getUniqueKey(key), k -> cache.get(key));
         return (ValueWrapper) o;
     }
 
     @SuppressWarnings("unchecked")
     public <T> T get(Object key, Class<T> type) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key, type));
+        Object o = caffeine.get(getUniqueKey(key), k -> cache.get(key, type));
         return (T) o;
     }
 
     @Override
     public void put(Object key, Object value) {
-        CAFFEINE.invalidate(getUniqueKey(key));
         cache.put(key, value);
+        invalidateAndPublish(key);
     }
 
     public ValueWrapper putIfAbsent(Object key, Object value) {
-        CAFFEINE.invalidate(getUniqueKey(key));
-        return cache.putIfAbsent(key, value);
+        ValueWrapper wrapper = cache.putIfAbsent(key, value);
+        invalidateAndPublish(key);
+        return wrapper;
     }
 
     @Override
@@ -65,26 +108,49 @@ public class CaffeineCacheDecorator implements Cache {
 
     public boolean evictIfPresent(Object key) {
         boolean b = cache.evictIfPresent(key);
-        if (b) {
-            CAFFEINE.invalidate(getUniqueKey(key));
-        }
+        invalidateAndPublish(key);
         return b;
     }
 
     @Override
     public void clear() {
         cache.clear();
+        invalidateAllAndPublish();
     }
 
     public boolean invalidate() {
-        return cache.invalidate();
+        boolean b = cache.invalidate();
+        invalidateAllAndPublish();
+        return b;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
-        Object o = CAFFEINE.get(getUniqueKey(key), k -> cache.get(key, valueLoader));
+        Object o = caffeine.get(getUniqueKey(key), k -> cache.get(key, valueLoader));
         return (T) o;
     }
 
+    /**
+     * 失效本地缓存，key 为空时清空
+     */
+    void invalidateLocal(String uniqueKey) {
+        if (uniqueKey == null) {
+            caffeine.invalidateAll();
+        } else {
+            caffeine.invalidate(uniqueKey);
+        }
+    }
+
+    private void invalidateAndPublish(Object key) {
+        String uniqueKey = getUniqueKey(key);
+        caffeine.invalidate(uniqueKey);
+        cacheManager.publishInvalidation(getName(), uniqueKey);
+    }
+
+    private void invalidateAllAndPublish() {
+        caffeine.invalidateAll();
+        cacheManager.publishInvalidation(getName(), null);
+    }
+
 }
@@ -16,8 +16,12 @@
 package com.ruoyi.common.redis.manager;
 
 import com.ruoyi.common.redis.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RMap;
 import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
 import org.redisson.spring.cache.CacheConfig;
 import org.redisson.spring.cache.RedissonCache;
 import org.springframework.boot.convert.DurationStyle;
@@ -29,6 +33,7 @@ import org.springframework.util.StringUtils;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -38,13 +43,22 @@ import java.util.concurrent.ConcurrentMap;
  * <p>
  * 修改 RedissonSpringCacheManager 源码
  * 重写 cacheName 处理方法 支持多参数
+ * 一级缓存失效通过 topic 广播到所有节点
  *
  * @author Nikita Koksharov
  *
  */
+@Slf4j
 @SuppressWarnings("unchecked")
 public class PlusSpringCacheManager implements CacheManager {
 
+    /**
+     * 一级缓存失效广播 topic
+     */
+    private static final String INVALIDATE_TOPIC = "cache:local:invalidate";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
     private boolean dynamic = true;
 
     private boolean allowNullValues = true;
@@ -53,6 +67,11 @@ public class PlusSpringCacheManager implements CacheManager {
 
     Map<String, CacheConfig> configMap = new ConcurrentHashMap<>();
     ConcurrentMap<String, Cache> instanceMap = new ConcurrentHashMap<>();
+    ConcurrentMap<String, CaffeineCacheDecorator> localCacheMap = new ConcurrentHashMap<>();
+
+    private MeterRegistry meterRegistry;
+
+    private volatile RTopic invalidateTopic;
 
     /**
      * Creates CacheManager supplied by Redisson instance
@@ -112,6 +131,15 @@ public class PlusSpringCacheManager implements CacheManager {
         this.configMap = (Map<String, CacheConfig>) config;
     }
 
+    /**
+     * 设置指标注册器，为每个缓存导出一级缓存的命中、未命中、淘汰次数
+     *
+     * @param meterRegistry 为 null 时不导出
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     protected CacheConfig createDefaultConfig() {
         return new CacheConfig();
     }
@@ -156,13 +184,16 @@ public class PlusSpringCacheManager implements CacheManager {
     private Cache createMap(String name, CacheConfig config) {
         RMap<Object, Object> map = RedisUtils.getClient().getMap(name);
 
-        Cache cache = new CaffeineCacheDecorator(new RedissonCache(map, allowNullValues));
+        CaffeineCacheDecorator localCache = new CaffeineCacheDecorator(new RedissonCache(map, allowNullValues), config, this);
+        Cache cache = localCache;
         if (transactionAware) {
             cache = new TransactionAwareCacheDecorator(cache);
         }
         Cache oldCache = instanceMap.putIfAbsent(name, cache);
         if (oldCache != null) {
             cache = oldCache;
+        } else {
+            registerLocalCache(name, localCache);
         }
         return cache;
     }
@@ -170,7 +201,8 @@ public class PlusSpringCacheManager implements CacheManager {
     private Cache createMapCache(String name, CacheConfig config) {
         RMapCache<Object, Object> map = RedisUtils.getClient().getMapCache(name);
 
-        Cache cache = new CaffeineCacheDecorator(new RedissonCache(map, config, allowNullValues));
+        CaffeineCacheDecorator localCache = new CaffeineCacheDecorator(new RedissonCache(map, config, allowNullValues), config, this);
+        Cache cache = localCache;
         if (transactionAware) {
             cache = new TransactionAwareCacheDecorator(cache);
         }
@@ -179,10 +211,55 @@ public class PlusSpringCacheManager implements CacheManager {
             cache = oldCache;
         } else {
             map.setMaxSize(config.getMaxSize());
+            registerLocalCache(name, localCache);
         }
         return cache;
     }
 
+    private void registerLocalCache(String name, CaffeineCacheDecorator localCache) {
+        subscribeInvalidation();
+        localCacheMap.put(name, localCache);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, localCache.getCaffeine(), name, "level", "local");
+        }
+    }
+
+    /**
+     * 广播一级缓存失效
+     *
+     * @param cacheName 缓存名称
+     * @param key       缓存 key，为空表示清空
+     */
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            subscribeInvalidation().publish(new CacheInvalidateMessage(instanceId, cacheName, key));
+        } catch (Exception e) {
+            // 广播失败时其他节点的一级缓存在过期后自然失效
+            log.warn("广播一级缓存失效失败 cacheName: {}, key: {}, 错误: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private RTopic subscribeInvalidation() {
+        if (invalidateTopic == null) {
+            synchronized (this) {
+                if (invalidateTopic == null) {
+                    RTopic topic = RedisUtils.getClient().getTopic(INVALIDATE_TOPIC);
+                    topic.addListener(CacheInvalidateMessage.class, (channel, msg) -> {
+                        if (instanceId.equals(msg.getOrigin())) {
+                            return;
+                        }
+                        CaffeineCacheDecorator localCache = localCacheMap.get(msg.getCacheName());
+                        if (localCache != null) {
+                            localCache.invalidateLocal(msg.getKey());
+                        }
+                    });
+                    invalidateTopic = topic;
+                }
+            }
+        }
+        return invalidateTopic;
+    }
+
     @Override
     public Collection<String> getCacheNames() {
         return Collections.unmodifiableSet(configMap.keySet());
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import com.ruoyi.common.core.utils.SpringUtils;
 import org.redisson.api.*;
+import org.redisson.client.codec.StringCodec;
 
 import java.time.Duration;
 import java.util.Collection;
@@ -151,6 +152,20 @@ public class RedisUtils {
         return bucket.setIfAbsent(value, duration);
     }
 
+    /**
+     * 如果不存在则设置字符串 并返回 true 如果存在则返回 false
+     * 使用 StringCodec 原样写入，不经过 JSON 编码；设置与过期时间为一条 SET NX PX 命令
+     *
+     * @param key      缓存的键值
+     * @param value    缓存的值
+     * @param duration 过期时间
+     * @return set成功或失败
+     */
+    public static boolean setStringIfAbsent(final String key, final String value, final Duration duration) {
+        RBucket<String> bucket = CLIENT.getBucket(key, StringCodec.INSTANCE);
+        return bucket.setIfAbsent(value, duration);
+    }
+
     /**
      * 如果存在则设置 并返回 true 如果存在则返回 false
      *
@@ -5,10 +5,12 @@ import com.ruoyi.common.translation.annotation.TranslationType;
 import com.ruoyi.common.translation.core.TranslationInterface;
 import com.ruoyi.common.translation.core.handler.TranslationBeanSerializerModifier;
 import com.ruoyi.common.translation.core.handler.TranslationHandler;
+import com.ruoyi.common.translation.core.handler.TranslationResponseAdvice;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
 
 import java.util.HashMap;
 import java.util.List;
@@ -47,4 +49,12 @@ public class TranslationConfig {
                 .withSerializerModifier(new TranslationBeanSerializerModifier()));
     }
 
+    /**
+     * 接口响应批量翻译
+     */
+    @Bean
+    public TranslationResponseAdvice translationResponseAdvice() {
+        return new TranslationResponseAdvice();
+    }
+
 }
@@ -2,6 +2,10 @@ package com.ruoyi.common.translation.core;
 
 import com.ruoyi.common.translation.annotation.TranslationType;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 翻译接口 (实现类需标注 {@link TranslationType} 注解标明翻译类型)
  *
@@ -17,4 +21,21 @@ public interface TranslationInterface<T> {
      * @return 返回键对应的值
      */
     T translation(Object key, String other);
+
+    /**
+     * 批量翻译 序列化前收集同一响应内同类型的键一次翻译
+     * <p>
+     * 默认逐个调用 {@link #translation(Object, String)}，实现类可覆盖为一次 IN 查询或批量读取缓存
+     *
+     * @param keys  需要被翻译的键(不为空)
+     * @param other 其他参数
+     * @return 键与值的映射
+     */
+    default Map<Object, T> translationBatch(Collection<Object> keys, String other) {
+        Map<Object, T> map = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            map.put(key, translation(key, other));
+        }
+        return map;
+    }
 }
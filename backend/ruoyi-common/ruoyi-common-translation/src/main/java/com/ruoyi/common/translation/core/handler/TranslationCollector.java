@@ -0,0 +1,157 @@
+package com.ruoyi.common.translation.core.handler;
+
+import com.ruoyi.common.core.utils.StringUtils;
+import com.ruoyi.common.translation.annotation.Translation;
+import com.ruoyi.common.translation.core.TranslationInterface;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * 翻译键收集器
+ * <p>
+ * 由 {@link TranslationResponseAdvice} 在接口响应写出前调用，遍历整个响应对象，按 翻译类型/其他条件 收集需要翻译的键，
+ * 每组调用一次 {@link TranslationInterface#translationBatch}，结果供 {@link TranslationHandler} 直接写出
+ *
+ * @author Lion Li
+ */
+@Slf4j
+public class TranslationCollector {
+
+    /**
+     * 遍历的最大层级
+     */
+    private static final int MAX_DEPTH = 6;
+
+    private static final String SCAN_PACKAGE = "com.ruoyi.";
+
+    private static final ClassValue<ClassMeta> META = new ClassValue<>() {
+        @Override
+        protected ClassMeta computeValue(Class<?> type) {
+            return ClassMeta.of(type);
+        }
+    };
+
+    private final Map<String, Set<Object>> keysMap = new HashMap<>();
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * 收集并批量翻译
+     *
+     * @param root 响应对象
+     * @return 分组键与翻译结果的映射，没有需要翻译的字段时返回空
+     */
+    public static Map<String, Map<Object, Object>> resolve(Object root) {
+        TranslationCollector collector = new TranslationCollector();
+        collector.visit(root, 0);
+        if (collector.keysMap.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Map<Object, Object>> result = new HashMap<>(collector.keysMap.size());
+        collector.keysMap.forEach((groupKey, keys) -> {
+            int index = groupKey.indexOf('#');
+            String type = groupKey.substring(0, index);
+            TranslationInterface<?> trans = TranslationHandler.TRANSLATION_MAPPER.get(type);
+            try {
+                result.put(groupKey, new HashMap<>(trans.translationBatch(keys, groupKey.substring(index + 1))));
+            } catch (Exception e) {
+                // 批量失败时由 TranslationHandler 逐个翻译
+                log.warn("批量翻译失败 type: {}, 错误: {}", type, e.getMessage());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 分组键
+     */
+    public static String groupKey(Translation translation) {
+        return translation.type() + "#" + translation.other();
+    }
+
+    private void visit(Object value, int depth) {
+        if (value == null || depth > MAX_DEPTH) {
+            return;
+        }
+        if (value instanceof Collection<?> collection) {
+            collection.forEach(it -> visit(it, depth + 1));
+            return;
+        }
+        if (value instanceof Map<?, ?> map) {
+            map.values().forEach(it -> visit(it, depth + 1));
+            return;
+        }
+        if (value instanceof Object[] array) {
+            for (Object it : array) {
+                visit(it, depth + 1);
+            }
+            return;
+        }
+        if (!value.getClass().getName().startsWith(SCAN_PACKAGE) || !visited.add(value)) {
+            return;
+        }
+        ClassMeta meta = META.get(value.getClass());
+        for (TranslationField field : meta.translations) {
+            if (!TranslationHandler.TRANSLATION_MAPPER.containsKey(field.translation.type())) {
+                continue;
+            }
+            Object key = get(field.source, value);
+            if (key != null) {
+                keysMap.computeIfAbsent(groupKey(field.translation), k -> new LinkedHashSet<>()).add(key);
+            }
+        }
+        for (Field field : meta.nested) {
+            visit(get(field, value), depth + 1);
+        }
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private record TranslationField(Translation translation, Field source) {
+    }
+
+    private record ClassMeta(List<TranslationField> translations, List<Field> nested) {
+
+        static ClassMeta of(Class<?> type) {
+            Map<String, Field> fields = new LinkedHashMap<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                        fields.putIfAbsent(field.getName(), field);
+                    }
+                }
+            }
+            List<TranslationField> translations = new ArrayList<>();
+            List<Field> nested = new ArrayList<>();
+            for (Field field : fields.values()) {
+                Translation translation = field.getAnnotation(Translation.class);
+                if (translation != null) {
+                    Field source = StringUtils.isNotBlank(translation.mapper()) ? fields.get(translation.mapper()) : field;
+                    if (source != null) {
+                        translations.add(new TranslationField(translation, source));
+                    }
+                } else if (isContainer(field.getType())) {
+                    nested.add(field);
+                }
+            }
+            return new ClassMeta(translations, nested);
+        }
+
+        private static boolean isContainer(Class<?> type) {
+            return type == Object.class
+                || Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type)
+                || (type.isArray() && !type.getComponentType().isPrimitive())
+                || type.getName().startsWith(SCAN_PACKAGE);
+        }
+    }
+}
@@ -12,6 +12,8 @@ import com.ruoyi.common.core.utils.reflect.ReflectUtils;
 import com.ruoyi.common.translation.annotation.Translation;
 import com.ruoyi.common.translation.core.TranslationInterface;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.io.IOException;
 import java.util.Map;
@@ -46,13 +48,29 @@ public class TranslationHandler extends JsonSerializer<Object> implements Contex
                 gen.writeNull();
                 return;
             }
-            Object result = trans.translation(value, translation.other());
+            Map<Object, Object> batch = getBatchResult();
+            Object result = batch != null && batch.containsKey(value)
+                ? batch.get(value) : trans.translation(value, translation.other());
             gen.writeObject(result);
         } else {
             gen.writeObject(value);
         }
     }
 
+    /**
+     * 取 {@link TranslationResponseAdvice} 写出响应前批量翻译的结果
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> getBatchResult() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object attribute = attributes == null ? null
+            : attributes.getAttribute(TranslationResponseAdvice.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (attribute instanceof Map<?, ?> map) {
+            return ((Map<String, Map<Object, Object>>) map).get(TranslationCollector.groupKey(translation));
+        }
+        return null;
+    }
+
     @Override
     public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
         Translation translation = property.getAnnotation(Translation.class);
@@ -0,0 +1,45 @@
+package com.ruoyi.common.translation.core.handler;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 接口响应批量翻译
+ * <p>
+ * 只在控制器返回值写出前收集并批量翻译，结果放在请求属性中供 {@link TranslationHandler} 读取，
+ * 其他场景（如日志、缓存）使用同一个 ObjectMapper 序列化时不会遍历对象
+ *
+ * @author zcc
+ */
+@RestControllerAdvice
+public class TranslationResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * 批量翻译结果的请求属性名
+     */
+    public static final String ATTRIBUTE = TranslationResponseAdvice.class.getName();
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (body != null && attributes != null && !TranslationHandler.TRANSLATION_MAPPER.isEmpty()) {
+            attributes.setAttribute(ATTRIBUTE, TranslationCollector.resolve(body), RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+}
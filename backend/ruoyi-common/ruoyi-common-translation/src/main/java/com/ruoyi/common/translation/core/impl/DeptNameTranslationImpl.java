@@ -1,11 +1,16 @@
 package com.ruoyi.common.translation.core.impl;
 
+import cn.hutool.core.convert.Convert;
 import com.ruoyi.common.core.service.DeptService;
+import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.translation.annotation.TranslationType;
 import com.ruoyi.common.translation.constant.TransConstant;
 import com.ruoyi.common.translation.core.TranslationInterface;
 import lombok.AllArgsConstructor;
 
+import java.util.*;
+import java.util.stream.Collectors;
+
 /**
  * 部门翻译实现
  *
@@ -26,4 +31,27 @@ public class DeptNameTranslationImpl implements TranslationInterface<String> {
         }
         return null;
     }
+
+    @Override
+    public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+        Map<Object, List<Long>> idsMap = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            if (key instanceof String ids) {
+                idsMap.put(key, StringUtils.splitTo(ids, Convert::toLong));
+            } else if (key instanceof Long id) {
+                idsMap.put(key, List.of(id));
+            }
+        }
+        Set<Long> allIds = idsMap.values().stream().flatMap(List::stream).collect(Collectors.toSet());
+        Map<Long, String> values = deptService.selectDeptNamesByIds(allIds);
+        Map<Object, String> map = new HashMap<>(keys.size());
+        for (Object key : keys) {
+            List<Long> ids = idsMap.get(key);
+            map.put(key, ids == null ? null : ids.stream()
+                .map(values::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(StringUtils.SEPARATOR)));
+        }
+        return map;
+    }
 }
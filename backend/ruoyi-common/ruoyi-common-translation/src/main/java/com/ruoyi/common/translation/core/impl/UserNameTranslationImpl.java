@@ -6,6 +6,11 @@ import com.ruoyi.common.translation.constant.TransConstant;
 import com.ruoyi.common.translation.core.TranslationInterface;
 import lombok.AllArgsConstructor;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 用户名翻译实现
  *
@@ -24,4 +29,13 @@ public class UserNameTranslationImpl implements TranslationInterface<String> {
         }
         return null;
     }
+
+    @Override
+    public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+        List<Long> ids = keys.stream().filter(Long.class::isInstance).map(Long.class::cast).toList();
+        Map<Long, String> names = userService.selectUserNamesByIds(ids);
+        Map<Object, String> map = new HashMap<>(keys.size());
+        keys.forEach(key -> map.put(key, names.get(key)));
+        return map;
+    }
 }
@@ -0,0 +1,246 @@
+package com.ruoyi.common.translation.core.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.common.translation.annotation.Translation;
+import com.ruoyi.common.translation.core.TranslationInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 接口响应批量翻译
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("批量翻译")
+class TranslationBatchTest {
+
+    private static final String TYPE = "test_user_id_to_name";
+
+    private static final int ROWS = 1000;
+
+    private final CountingTranslation translation = new CountingTranslation();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        TranslationHandler.TRANSLATION_MAPPER.put(TYPE, translation);
+        objectMapper.setSerializerFactory(objectMapper.getSerializerFactory()
+            .withSerializerModifier(new TranslationBeanSerializerModifier()));
+        RequestContextHolder.setRequestAttributes(new MapRequestAttributes());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TranslationHandler.TRANSLATION_MAPPER.remove(TYPE);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("同一响应内同类型的键只批量翻译一次")
+    void resolveWholeResponseInOneBatch() {
+        Map<String, Map<Object, Object>> result = TranslationCollector.resolve(new Wrapper(rows(ROWS)));
+
+        assertEquals(1, translation.batchCalls.get());
+        assertEquals(0, translation.singleCalls.get());
+        // 行之间的用户ID有重复，只翻译去重后的键
+        assertEquals(ROWS / 2, translation.lastBatchSize);
+        Map<Object, Object> names = result.get(TYPE + "#");
+        assertEquals("user-7", names.get(7L));
+    }
+
+    @Test
+    @DisplayName("接口响应序列化时使用批量结果，不再逐个翻译")
+    void serializeResponseFromBatch() throws Exception {
+        Wrapper body = new Wrapper(rows(ROWS));
+        new TranslationResponseAdvice().beforeBodyWrite(body, null, null, null, null, null);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(body));
+
+        assertEquals(1, translation.batchCalls.get());
+        assertEquals(0, translation.singleCalls.get());
+        JsonNode data = json.get("data");
+        assertEquals(ROWS, data.size());
+        for (int i = 0; i < ROWS; i++) {
+            JsonNode row = data.get(i);
+            assertEquals("user-" + row.get("userId").asLong(), row.get("userName").asText());
+        }
+        // 嵌套对象中的字段同样使用批量结果
+        assertEquals("user-0", json.get("owner").get("userName").asText());
+    }
+
+    @Test
+    @DisplayName("非接口响应的序列化不遍历对象，逐个翻译")
+    void serializeOutsideResponseTranslatesOneByOne() throws Exception {
+        RequestContextHolder.resetRequestAttributes();
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(rows(3)));
+
+        assertEquals(0, translation.batchCalls.get());
+        assertEquals(3, translation.singleCalls.get());
+        assertEquals("user-" + json.get(2).get("userId").asLong(), json.get(2).get("userName").asText());
+    }
+
+    @Test
+    @DisplayName("批量翻译失败时逐个翻译")
+    void fallBackWhenBatchFails() throws Exception {
+        translation.failBatch = true;
+        List<Row> rows = rows(4);
+        new TranslationResponseAdvice().beforeBodyWrite(rows, null, null, null, null, null);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(rows));
+
+        assertEquals(1, translation.batchCalls.get());
+        assertEquals(4, translation.singleCalls.get());
+        assertEquals("user-1", json.get(3).get("userName").asText());
+    }
+
+    @Test
+    @DisplayName("值为空时写出 null，不参与翻译")
+    void writeNullForMissingKey() throws Exception {
+        Row row = new Row(null);
+        new TranslationResponseAdvice().beforeBodyWrite(List.of(row), null, null, null, null, null);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(row));
+
+        assertEquals(0, translation.batchCalls.get());
+        assertEquals(0, translation.singleCalls.get());
+        assertTrue(json.get("userName").isNull());
+    }
+
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row((long) (i % Math.max(count / 2, 1))));
+        }
+        return rows;
+    }
+
+    /**
+     * 按 user-ID 翻译，记录调用次数
+     */
+    private static class CountingTranslation implements TranslationInterface<String> {
+
+        private final AtomicInteger singleCalls = new AtomicInteger();
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        private volatile int lastBatchSize;
+        private volatile boolean failBatch;
+
+        @Override
+        public String translation(Object key, String other) {
+            singleCalls.incrementAndGet();
+            return "user-" + key;
+        }
+
+        @Override
+        public Map<Object, String> translationBatch(Collection<Object> keys, String other) {
+            batchCalls.incrementAndGet();
+            lastBatchSize = keys.size();
+            if (failBatch) {
+                throw new IllegalStateException("batch failed");
+            }
+            Map<Object, String> map = new HashMap<>(keys.size());
+            keys.forEach(key -> map.put(key, "user-" + key));
+            return map;
+        }
+    }
+
+    public static class Row {
+
+        private final Long userId;
+
+        @Translation(type = TYPE, mapper = "userId")
+        private String userName;
+
+        Row(Long userId) {
+            this.userId = userId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+    }
+
+    /**
+     * 模拟 R / TableDataInfo 这类包装对象
+     */
+    public static class Wrapper {
+
+        private final Object data;
+
+        private final Row owner = new Row(0L);
+
+        Wrapper(Object data) {
+            this.data = data;
+        }
+
+        public Object getData() {
+            return data;
+        }
+
+        public Row getOwner() {
+            return owner;
+        }
+    }
+
+    /**
+     * 只支持请求范围的属性
+     */
+    private static class MapRequestAttributes implements RequestAttributes {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "test";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.ruoyi.common.web.config.properties.XssProperties;
 import com.ruoyi.common.web.filter.RepeatableFilter;
 import com.ruoyi.common.web.filter.XssFilter;
 import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -39,14 +40,20 @@ public class FilterConfig {
         return registration;
     }
 
+    /**
+     * 默认排除流式读取请求体的导入接口，避免整个请求体被复制到内存
+     */
     @SuppressWarnings({"rawtypes", "unchecked"})
     @Bean
-    public FilterRegistrationBean someFilterRegistration() {
+    public FilterRegistrationBean someFilterRegistration(@Value("${repeatable.excludes:/crypto/market/import,/crypto/report/import}") String excludes) {
         FilterRegistrationBean registration = new FilterRegistrationBean();
         registration.setFilter(new RepeatableFilter());
         registration.addUrlPatterns("/*");
         registration.setName("repeatableFilter");
         registration.setOrder(FilterRegistrationBean.LOWEST_PRECEDENCE);
+        Map<String, String> initParameters = new HashMap<>();
+        initParameters.put("excludes", excludes);
+        registration.setInitParameters(initParameters);
         return registration;
     }
 
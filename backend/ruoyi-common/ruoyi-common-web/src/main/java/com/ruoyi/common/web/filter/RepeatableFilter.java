@@ -6,6 +6,8 @@ import org.springframework.http.MediaType;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Repeatable 过滤器
@@ -13,9 +15,17 @@ import java.io.IOException;
  * @author ruoyi
  */
 public class RepeatableFilter implements Filter {
+    /**
+     * 排除链接，请求体由接口自行流式读取，不缓存到内存
+     */
+    public List<String> excludes = new ArrayList<>();
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-
+        String tempExcludes = filterConfig.getInitParameter("excludes");
+        if (StringUtils.isNotEmpty(tempExcludes)) {
+            excludes.addAll(StringUtils.str2List(tempExcludes, StringUtils.SEPARATOR, true, true));
+        }
     }
 
     @Override
@@ -23,7 +33,8 @@ public class RepeatableFilter implements Filter {
         throws IOException, ServletException {
         ServletRequest requestWrapper = null;
         if (request instanceof HttpServletRequest
-            && StringUtils.startsWithIgnoreCase(request.getContentType(), MediaType.APPLICATION_JSON_VALUE)) {
+            && StringUtils.startsWithIgnoreCase(request.getContentType(), MediaType.APPLICATION_JSON_VALUE)
+            && !StringUtils.matches(((HttpServletRequest) request).getServletPath(), excludes)) {
             requestWrapper = new RepeatedlyRequestWrapper((HttpServletRequest) request, response);
         }
         if (null == requestWrapper) {
@@ -0,0 +1,66 @@
+package com.ruoyi.system.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 操作日志写入 配置属性
+ *
+ * @author zcc
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "oper-log")
+public class OperLogProperties {
+
+    /**
+     * 内存队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 单次批量写库的最大条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 队列未攒够一批时的最长等待时间，单位：毫秒
+     */
+    private long flushInterval = 1000;
+
+    /**
+     * 队列满时的处理策略
+     */
+    private OverflowPolicy overflow = OverflowPolicy.SPILL;
+
+    /**
+     * BLOCK 策略下的最长等待时间，单位：毫秒，超时后丢弃
+     */
+    private long blockTimeout = 1000;
+
+    /**
+     * SPILL 策略的本地溢出目录，关闭时未写完的日志也写入该目录
+     */
+    private String spillDir = "./data/spill/oper-log";
+
+    /**
+     * 关闭时等待队列写完的最长时间，单位：毫秒
+     */
+    private long shutdownTimeout = 10000;
+
+    public enum OverflowPolicy {
+        /**
+         * 调用线程等待队列空位，超时后丢弃
+         */
+        BLOCK,
+        /**
+         * 丢弃队列中最早的日志
+         */
+        DROP_OLDEST,
+        /**
+         * 写入本地溢出文件，队列空闲时再写库
+         */
+        SPILL
+    }
+}
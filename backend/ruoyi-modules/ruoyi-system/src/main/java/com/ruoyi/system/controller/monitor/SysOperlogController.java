@@ -17,8 +17,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 操作日志记录
  *
@@ -48,8 +46,7 @@ public class SysOperlogController extends BaseController {
     @SaCheckPermission("monitor:operlog:export")
     @PostMapping("/export")
     public void export(SysOperLogBo operLog, HttpServletResponse response) {
-        List<SysOperLogVo> list = operLogService.selectOperLogList(operLog);
-        ExcelUtil.exportExcel(list, "操作日志", SysOperLogVo.class, response);
+        ExcelUtil.exportExcelByBatch(last -> operLogService.selectOperLogBatchAfter(operLog, last), "操作日志", SysOperLogVo.class, response);
     }
 
     /**
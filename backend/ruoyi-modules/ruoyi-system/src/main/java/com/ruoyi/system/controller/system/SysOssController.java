@@ -15,6 +15,7 @@ import com.ruoyi.system.domain.bo.SysOssBo;
 import com.ruoyi.system.domain.vo.SysOssVo;
 import com.ruoyi.system.service.SysOssService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -89,8 +90,9 @@ public class SysOssController extends BaseController {
      */
     @SaCheckPermission("system:oss:download")
     @GetMapping("/download/{ossId}")
-    public void download(@PathVariable Long ossId, HttpServletResponse response) throws IOException {
-        sysSssService.download(ossId,response);
+    public void download(@PathVariable Long ossId, @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                         HttpServletResponse response) throws IOException {
+        sysSssService.download(ossId, range, response);
     }
 
     /**
@@ -26,6 +26,7 @@ import com.ruoyi.system.domain.entity.SysPost;
 import com.ruoyi.system.domain.entity.SysRole;
 import com.ruoyi.system.domain.vo.SysRoleVo;
 import com.ruoyi.system.domain.vo.SysUserExportVo;
+import com.ruoyi.system.domain.vo.SysUserImportErrorVo;
 import com.ruoyi.system.domain.vo.SysUserImportVo;
 import com.ruoyi.system.domain.vo.SysUserVo;
 import com.ruoyi.system.listener.SysUserImportListener;
@@ -89,11 +90,28 @@ public class SysUserController extends BaseController {
     @Log(title = "用户管理", businessType = BusinessType.IMPORT)
     @SaCheckPermission("system:user:import")
     @PostMapping(value = "/importData", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public R<Void> importData(@RequestPart("file") MultipartFile file, boolean updateSupport) throws Exception {
-        ExcelResult<SysUserImportVo> result = ExcelUtil.importExcel(file.getInputStream(), SysUserImportVo.class, new SysUserImportListener(updateSupport));
+    public R<String> importData(@RequestPart("file") MultipartFile file, boolean updateSupport) throws Exception {
+        SysUserImportListener listener = new SysUserImportListener(updateSupport);
+        ExcelResult<SysUserImportVo> result = ExcelUtil.importExcel(file.getInputStream(), SysUserImportVo.class, listener);
+        if (listener.getFailureNum() > 0) {
+            // 返回错误报告编号
+            return R.fail(result.getAnalysis(), listener.getReportId());
+        }
         return R.ok(result.getAnalysis());
     }
 
+    /**
+     * 下载导入错误报告
+     *
+     * @param reportId 导入失败时返回的错误报告编号
+     */
+    @SaCheckPermission("system:user:import")
+    @PostMapping("/importReport/{reportId}")
+    public void importReport(@PathVariable String reportId, HttpServletResponse response) {
+        List<SysUserImportErrorVo> list = SysUserImportListener.getReport(reportId);
+        ExcelUtil.exportExcel(list, "导入错误报告", SysUserImportErrorVo.class, response);
+    }
+
     /**
      * 获取导入模板
      */
@@ -0,0 +1,47 @@
+package com.ruoyi.system.domain.vo;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 用户导入错误报告VO
+ *
+ * @author zcc
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SysUserImportErrorVo implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Excel 行号，从1开始，含表头
+     */
+    @ExcelProperty(value = "行号")
+    private Integer rowNum;
+
+    /**
+     * 用户账号
+     */
+    @ExcelProperty(value = "登录名称")
+    private String userName;
+
+    /**
+     * 用户昵称
+     */
+    @ExcelProperty(value = "用户名称")
+    private String nickName;
+
+    /**
+     * 失败原因
+     */
+    @ExcelProperty(value = "失败原因")
+    private String reason;
+}
@@ -2,32 +2,52 @@ package com.ruoyi.system.listener;
 
 import cn.dev33.satoken.secure.BCrypt;
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.IdUtil;
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.event.AnalysisEventListener;
-import com.ruoyi.common.core.exception.ServiceException;
+import com.ruoyi.common.core.constant.GlobalConstants;
 import com.ruoyi.common.core.utils.SpringUtils;
+import com.ruoyi.common.core.utils.StreamUtils;
+import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.core.utils.ValidatorUtils;
 import com.ruoyi.common.excel.core.ExcelListener;
 import com.ruoyi.common.excel.core.ExcelResult;
+import com.ruoyi.common.redis.utils.RedisUtils;
 import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.system.domain.bo.SysUserBo;
+import com.ruoyi.system.domain.entity.SysUser;
+import com.ruoyi.system.domain.vo.SysUserImportErrorVo;
 import com.ruoyi.system.domain.vo.SysUserImportVo;
-import com.ruoyi.system.domain.vo.SysUserVo;
 import com.ruoyi.system.service.SysConfigService;
 import com.ruoyi.system.service.SysUserService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
 
 /**
  * 系统用户自定义导入
+ * <p>
+ * 每读满 {@link #BATCH_SIZE} 行处理一批：逐行校验，一次查询该批的账号、手机号码、邮箱占用情况，
+ * 新增和修改各批量写库一次，批量写库失败时逐条重试以定位失败行。
+ * 失败行按批写入 Redis 中的错误报告，导入结束后通过报告编号下载
  *
  * @author Lion Li
  */
 @Slf4j
 public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo> implements ExcelListener<SysUserImportVo> {
 
+    /**
+     * 导入错误报告 redis key
+     */
+    public static final String REPORT_KEY = GlobalConstants.GLOBAL_REDIS_KEY + "user_import_report:";
+
+    private static final Duration REPORT_TTL = Duration.ofHours(1);
+
+    private static final int BATCH_SIZE = 500;
+
     private final SysUserService userService;
 
     private final String password;
@@ -36,10 +56,20 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
 
     private final String operName;
 
-    private int successNum = 0;
+    private final String reportId = IdUtil.fastSimpleUUID();
+
+    private List<Row> rows = new ArrayList<>(BATCH_SIZE);
+
+    /**
+     * 已读取的账号、手机号码、邮箱，用于校验导入文件内重复
+     */
+    private final Set<String> userNames = new HashSet<>();
+    private final Set<String> phones = new HashSet<>();
+    private final Set<String> emails = new HashSet<>();
+
+    private int insertNum = 0;
+    private int updateNum = 0;
     private int failureNum = 0;
-    private final StringBuilder successMsg = new StringBuilder();
-    private final StringBuilder failureMsg = new StringBuilder();
 
     public SysUserImportListener(Boolean isUpdateSupport) {
         String initPassword = SpringUtils.getBean(SysConfigService.class).selectConfigByKey("sys.user.initPassword");
@@ -49,45 +79,178 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
         this.operName = LoginHelper.getUsername();
     }
 
+    /**
+     * 读取导入错误报告
+     *
+     * @param reportId 报告编号
+     */
+    public static List<SysUserImportErrorVo> getReport(String reportId) {
+        return RedisUtils.getCacheList(REPORT_KEY + reportId);
+    }
+
     @Override
     public void invoke(SysUserImportVo userVo, AnalysisContext context) {
-        SysUserVo sysUser = this.userService.selectUserByUserName(userVo.getUserName());
-        try {
-            // 验证是否存在这个用户
-            if (ObjectUtil.isNull(sysUser)) {
-                SysUserBo user = BeanUtil.toBean(userVo, SysUserBo.class);
-                ValidatorUtils.validate(user);
+        rows.add(new Row(context.readRowHolder().getRowIndex() + 1, userVo));
+        if (rows.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+    }
+
+    private void flush() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Row> batch = rows;
+        rows = new ArrayList<>(BATCH_SIZE);
+
+        // 在当前线程校验，校验消息使用请求的语言
+        batch.forEach(Row::validate);
+        for (Row row : batch) {
+            if (row.error == null) {
+                checkDuplicate(row);
+            }
+        }
+        List<Row> valid = StreamUtils.filter(batch, row -> row.error == null);
+
+        // 一次查询本批数据的账号、手机号码、邮箱占用情况
+        Map<String, SysUser> byUserName = new HashMap<>();
+        Map<String, Long> byPhone = new HashMap<>();
+        Map<String, Long> byEmail = new HashMap<>();
+        List<SysUser> exists = userService.selectUsersByUniqueKeys(
+            StreamUtils.toSet(valid, row -> row.user.getUserName()),
+            StreamUtils.toSet(StreamUtils.filter(valid, row -> StringUtils.isNotBlank(row.user.getPhonenumber())), row -> row.user.getPhonenumber()),
+            StreamUtils.toSet(StreamUtils.filter(valid, row -> StringUtils.isNotBlank(row.user.getEmail())), row -> row.user.getEmail()));
+        for (SysUser user : exists) {
+            byUserName.put(user.getUserName(), user);
+            if (StringUtils.isNotBlank(user.getPhonenumber())) {
+                byPhone.put(user.getPhonenumber(), user.getUserId());
+            }
+            if (StringUtils.isNotBlank(user.getEmail())) {
+                byEmail.put(user.getEmail(), user.getUserId());
+            }
+        }
+
+        List<Row> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+        for (Row row : valid) {
+            SysUserBo user = row.user;
+            SysUser exist = byUserName.get(user.getUserName());
+            Long userId = exist == null ? null : exist.getUserId();
+            if (exist != null && !isUpdateSupport) {
+                row.error = "账号 " + user.getUserName() + " 已存在";
+            } else if (exist != null && LoginHelper.isAdmin(userId)) {
+                row.error = "不允许操作超级管理员用户";
+            } else if (isOccupied(byPhone, user.getPhonenumber(), userId)) {
+                row.error = "手机号码 " + user.getPhonenumber() + " 已存在";
+            } else if (isOccupied(byEmail, user.getEmail(), userId)) {
+                row.error = "邮箱 " + user.getEmail() + " 已存在";
+            } else if (exist == null) {
                 user.setPassword(password);
                 user.setCreateBy(operName);
-                userService.insertUser(user);
-                successNum++;
-                successMsg.append("<br/>").append(successNum).append("、账号 ").append(user.getUserName()).append(" 导入成功");
-            } else if (isUpdateSupport) {
-                Long userId = sysUser.getUserId();
-                SysUserBo user = BeanUtil.toBean(userVo, SysUserBo.class);
+                inserts.add(row);
+            } else {
+                // 已按账号查到未删除的用户，即 checkUserDataScope 的校验
                 user.setUserId(userId);
-                ValidatorUtils.validate(user);
-                userService.checkUserAllowed(userId);
-                userService.checkUserDataScope(user.getUserId());
                 user.setUpdateBy(operName);
-                userService.updateUser(user);
-                successNum++;
-                successMsg.append("<br/>").append(successNum).append("、账号 ").append(user.getUserName()).append(" 更新成功");
+                updates.add(row);
+            }
+        }
+
+        write(inserts, true);
+        write(updates, false);
+        report(StreamUtils.filter(batch, row -> row.error != null));
+    }
+
+    /**
+     * 校验导入文件内账号、手机号码、邮箱是否重复
+     */
+    private void checkDuplicate(Row row) {
+        SysUserBo user = row.user;
+        String phone = user.getPhonenumber();
+        String email = user.getEmail();
+        if (userNames.contains(user.getUserName())) {
+            row.error = "账号 " + user.getUserName() + " 在导入文件中重复";
+        } else if (StringUtils.isNotBlank(phone) && phones.contains(phone)) {
+            row.error = "手机号码 " + phone + " 在导入文件中重复";
+        } else if (StringUtils.isNotBlank(email) && emails.contains(email)) {
+            row.error = "邮箱 " + email + " 在导入文件中重复";
+        } else {
+            userNames.add(user.getUserName());
+            if (StringUtils.isNotBlank(phone)) {
+                phones.add(phone);
+            }
+            if (StringUtils.isNotBlank(email)) {
+                emails.add(email);
+            }
+        }
+    }
+
+    private static boolean isOccupied(Map<String, Long> owners, String value, Long userId) {
+        if (StringUtils.isBlank(value)) {
+            return false;
+        }
+        Long owner = owners.get(value);
+        return owner != null && !owner.equals(userId);
+    }
+
+    private void write(List<Row> list, boolean insert) {
+        if (list.isEmpty()) {
+            return;
+        }
+        List<SysUserBo> users = StreamUtils.toList(list, row -> row.user);
+        try {
+            if (insert) {
+                userService.insertUserBatch(users);
+                insertNum += list.size();
             } else {
-                failureNum++;
-                failureMsg.append("<br/>").append(failureNum).append("、账号 ").append(sysUser.getUserName()).append(" 已存在");
+                userService.updateUserBatch(users);
+                updateNum += list.size();
             }
+            return;
         } catch (Exception e) {
-            failureNum++;
-            String msg = "<br/>" + failureNum + "、账号 " + userVo.getUserName() + " 导入失败：";
-            failureMsg.append(msg).append(e.getMessage());
-            log.error(msg, e);
+            log.error("用户批量导入失败，逐条重试: {}", e.getMessage());
+        }
+        for (Row row : list) {
+            try {
+                if (insert) {
+                    userService.insertUser(row.user);
+                    insertNum++;
+                } else {
+                    userService.updateUser(row.user);
+                    updateNum++;
+                }
+            } catch (Exception e) {
+                row.error = "导入失败：" + e.getMessage();
+                log.error("账号 {} 导入失败", row.user.getUserName(), e);
+            }
         }
     }
 
-    @Override
-    public void doAfterAllAnalysed(AnalysisContext context) {
+    private void report(List<Row> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        failureNum += failures.size();
+        String key = REPORT_KEY + reportId;
+        RedisUtils.setCacheList(key, StreamUtils.toList(failures, row ->
+            new SysUserImportErrorVo(row.rowNum, row.source.getUserName(), row.source.getNickName(), row.error)));
+        RedisUtils.expire(key, REPORT_TTL);
+    }
+
+    /**
+     * 错误报告编号，没有失败数据时报告不存在
+     */
+    public String getReportId() {
+        return reportId;
+    }
 
+    public int getFailureNum() {
+        return failureNum;
     }
 
     @Override
@@ -97,12 +260,11 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
             @Override
             public String getAnalysis() {
                 if (failureNum > 0) {
-                    failureMsg.insert(0, "很抱歉，导入失败！共 " + failureNum + " 条数据格式不正确，错误如下：");
-                    throw new ServiceException(failureMsg.toString());
-                } else {
-                    successMsg.insert(0, "恭喜您，数据已全部导入成功！共 " + successNum + " 条，数据如下：");
+                    return "导入完成，新增 " + insertNum + " 条，更新 " + updateNum + " 条，失败 " + failureNum
+                        + " 条，请下载错误报告查看失败原因";
                 }
-                return successMsg.toString();
+                return "恭喜您，数据已全部导入成功！共 " + (insertNum + updateNum) + " 条，其中新增 " + insertNum
+                    + " 条，更新 " + updateNum + " 条";
             }
 
             @Override
@@ -116,4 +278,29 @@ public class SysUserImportListener extends AnalysisEventListener<SysUserImportVo
             }
         };
     }
+
+    /**
+     * 导入的一行数据
+     */
+    private static class Row {
+
+        private final int rowNum;
+        private final SysUserImportVo source;
+        private SysUserBo user;
+        private String error;
+
+        Row(int rowNum, SysUserImportVo source) {
+            this.rowNum = rowNum;
+            this.source = source;
+        }
+
+        void validate() {
+            user = BeanUtil.toBean(source, SysUserBo.class);
+            try {
+                ValidatorUtils.validate(user);
+            } catch (ConstraintViolationException e) {
+                error = StreamUtils.join(e.getConstraintViolations(), ConstraintViolation::getMessage, ", ");
+            }
+        }
+    }
 }
@@ -0,0 +1,367 @@
+package com.ruoyi.system.log;
+
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.ruoyi.common.core.utils.ip.AddressUtils;
+import com.ruoyi.common.json.utils.JsonUtils;
+import com.ruoyi.system.config.properties.OperLogProperties;
+import com.ruoyi.system.config.properties.OperLogProperties.OverflowPolicy;
+import com.ruoyi.system.domain.entity.SysOperLog;
+import com.ruoyi.system.mapper.SysOperLogMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * 操作日志写入管道
+ * <p>
+ * 操作日志放入有界的无锁队列，由单个后台线程攒够一批或等待超时后查询操作地点并多行插入 sys_oper_log。
+ * 队列满时按配置阻塞、丢弃最早的日志或写入本地溢出文件，溢出文件在队列空闲时和下次启动时写库。
+ * 关闭时等待队列写完，超时未写完的日志写入溢出文件。
+ * 逐条重试仍失败的日志：数据本身不合法的写入 rejected 文件留待人工处理，其余（如数据库不可用）写入溢出文件稍后重放。
+ * 入队、写库、丢弃、溢出、失败数记录到 Micrometer 计数器 sys.oper.log（标签 event），队列长度为 sys.oper.log.queue
+ *
+ * @author zcc
+ */
+@Slf4j
+@Component
+public class OperLogPipeline {
+
+    public static final String COUNTER = "sys.oper.log";
+    public static final String QUEUE_GAUGE = "sys.oper.log.queue";
+
+    private static final String SPILL_FILE = "current.spill";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String REJECTED_FILE = "rejected.log";
+
+    private final SysOperLogMapper operLogMapper;
+    private final OperLogProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /**
+     * ConcurrentLinkedQueue 的 size() 需要遍历，长度单独计数，同时用于限制容量
+     */
+    private final Queue<SysOperLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Object spillLock = new Object();
+    private Path spillDir;
+    private BufferedWriter spillWriter;
+    /**
+     * 溢出文件中等待写库的条数
+     */
+    private final AtomicLong spillPending = new AtomicLong();
+
+    private Thread consumer;
+    private volatile boolean running;
+
+    public OperLogPipeline(SysOperLogMapper operLogMapper, OperLogProperties properties,
+                           ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.operLogMapper = operLogMapper;
+        this.properties = properties;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        spillDir = Paths.get(properties.getSpillDir());
+        Files.createDirectories(spillDir);
+        meterRegistryProvider.ifAvailable(this::bindMetrics);
+        running = true;
+        consumer = new Thread(this::consumeLoop, "oper-log-pipeline");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 超时未写完的日志写入溢出文件，下次启动时写库
+        List<SysOperLog> rest = new ArrayList<>();
+        SysOperLog operLog;
+        while ((operLog = poll()) != null) {
+            rest.add(operLog);
+        }
+        if (!rest.isEmpty()) {
+            log.warn("操作日志队列中还有{}条未写库，写入溢出文件", rest.size());
+            spill(rest);
+        }
+        synchronized (spillLock) {
+            closeSpillWriter();
+        }
+    }
+
+    /**
+     * 提交一条操作日志，不等待写库
+     */
+    public void submit(SysOperLog operLog) {
+        if (operLog.getOperId() == null) {
+            operLog.setOperId(IdWorker.getId());
+        }
+        if (tryOffer(operLog)) {
+            return;
+        }
+        OverflowPolicy policy = properties.getOverflow();
+        if (policy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getBlockTimeout());
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                if (tryOffer(operLog)) {
+                    return;
+                }
+            }
+            dropped.incrementAndGet();
+            log.warn("操作日志队列已满，等待超时丢弃: {}", operLog.getTitle());
+        } else if (policy == OverflowPolicy.DROP_OLDEST) {
+            while (!tryOffer(operLog)) {
+                if (poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        } else {
+            spill(List.of(operLog));
+        }
+    }
+
+    private boolean tryOffer(SysOperLog operLog) {
+        if (queueSize.incrementAndGet() > properties.getQueueCapacity()) {
+            queueSize.decrementAndGet();
+            return false;
+        }
+        queue.offer(operLog);
+        enqueued.incrementAndGet();
+        if (queueSize.get() >= properties.getBatchSize()) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private SysOperLog poll() {
+        SysOperLog operLog = queue.poll();
+        if (operLog != null) {
+            queueSize.decrementAndGet();
+        }
+        return operLog;
+    }
+
+    private void consumeLoop() {
+        replaySpill();
+        List<SysOperLog> batch = new ArrayList<>(properties.getBatchSize());
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushInterval());
+        while (running || queueSize.get() > 0) {
+            long deadline = System.nanoTime() + flushNanos;
+            // 攒够一批或超时后写库
+            while (running && queueSize.get() < properties.getBatchSize() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(this, deadline - System.nanoTime());
+            }
+            SysOperLog operLog;
+            while (batch.size() < properties.getBatchSize() && (operLog = poll()) != null) {
+                batch.add(operLog);
+            }
+            if (!batch.isEmpty()) {
+                List<SysOperLog> retry = write(batch);
+                if (!retry.isEmpty()) {
+                    spill(retry);
+                }
+                batch.clear();
+            } else if (running && spillPending.get() > 0) {
+                replaySpill();
+            }
+        }
+    }
+
+    /**
+     * 写库，批量失败时逐条重试
+     *
+     * @return 因数据库异常未写入、可以稍后重试的日志
+     */
+    private List<SysOperLog> write(List<SysOperLog> batch) {
+        batch.forEach(it -> {
+            if (it.getOperLocation() == null) {
+                it.setOperLocation(AddressUtils.getRealAddressByIP(it.getOperIp()));
+            }
+        });
+        try {
+            operLogMapper.insertBatchValues(batch);
+            written.addAndGet(batch.size());
+            return List.of();
+        } catch (Exception e) {
+            log.error("操作日志批量写库失败，逐条重试: {}", e.getMessage());
+        }
+        List<SysOperLog> retry = new ArrayList<>();
+        List<SysOperLog> rejected = new ArrayList<>();
+        for (SysOperLog operLog : batch) {
+            try {
+                operLogMapper.insertBatchValues(List.of(operLog));
+                written.incrementAndGet();
+            } catch (DuplicateKeyException e) {
+                // 重放时可能已经写入过
+                log.warn("操作日志已存在: {}", operLog.getOperId());
+            } catch (DataIntegrityViolationException e) {
+                rejected.add(operLog);
+                log.error("操作日志数据不合法: {}", JsonUtils.toJsonString(operLog), e);
+            } catch (Exception e) {
+                retry.add(operLog);
+                log.error("操作日志写库失败，稍后重试: {}", operLog.getOperId(), e);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            reject(rejected);
+        }
+        return retry;
+    }
+
+    /**
+     * 不合法的日志写入 rejected 文件，不再重试
+     */
+    private void reject(List<SysOperLog> list) {
+        failed.addAndGet(list.size());
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillDir.resolve(REJECTED_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (SysOperLog operLog : list) {
+                    writer.write(JsonUtils.toJsonString(operLog));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                log.error("操作日志写入 {} 失败，丢弃{}条", REJECTED_FILE, list.size(), e);
+            }
+        }
+    }
+
+    private void spill(List<SysOperLog> list) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter = Files.newBufferedWriter(spillDir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                for (SysOperLog operLog : list) {
+                    spillWriter.write(JsonUtils.toJsonString(operLog));
+                    spillWriter.newLine();
+                }
+                spillWriter.flush();
+                spilled.addAndGet(list.size());
+                spillPending.addAndGet(list.size());
+            } catch (IOException e) {
+                dropped.addAndGet(list.size());
+                log.error("操作日志写入溢出文件失败，丢弃{}条", list.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 把溢出文件切换为待重放文件后逐批写库，写完删除
+     */
+    private void replaySpill() {
+        Path current = spillDir.resolve(SPILL_FILE);
+        synchronized (spillLock) {
+            closeSpillWriter();
+            try {
+                if (Files.exists(current)) {
+                    Files.move(current, spillDir.resolve(System.currentTimeMillis() + REPLAY_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.error("切换操作日志溢出文件失败", e);
+                return;
+            }
+            spillPending.set(0);
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(spillDir)) {
+            files = stream.filter(it -> it.getFileName().toString().endsWith(REPLAY_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            log.error("读取操作日志溢出目录失败", e);
+            return;
+        }
+        for (Path file : files) {
+            List<SysOperLog> rows = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // 最后一行可能因进程崩溃而不完整
+                    if (line.isBlank() || !line.endsWith("}")) {
+                        continue;
+                    }
+                    rows.add(JsonUtils.parseObject(line, SysOperLog.class));
+                }
+                List<SysOperLog> retry = new ArrayList<>();
+                CollUtil.split(rows, properties.getBatchSize()).forEach(it -> retry.addAll(write(it)));
+                if (!retry.isEmpty()) {
+                    // 数据库仍不可用，保留未写入的部分，下次重放
+                    Files.write(file, retry.stream().map(JsonUtils::toJsonString).toList(), StandardCharsets.UTF_8);
+                    spillPending.addAndGet(retry.size());
+                    log.warn("操作日志溢出文件 {} 还有{}条未写库，稍后重试", file.getFileName(), retry.size());
+                    return;
+                }
+                Files.delete(file);
+                log.info("已写入操作日志溢出文件 {}，共{}条", file.getFileName(), rows.size());
+            } catch (IOException e) {
+                log.error("重放操作日志溢出文件失败 {}", file.getFileName(), e);
+            }
+        }
+    }
+
+    /**
+     * 调用方需持有 spillLock
+     */
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.error("关闭操作日志溢出文件失败", e);
+        }
+        spillWriter = null;
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Gauge.builder(QUEUE_GAUGE, queueSize, AtomicInteger::get).register(registry);
+        FunctionCounter.builder(COUNTER, enqueued, AtomicLong::get).tag("event", "enqueued").register(registry);
+        FunctionCounter.builder(COUNTER, written, AtomicLong::get).tag("event", "written").register(registry);
+        FunctionCounter.builder(COUNTER, dropped, AtomicLong::get).tag("event", "dropped").register(registry);
+        FunctionCounter.builder(COUNTER, spilled, AtomicLong::get).tag("event", "spilled").register(registry);
+        FunctionCounter.builder(COUNTER, failed, AtomicLong::get).tag("event", "failed").register(registry);
+    }
+}
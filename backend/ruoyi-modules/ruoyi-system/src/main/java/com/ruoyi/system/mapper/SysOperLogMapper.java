@@ -4,6 +4,8 @@ import com.ruoyi.common.mybatis.core.mapper.BaseMapperPlus;
 import com.ruoyi.system.domain.entity.SysOperLog;
 import com.ruoyi.system.domain.vo.SysOperLogVo;
 
+import java.util.List;
+
 /**
  * 操作日志 数据层
  *
@@ -11,4 +13,8 @@ import com.ruoyi.system.domain.vo.SysOperLogVo;
  */
 public interface SysOperLogMapper extends BaseMapperPlus<SysOperLog, SysOperLogVo> {
 
+    /**
+     * 多行插入，oper_id 已存在时忽略，重放溢出文件时不会重复
+     */
+    int insertBatchValues(List<SysOperLog> list);
 }
@@ -32,7 +32,11 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 部门管理 服务实现
@@ -142,6 +146,34 @@ public class SysDeptService implements DeptService {
         return String.join(StringUtils.SEPARATOR, list);
     }
 
+    /**
+     * 批量查询部门名称，先取 {@link #selectDeptById} 的缓存，未命中的一次查询
+     * <p>
+     * 缓存中的部门信息包含上级部门名称，未命中的只查名称，不回填缓存
+     */
+    @Override
+    public Map<Long, String> selectDeptNamesByIds(Collection<Long> deptIds) {
+        if (CollUtil.isEmpty(deptIds)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> map = new HashMap<>(deptIds.size());
+        List<Long> missIds = new ArrayList<>();
+        for (Long deptId : deptIds) {
+            SysDeptVo dept = CacheUtils.get(CacheNames.SYS_DEPT, deptId);
+            if (dept != null) {
+                map.put(deptId, dept.getDeptName());
+            } else {
+                missIds.add(deptId);
+            }
+        }
+        if (!missIds.isEmpty()) {
+            deptMapper.selectList(new LambdaQueryWrapper<SysDept>()
+                    .select(SysDept::getDeptId, SysDept::getDeptName).in(SysDept::getDeptId, missIds))
+                .forEach(dept -> map.put(dept.getDeptId(), dept.getDeptName()));
+        }
+        return map;
+    }
+
     /**
      * 根据ID查询所有子部门数（正常状态）
      *
@@ -7,15 +7,14 @@ import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.core.utils.StringUtils;
-import com.ruoyi.common.core.utils.ip.AddressUtils;
 import com.ruoyi.common.log.event.OperLogEvent;
 import com.ruoyi.system.domain.bo.SysOperLogBo;
 import com.ruoyi.system.domain.entity.SysOperLog;
 import com.ruoyi.system.domain.vo.SysOperLogVo;
+import com.ruoyi.system.log.OperLogPipeline;
 import com.ruoyi.system.mapper.SysOperLogMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -33,19 +32,19 @@ import java.util.Map;
 public class SysOperLogService {
 
     private final SysOperLogMapper operLogMapper;
+    private final OperLogPipeline operLogPipeline;
 
     /**
      * 操作日志记录
+     * 只放入写入管道，操作地点在管道线程中查询，批量写库
      *
      * @param operLogEvent 操作日志事件
      */
-    @Async
     @EventListener
     public void recordOper(OperLogEvent operLogEvent) {
-        SysOperLogBo operLog = MapstructUtils.convert(operLogEvent, SysOperLogBo.class);
-        // 远程查询操作地点
-        operLog.setOperLocation(AddressUtils.getRealAddressByIP(operLog.getOperIp()));
-        insertOperlog(operLog);
+        SysOperLog operLog = MapstructUtils.convert(operLogEvent, SysOperLog.class);
+        operLog.setOperTime(LocalDateTime.now());
+        operLogPipeline.submit(operLog);
     }
 
     public TableDataInfo<SysOperLogVo> selectPageOperLogList(SysOperLogBo operLog, PageQuery pageQuery) {
@@ -65,6 +64,14 @@ public class SysOperLogService {
             .like(StringUtils.isNotBlank(operLog.getOperName()), SysOperLog::getOperName, operLog.getOperName())
             .between(params.get("beginTime") != null && params.get("endTime") != null,
                 SysOperLog::getOperTime, params.get("beginTime"), params.get("endTime"));
+        if (pageQuery.isCursorMode()) {
+            Object[] cursor = pageQuery.decodeCursor(Long.class);
+            lqw.lt(cursor.length > 0, SysOperLog::getOperId, cursor.length > 0 ? cursor[0] : null)
+                .orderByDesc(SysOperLog::getOperId);
+            Page<SysOperLogVo> page = operLogMapper.selectVoPage(pageQuery.buildCursor(), lqw);
+            return TableDataInfo.buildCursor(page.getRecords(), pageQuery,
+                it -> new Object[]{it.getOperId()}, "sys_oper_log");
+        }
         if (StringUtils.isBlank(pageQuery.getOrderByColumn())) {
             pageQuery.setOrderByColumn("oper_id");
             pageQuery.setIsAsc("desc");
@@ -91,8 +98,26 @@ public class SysOperLogService {
      * @return 操作日志集合
      */
     public List<SysOperLogVo> selectOperLogList(SysOperLogBo operLog) {
+        return operLogMapper.selectVoList(buildQueryWrapper(operLog).orderByDesc(SysOperLog::getOperId));
+    }
+
+    /**
+     * 按操作日志ID倒序分批查询，用于导出
+     *
+     * @param operLog 操作日志对象
+     * @param last    上一批最后一行，首批为 null
+     * @return 操作日志集合
+     */
+    public List<SysOperLogVo> selectOperLogBatchAfter(SysOperLogBo operLog, SysOperLogVo last) {
+        LambdaQueryWrapper<SysOperLog> lqw = buildQueryWrapper(operLog)
+            .lt(last != null, SysOperLog::getOperId, last == null ? null : last.getOperId())
+            .orderByDesc(SysOperLog::getOperId);
+        return operLogMapper.selectVoPage(new Page<>(PageQuery.DEFAULT_PAGE_NUM, PageQuery.MAX_CURSOR_PAGE_SIZE, false), lqw).getRecords();
+    }
+
+    private LambdaQueryWrapper<SysOperLog> buildQueryWrapper(SysOperLogBo operLog) {
         Map<String, Object> params = operLog.getParams();
-        return operLogMapper.selectVoList(new LambdaQueryWrapper<SysOperLog>()
+        return new LambdaQueryWrapper<SysOperLog>()
             .like(StringUtils.isNotBlank(operLog.getOperIp()), SysOperLog::getOperIp, operLog.getOperIp())
             .like(StringUtils.isNotBlank(operLog.getTitle()), SysOperLog::getTitle, operLog.getTitle())
             .eq(operLog.getBusinessType() != null && operLog.getBusinessType() > 0,
@@ -106,8 +131,7 @@ public class SysOperLogService {
                 SysOperLog::getStatus, operLog.getStatus())
             .like(StringUtils.isNotBlank(operLog.getOperName()), SysOperLog::getOperName, operLog.getOperName())
             .between(params.get("beginTime") != null && params.get("endTime") != null,
-                SysOperLog::getOperTime, params.get("beginTime"), params.get("endTime"))
-            .orderByDesc(SysOperLog::getOperId));
+                SysOperLog::getOperTime, params.get("beginTime"), params.get("endTime"));
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.ruoyi.system.service;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.ObjectUtil;
@@ -13,6 +14,7 @@ import com.ruoyi.common.core.service.OssService;
 import com.ruoyi.common.core.exception.ServiceException;
 import com.ruoyi.common.core.utils.MapstructUtils;
 import com.ruoyi.common.core.utils.StreamUtils;
+import com.ruoyi.common.redis.utils.CacheUtils;
 import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.core.utils.file.FileUtils;
 import com.ruoyi.common.core.utils.SpringUtils;
@@ -27,6 +29,8 @@ import com.ruoyi.system.mapper.SysOssMapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -36,6 +40,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -89,6 +95,42 @@ public class SysOssService implements OssService {
         return String.join(StringUtils.SEPARATOR, list);
     }
 
+    /**
+     * 批量查询文件地址，先取 {@link #getById} 的缓存，未命中的一次查询并写入缓存
+     */
+    @Override
+    public Map<Long, String> selectUrlsByIds(Collection<Long> ossIds) {
+        if (CollUtil.isEmpty(ossIds)) {
+            return Collections.emptyMap();
+        }
+        List<SysOssVo> list = new ArrayList<>(ossIds.size());
+        List<Long> missIds = new ArrayList<>();
+        for (Long ossId : ossIds) {
+            SysOssVo vo = CacheUtils.get(CacheNames.SYS_OSS, ossId);
+            if (vo != null) {
+                list.add(vo);
+            } else {
+                missIds.add(ossId);
+            }
+        }
+        if (!missIds.isEmpty()) {
+            for (SysOssVo vo : ossMapper.selectVoBatchIds(missIds)) {
+                CacheUtils.put(CacheNames.SYS_OSS, vo.getOssId(), vo);
+                list.add(vo);
+            }
+        }
+        Map<Long, String> map = new HashMap<>(ossIds.size());
+        for (SysOssVo vo : list) {
+            try {
+                map.put(vo.getOssId(), this.matchingUrl(vo).getUrl());
+            } catch (Exception ignored) {
+                // 如果oss异常无法连接则将数据直接返回
+                map.put(vo.getOssId(), vo.getUrl());
+            }
+        }
+        return map;
+    }
+
     private LambdaQueryWrapper<SysOss> buildQueryWrapper(SysOssBo bo) {
         Map<String, Object> params = bo.getParams();
         LambdaQueryWrapper<SysOss> lqw = Wrappers.lambdaQuery();
@@ -108,30 +150,97 @@ public class SysOssService implements OssService {
         return ossMapper.selectVoById(ossId);
     }
 
-    public void download(Long ossId, HttpServletResponse response) throws IOException {
+    /**
+     * 下载文件，支持单个 Range 请求，长度取自文件元数据
+     *
+     * @param range 请求头 Range，为空或多段时返回全部内容
+     */
+    public void download(Long ossId, String range, HttpServletResponse response) throws IOException {
         SysOssVo sysOss = SpringUtils.getAopProxy(this).getById(ossId);
         if (ObjectUtil.isNull(sysOss)) {
             throw new ServiceException("文件数据不存在!");
         }
+        OssClient storage = OssFactory.instance(sysOss.getService());
+        long length;
+        try {
+            length = storage.getObjectMetadata(sysOss.getUrl()).getContentLength();
+        } catch (Exception e) {
+            throw new ServiceException(e.getMessage());
+        }
         FileUtils.setAttachmentResponseHeader(response, sysOss.getOriginalName());
         response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE + "; charset=UTF-8");
-        OssClient storage = OssFactory.instance(sysOss.getService());
-        try(InputStream inputStream = storage.getObjectContent(sysOss.getUrl())) {
-            int available = inputStream.available();
-            IoUtil.copy(inputStream, response.getOutputStream(), available);
-            response.setContentLength(available);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        long[] bytes = parseRange(range, length);
+        if (bytes != null && bytes.length == 0) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+        InputStream inputStream;
+        if (bytes == null) {
+            response.setContentLengthLong(length);
+            inputStream = storage.getObjectContent(sysOss.getUrl());
+        } else {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + bytes[0] + "-" + bytes[1] + "/" + length);
+            response.setContentLengthLong(bytes[1] - bytes[0] + 1);
+            inputStream = storage.getObjectContent(sysOss.getUrl(), bytes[0], bytes[1]);
+        }
+        try (inputStream) {
+            IoUtil.copy(inputStream, response.getOutputStream());
         } catch (Exception e) {
             throw new ServiceException(e.getMessage());
         }
     }
 
+    /**
+     * 解析单个字节范围
+     *
+     * @return 不需要分段或范围格式无效（按 RFC 9110 忽略）时返回 null，范围无法满足时返回空数组，否则返回 [起始, 结束]
+     */
+    static long[] parseRange(String range, long length) {
+        if (StringUtils.isBlank(range) || !range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int index = spec.indexOf('-');
+        if (index < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, index).trim();
+            String last = spec.substring(index + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N 表示最后 N 个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(length - suffix, 0);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    // bytes=5-3 格式无效，忽略 Range 返回完整内容
+                    return null;
+                }
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            return start > end || start >= length ? new long[0] : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     public SysOssVo upload(MultipartFile file) {
         String originalfileName = file.getOriginalFilename();
         String suffix = StringUtils.substring(originalfileName, originalfileName.lastIndexOf("."), originalfileName.length());
         OssClient storage = OssFactory.instance();
         UploadResult uploadResult;
-        try {
-            uploadResult = storage.uploadSuffix(file.getBytes(), suffix, file.getContentType());
+        try (InputStream inputStream = file.getInputStream()) {
+            uploadResult = storage.uploadSuffix(inputStream, file.getSize(), suffix, file.getContentType());
         } catch (IOException e) {
             throw new ServiceException(e.getMessage());
         }
@@ -19,6 +19,7 @@ import com.ruoyi.common.core.utils.StringUtils;
 import com.ruoyi.common.mybatis.core.page.PageQuery;
 import com.ruoyi.common.mybatis.core.page.TableDataInfo;
 import com.ruoyi.common.mybatis.helper.DataBaseHelper;
+import com.ruoyi.common.redis.utils.CacheUtils;
 import com.ruoyi.common.satoken.utils.LoginHelper;
 import com.ruoyi.system.domain.bo.SysUserBo;
 import com.ruoyi.system.domain.entity.*;
@@ -34,7 +35,11 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -273,6 +278,22 @@ public class SysUserService implements UserService {
         return rows;
     }
 
+    /**
+     * 批量新增用户信息，用于导入
+     *
+     * @param users 用户信息，新增后回填用户ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void insertUserBatch(List<SysUserBo> users) {
+        List<SysUser> list = MapstructUtils.convert(users, SysUser.class);
+        userMapper.insertBatch(list);
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setUserId(list.get(i).getUserId());
+        }
+        insertUserPostBatch(users);
+        insertUserRoleBatch(users);
+    }
+
     /**
      * 注册用户信息
      *
@@ -307,6 +328,43 @@ public class SysUserService implements UserService {
         return userMapper.updateById(sysUser);
     }
 
+    /**
+     * 批量修改用户信息，用于导入
+     *
+     * @param users 用户信息
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void updateUserBatch(List<SysUserBo> users) {
+        List<Long> userIds = StreamUtils.toList(users, SysUserBo::getUserId);
+        // 删除用户与角色关联
+        userRoleMapper.delete(new LambdaQueryWrapper<SysUserRole>().in(SysUserRole::getUserId, userIds));
+        insertUserRoleBatch(users);
+        // 删除用户与岗位关联
+        userPostMapper.delete(new LambdaQueryWrapper<SysUserPost>().in(SysUserPost::getUserId, userIds));
+        insertUserPostBatch(users);
+        userMapper.updateBatchById(MapstructUtils.convert(users, SysUser.class));
+    }
+
+    /**
+     * 查询账号、手机号码或邮箱已被占用的用户，用于导入时一次查询校验一批数据
+     *
+     * @param userNames 用户账号
+     * @param phones    手机号码
+     * @param emails    邮箱
+     * @return 只包含用户ID、账号、手机号码、邮箱
+     */
+    public List<SysUser> selectUsersByUniqueKeys(Collection<String> userNames, Collection<String> phones, Collection<String> emails) {
+        if (CollUtil.isEmpty(userNames) && CollUtil.isEmpty(phones) && CollUtil.isEmpty(emails)) {
+            return Collections.emptyList();
+        }
+        return userMapper.selectList(new LambdaQueryWrapper<SysUser>()
+            .select(SysUser::getUserId, SysUser::getUserName, SysUser::getPhonenumber, SysUser::getEmail)
+            .and(w -> w
+                .or(CollUtil.isNotEmpty(userNames), q -> q.in(SysUser::getUserName, userNames))
+                .or(CollUtil.isNotEmpty(phones), q -> q.in(SysUser::getPhonenumber, phones))
+                .or(CollUtil.isNotEmpty(emails), q -> q.in(SysUser::getEmail, emails))));
+    }
+
     /**
      * 用户授权角色
      *
@@ -426,6 +484,46 @@ public class SysUserService implements UserService {
         }
     }
 
+    /**
+     * 批量新增用户角色信息
+     *
+     * @param users 用户对象
+     */
+    private void insertUserRoleBatch(List<SysUserBo> users) {
+        List<SysUserRole> list = users.stream()
+            .filter(user -> ArrayUtil.isNotEmpty(user.getRoleIds()))
+            .flatMap(user -> Arrays.stream(user.getRoleIds()).map(roleId -> {
+                SysUserRole ur = new SysUserRole();
+                ur.setUserId(user.getUserId());
+                ur.setRoleId(roleId);
+                return ur;
+            }))
+            .toList();
+        if (!list.isEmpty()) {
+            userRoleMapper.insertBatch(list);
+        }
+    }
+
+    /**
+     * 批量新增用户岗位信息
+     *
+     * @param users 用户对象
+     */
+    private void insertUserPostBatch(List<SysUserBo> users) {
+        List<SysUserPost> list = users.stream()
+            .filter(user -> ArrayUtil.isNotEmpty(user.getPostIds()))
+            .flatMap(user -> Arrays.stream(user.getPostIds()).map(postId -> {
+                SysUserPost up = new SysUserPost();
+                up.setUserId(user.getUserId());
+                up.setPostId(postId);
+                return up;
+            }))
+            .toList();
+        if (!list.isEmpty()) {
+            userPostMapper.insertBatch(list);
+        }
+    }
+
     /**
      * 通过用户ID删除用户
      *
@@ -468,6 +566,35 @@ public class SysUserService implements UserService {
         return ObjectUtil.isNull(sysUser) ? null : sysUser.getUserName();
     }
 
+    /**
+     * 批量查询用户账户，先取 {@link #selectUserNameById} 的缓存，未命中的一次查询并写入缓存
+     */
+    @Override
+    public Map<Long, String> selectUserNamesByIds(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> map = new HashMap<>(userIds.size());
+        List<Long> missIds = new ArrayList<>();
+        for (Long userId : userIds) {
+            String userName = CacheUtils.get(CacheNames.SYS_USER_NAME, userId);
+            if (userName != null) {
+                map.put(userId, userName);
+            } else {
+                missIds.add(userId);
+            }
+        }
+        if (!missIds.isEmpty()) {
+            userMapper.selectList(new LambdaQueryWrapper<SysUser>()
+                    .select(SysUser::getUserId, SysUser::getUserName).in(SysUser::getUserId, missIds))
+                .forEach(user -> {
+                    CacheUtils.put(CacheNames.SYS_USER_NAME, user.getUserId(), user.getUserName());
+                    map.put(user.getUserId(), user.getUserName());
+                });
+        }
+        return map;
+    }
+
     public List<SysUserExportVo> selectUserExportList(SysUserBo user) {
         return userMapper.selectUserExportList(this.buildQueryWrapper(user));
     }
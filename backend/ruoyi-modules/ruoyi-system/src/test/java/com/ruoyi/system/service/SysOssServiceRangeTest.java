@@ -0,0 +1,58 @@
+package com.ruoyi.system.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下载 Range 请求头解析
+ *
+ * @author zcc
+ */
+@Tag("local")
+@Tag("dev")
+@Tag("prod")
+@DisplayName("OSS 下载 Range 解析")
+class SysOssServiceRangeTest {
+
+    private static final long LENGTH = 1000;
+
+    @Test
+    @DisplayName("没有 Range 或不支持的格式返回完整内容")
+    void ignoreMissingOrUnsupportedRange() {
+        assertNull(SysOssService.parseRange(null, LENGTH));
+        assertNull(SysOssService.parseRange("", LENGTH));
+        assertNull(SysOssService.parseRange("items=0-9", LENGTH));
+        assertNull(SysOssService.parseRange("bytes=0-9,20-29", LENGTH));
+        assertNull(SysOssService.parseRange("bytes=abc", LENGTH));
+        assertNull(SysOssService.parseRange("bytes=a-b", LENGTH));
+    }
+
+    @Test
+    @DisplayName("结束位置小于起始位置的范围按 RFC 9110 忽略")
+    void ignoreInvalidRange() {
+        assertNull(SysOssService.parseRange("bytes=5-3", LENGTH));
+    }
+
+    @Test
+    @DisplayName("解析起止范围、开放范围和后缀范围")
+    void parseSatisfiableRange() {
+        assertArrayEquals(new long[]{0, 99}, SysOssService.parseRange("bytes=0-99", LENGTH));
+        assertArrayEquals(new long[]{500, 999}, SysOssService.parseRange("bytes=500-", LENGTH));
+        assertArrayEquals(new long[]{900, 999}, SysOssService.parseRange("bytes=-100", LENGTH));
+        assertArrayEquals(new long[]{0, 999}, SysOssService.parseRange("bytes=-5000", LENGTH));
+        // 结束位置超出长度时截断
+        assertArrayEquals(new long[]{990, 999}, SysOssService.parseRange("bytes=990-5000", LENGTH));
+    }
+
+    @Test
+    @DisplayName("无法满足的范围返回空数组")
+    void rejectUnsatisfiableRange() {
+        assertEquals(0, SysOssService.parseRange("bytes=1000-", LENGTH).length);
+        assertEquals(0, SysOssService.parseRange("bytes=1000-1100", LENGTH).length);
+        assertEquals(0, SysOssService.parseRange("bytes=-0", LENGTH).length);
+        assertEquals(0, SysOssService.parseRange("bytes=0-", 0).length);
+    }
+}
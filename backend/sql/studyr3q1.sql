@@ -702,10 +702,34 @@ INSERT INTO `crypto_market_data` VALUES (673, '门罗币', '$477.822', '+3.07%',
 INSERT INTO `crypto_market_data` VALUES (674, 'Hyperliquid', '$25.1086', '+3.39%', '-14.24%', 1, '2025-12-22 15:11:09');
 INSERT INTO `crypto_market_data` VALUES (675, 'UNUS SED LEO', '$8.1982', '-1.82%', '-10.07%', 1, '2025-12-22 15:11:09');
 
+-- ----------------------------
+-- Table structure for crypto_market_candle
+-- ----------------------------
+DROP TABLE IF EXISTS `crypto_market_candle`;
+CREATE TABLE `crypto_market_candle`  (
+  `name` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '币种名称',
+  `period` char(2) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '周期：1m、1h、1d',
+  `open_time` datetime NOT NULL COMMENT '开盘时间',
+  `open` decimal(30, 10) NOT NULL COMMENT '开盘价',
+  `high` decimal(30, 10) NOT NULL COMMENT '最高价',
+  `low` decimal(30, 10) NOT NULL COMMENT '最低价',
+  `close` decimal(30, 10) NOT NULL COMMENT '收盘价',
+  `open_tick_time` datetime NOT NULL COMMENT '开盘价对应的行情时间',
+  `close_tick_time` datetime NOT NULL COMMENT '收盘价对应的行情时间',
+  `tick_count` int NOT NULL COMMENT '采样次数',
+  PRIMARY KEY (`name`, `period`, `open_time`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '加密货币行情K线表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for crypto_message
 -- ----------------------------
+-- ft_title_content 使用 ngram 分词，InnoDB 默认停用词表（a、i、the 等）会使包含这些字母的分词全部不入索引，
+-- 建索引时在当前会话关闭停用词；已有库可执行：
+--   SET SESSION innodb_ft_enable_stopword = OFF;
+--   ALTER TABLE `crypto_message` ADD FULLTEXT INDEX `ft_title_content`(`title`, `content`) WITH PARSER `ngram`;
 DROP TABLE IF EXISTS `crypto_message`;
+SET @OLD_FT_STOPWORD = @@SESSION.innodb_ft_enable_stopword;
+SET SESSION innodb_ft_enable_stopword = OFF;
 CREATE TABLE `crypto_message`  (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `title` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '消息标题',
@@ -718,8 +742,10 @@ CREATE TABLE `crypto_message`  (
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_coin`(`coin` ASC) USING BTREE,
   INDEX `idx_sentiment`(`sentiment` ASC) USING BTREE,
-  INDEX `idx_publish_time`(`publish_time` ASC) USING BTREE
+  INDEX `idx_publish_time`(`publish_time` ASC) USING BTREE,
+  FULLTEXT INDEX `ft_title_content`(`title`, `content`) WITH PARSER `ngram`
 ) ENGINE = InnoDB AUTO_INCREMENT = 75 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '加密货币消息表' ROW_FORMAT = DYNAMIC;
+SET SESSION innodb_ft_enable_stopword = @OLD_FT_STOPWORD;
 
 -- ----------------------------
 -- Records of crypto_message
@@ -782,7 +808,8 @@ CREATE TABLE `crypto_portfolio_history`  (
   `amount` decimal(15, 8) NOT NULL DEFAULT 0.00000000 COMMENT '历史资产数量',
   `usd_value` decimal(15, 2) NOT NULL DEFAULT 0.00 COMMENT '历史美元价值',
   `snapshot_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '快照时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_portfolio_snapshot`(`portfolio_id` ASC, `snapshot_time` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 13 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -804,6 +831,14 @@ INSERT INTO `crypto_portfolio_history` VALUES (12, 1, '测试七天历史持仓'
 -- ----------------------------
 -- Table structure for crypto_report
 -- ----------------------------
+-- latest_review_id 至 review_time 为最新审核的冗余字段，已有库先执行以下语句，启动时自动从 crypto_report_review 回填：
+--   ALTER TABLE `crypto_report`
+--     ADD COLUMN `latest_review_id` bigint NULL DEFAULT NULL COMMENT '最新审核ID',
+--     ADD COLUMN `review_status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '待审' COMMENT '最新审核状态：待审/已通过/已驳回',
+--     ADD COLUMN `review_confidence` decimal(5, 2) NULL DEFAULT NULL COMMENT '最新审核重合度（百分比）',
+--     ADD COLUMN `review_expected_return` decimal(6, 2) NULL DEFAULT NULL COMMENT '最新审核预期收益（百分比）',
+--     ADD COLUMN `review_time` datetime NULL DEFAULT NULL COMMENT '最新审核时间',
+--     ADD INDEX `idx_user_review_status`(`user_id`, `review_status`, `generation_time`);
 DROP TABLE IF EXISTS `crypto_report`;
 CREATE TABLE `crypto_report`  (
   `id` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '报告ID',
@@ -814,17 +849,23 @@ CREATE TABLE `crypto_report`  (
   `user_id` bigint NOT NULL COMMENT '用户ID',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `latest_review_id` bigint NULL DEFAULT NULL COMMENT '最新审核ID',
+  `review_status` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '待审' COMMENT '最新审核状态：待审/已通过/已驳回',
+  `review_confidence` decimal(5, 2) NULL DEFAULT NULL COMMENT '最新审核重合度（百分比）',
+  `review_expected_return` decimal(6, 2) NULL DEFAULT NULL COMMENT '最新审核预期收益（百分比）',
+  `review_time` datetime NULL DEFAULT NULL COMMENT '最新审核时间',
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_user_id`(`user_id` ASC) USING BTREE,
-  INDEX `idx_generation_time`(`generation_time` ASC) USING BTREE
+  INDEX `idx_generation_time`(`generation_time` ASC) USING BTREE,
+  INDEX `idx_user_review_status`(`user_id` ASC, `review_status` ASC, `generation_time` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '加密投资建议报告表' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of crypto_report
 -- ----------------------------
-INSERT INTO `crypto_report` VALUES ('report_20230925_01', '2023-09-25 15:30:00', 'BTC,ETH', '持仓维持', '当前市场环境下，BTC和ETH的持仓表现稳定，建议维持现有持仓。', 1, NULL, NULL);
-INSERT INTO `crypto_report` VALUES ('report_20230925_02', '2023-09-25 15:30:00', 'DOGE', '减持', 'DOGE近期表现不佳，建议适当减持。', 1, NULL, NULL);
-INSERT INTO `crypto_report` VALUES ('report_20230925_03', '2023-09-25 15:30:00', 'SHIB', '增持', 'SHIB近期表现相对较好，建议适量增持。', 1, NULL, NULL);
+INSERT INTO `crypto_report` VALUES ('report_20230925_01', '2023-09-25 15:30:00', 'BTC,ETH', '持仓维持', '当前市场环境下，BTC和ETH的持仓表现稳定，建议维持现有持仓。', 1, NULL, NULL, NULL, '待审', NULL, NULL, NULL);
+INSERT INTO `crypto_report` VALUES ('report_20230925_02', '2023-09-25 15:30:00', 'DOGE', '减持', 'DOGE近期表现不佳，建议适当减持。', 1, NULL, NULL, NULL, '待审', NULL, NULL, NULL);
+INSERT INTO `crypto_report` VALUES ('report_20230925_03', '2023-09-25 15:30:00', 'SHIB', '增持', 'SHIB近期表现相对较好，建议适量增持。', 1, NULL, NULL, 3, '已通过', NULL, NULL, '2025-12-22 15:09:47');
 
 -- ----------------------------
 -- Table structure for crypto_report_review
@@ -1525,7 +1566,8 @@ CREATE TABLE `sys_oper_log`  (
   `json_result` varchar(2000) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
   `status` int NULL DEFAULT NULL,
   `error_msg` varchar(2000) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
-  `oper_time` datetime NULL DEFAULT NULL
+  `oper_time` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`oper_id`) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -2524,6 +2566,11 @@ INSERT INTO `wms_check_order_detail` VALUES (1828633046706495493, 18286330463793
 -- ----------------------------
 -- Table structure for wms_inventory
 -- ----------------------------
+-- area_id 可为空，MySQL 唯一索引中 NULL 互不相等，唯一索引建在非空的生成列 area_key 上。
+-- 已有库先合并 area_id 为空的重复行，再执行：
+--   ALTER TABLE `wms_inventory` DROP INDEX `uk_warehouse_area_sku`,
+--     ADD COLUMN `area_key` bigint GENERATED ALWAYS AS (ifnull(`area_id`, 0)) VIRTUAL NOT NULL COMMENT '库区，未分库区为0，用于唯一索引',
+--     ADD UNIQUE INDEX `uk_warehouse_area_sku`(`warehouse_id`, `area_key`, `sku_id`);
 DROP TABLE IF EXISTS `wms_inventory`;
 CREATE TABLE `wms_inventory`  (
   `id` bigint NOT NULL,
@@ -2535,32 +2582,35 @@ CREATE TABLE `wms_inventory`  (
   `create_by` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
   `create_time` datetime(3) NULL DEFAULT NULL,
   `update_by` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
-  `update_time` datetime(3) NULL DEFAULT NULL
+  `update_time` datetime(3) NULL DEFAULT NULL,
+  `area_key` bigint GENERATED ALWAYS AS (ifnull(`area_id`, 0)) VIRTUAL NOT NULL COMMENT '库区，未分库区为0，用于唯一索引',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_warehouse_area_sku`(`warehouse_id` ASC, `area_key` ASC, `sku_id` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of wms_inventory
 -- ----------------------------
-INSERT INTO `wms_inventory` VALUES (1828410752281288706, 1828408796968030210, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.229', 'admin', '2024-08-27 20:34:28.229');
-INSERT INTO `wms_inventory` VALUES (1828410752285483010, 1828408796968030212, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.231', 'admin', '2024-08-27 20:34:28.231');
-INSERT INTO `wms_inventory` VALUES (1828410752285483011, 1828408796968030211, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.231', 'admin', '2024-08-27 20:34:28.231');
-INSERT INTO `wms_inventory` VALUES (1828631499272560641, 1828408796968030212, 1828364459110469633, 1828364518342430721, 2.00, NULL, 'admin', '2024-08-28 11:11:38.423', 'admin', '2024-08-28 11:16:18.237');
-INSERT INTO `wms_inventory` VALUES (1828631499272560642, 1828408796968030211, 1828364459110469633, 1828364518342430721, 1.00, NULL, 'admin', '2024-08-28 11:11:38.424', 'admin', '2024-08-28 11:19:20.733');
-INSERT INTO `wms_inventory` VALUES (1828631499272560643, 1828408796968030210, 1828364459110469633, 1828364518342430721, 0.00, NULL, 'admin', '2024-08-28 11:11:38.425', 'admin', '2024-08-28 11:19:20.734');
-INSERT INTO `wms_inventory` VALUES (1828633047683768322, 1828408321522700289, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-28 11:17:47.585', 'admin', '2024-08-28 14:35:26.915');
-INSERT INTO `wms_inventory` VALUES (1828682789792980994, 1828408321522700289, 1828364459110469633, 1828364518342430721, 1.00, NULL, 'admin', '2024-08-28 14:35:27.039', 'admin', '2024-08-28 14:35:27.039');
-INSERT INTO `wms_inventory` VALUES (1829399582966738945, 1829398193024724993, 1828364740028174337, 1829397742493560833, 99.00, NULL, 'admin', '2024-08-30 14:03:43.850', 'kucun', '2024-08-30 14:30:23.390');
-INSERT INTO `wms_inventory` VALUES (1829399582966738946, 1829398193024724994, 1828364740028174337, 1829397742493560833, 100.00, NULL, 'admin', '2024-08-30 14:03:43.851', 'kucun', '2024-08-30 14:30:23.391');
-INSERT INTO `wms_inventory` VALUES (1829399582966738947, 1829399118304964610, 1828364740028174337, 1829397566185992193, 97.00, NULL, 'admin', '2024-08-30 14:03:43.851', 'kucun', '2024-08-30 15:20:29.232');
-INSERT INTO `wms_inventory` VALUES (1829399582966738948, 1829398702011904001, 1828364740028174337, 1829397661719654401, 99.00, NULL, 'admin', '2024-08-30 14:03:43.852', 'kucun', '2024-08-30 14:30:23.391');
-INSERT INTO `wms_inventory` VALUES (1829399582966738949, 1829398702011904002, 1828364740028174337, 1829397661719654401, 99.00, NULL, 'admin', '2024-08-30 14:03:43.852', 'kucun', '2024-08-30 14:30:23.392');
-INSERT INTO `wms_inventory` VALUES (1829399583033847810, 1829398333903007746, 1828364740028174337, 1829397707726974978, 99.00, NULL, 'admin', '2024-08-30 14:03:43.854', 'kucun', '2024-08-30 14:30:23.392');
-INSERT INTO `wms_inventory` VALUES (1829399583033847811, 1829398333903007745, 1828364740028174337, 1829397707726974978, 98.00, NULL, 'admin', '2024-08-30 14:03:43.854', 'kucun', '2024-08-30 14:30:23.393');
-INSERT INTO `wms_inventory` VALUES (1829399583033847812, 1829398492779048963, 1828364740028174337, 1829397621378838530, 98.00, NULL, 'admin', '2024-08-30 14:03:43.855', 'kucun', '2024-08-30 14:30:23.393');
-INSERT INTO `wms_inventory` VALUES (1829399583033847813, 1829399118304964609, 1828364740028174337, 1829397566185992193, 97.00, NULL, 'admin', '2024-08-30 14:03:43.856', 'kucun', '2024-08-30 15:20:29.232');
-INSERT INTO `wms_inventory` VALUES (1829399583033847814, 1829398492779048962, 1828364740028174337, 1829397621378838530, 98.00, NULL, 'admin', '2024-08-30 14:03:43.856', 'kucun', '2024-08-30 14:30:23.394');
-INSERT INTO `wms_inventory` VALUES (1829418900177743873, 1829399118304964609, 1828364740028174337, 1829397621378838530, 1.00, NULL, 'kucun', '2024-08-30 15:20:29.435', 'kucun', '2024-08-30 15:20:29.435');
-INSERT INTO `wms_inventory` VALUES (1829418900244852737, 1829399118304964610, 1828364740028174337, 1829397621378838530, 1.00, NULL, 'kucun', '2024-08-30 15:20:29.436', 'kucun', '2024-08-30 15:20:29.436');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828410752281288706, 1828408796968030210, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.229', 'admin', '2024-08-27 20:34:28.229');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828410752285483010, 1828408796968030212, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.231', 'admin', '2024-08-27 20:34:28.231');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828410752285483011, 1828408796968030211, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-27 20:34:28.231', 'admin', '2024-08-27 20:34:28.231');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828631499272560641, 1828408796968030212, 1828364459110469633, 1828364518342430721, 2.00, NULL, 'admin', '2024-08-28 11:11:38.423', 'admin', '2024-08-28 11:16:18.237');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828631499272560642, 1828408796968030211, 1828364459110469633, 1828364518342430721, 1.00, NULL, 'admin', '2024-08-28 11:11:38.424', 'admin', '2024-08-28 11:19:20.733');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828631499272560643, 1828408796968030210, 1828364459110469633, 1828364518342430721, 0.00, NULL, 'admin', '2024-08-28 11:11:38.425', 'admin', '2024-08-28 11:19:20.734');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828633047683768322, 1828408321522700289, 1828364609002311682, 1828364666585911297, 1.00, NULL, 'admin', '2024-08-28 11:17:47.585', 'admin', '2024-08-28 14:35:26.915');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1828682789792980994, 1828408321522700289, 1828364459110469633, 1828364518342430721, 1.00, NULL, 'admin', '2024-08-28 14:35:27.039', 'admin', '2024-08-28 14:35:27.039');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399582966738945, 1829398193024724993, 1828364740028174337, 1829397742493560833, 99.00, NULL, 'admin', '2024-08-30 14:03:43.850', 'kucun', '2024-08-30 14:30:23.390');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399582966738946, 1829398193024724994, 1828364740028174337, 1829397742493560833, 100.00, NULL, 'admin', '2024-08-30 14:03:43.851', 'kucun', '2024-08-30 14:30:23.391');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399582966738947, 1829399118304964610, 1828364740028174337, 1829397566185992193, 97.00, NULL, 'admin', '2024-08-30 14:03:43.851', 'kucun', '2024-08-30 15:20:29.232');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399582966738948, 1829398702011904001, 1828364740028174337, 1829397661719654401, 99.00, NULL, 'admin', '2024-08-30 14:03:43.852', 'kucun', '2024-08-30 14:30:23.391');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399582966738949, 1829398702011904002, 1828364740028174337, 1829397661719654401, 99.00, NULL, 'admin', '2024-08-30 14:03:43.852', 'kucun', '2024-08-30 14:30:23.392');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399583033847810, 1829398333903007746, 1828364740028174337, 1829397707726974978, 99.00, NULL, 'admin', '2024-08-30 14:03:43.854', 'kucun', '2024-08-30 14:30:23.392');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399583033847811, 1829398333903007745, 1828364740028174337, 1829397707726974978, 98.00, NULL, 'admin', '2024-08-30 14:03:43.854', 'kucun', '2024-08-30 14:30:23.393');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399583033847812, 1829398492779048963, 1828364740028174337, 1829397621378838530, 98.00, NULL, 'admin', '2024-08-30 14:03:43.855', 'kucun', '2024-08-30 14:30:23.393');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399583033847813, 1829399118304964609, 1828364740028174337, 1829397566185992193, 97.00, NULL, 'admin', '2024-08-30 14:03:43.856', 'kucun', '2024-08-30 15:20:29.232');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829399583033847814, 1829398492779048962, 1828364740028174337, 1829397621378838530, 98.00, NULL, 'admin', '2024-08-30 14:03:43.856', 'kucun', '2024-08-30 14:30:23.394');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829418900177743873, 1829399118304964609, 1828364740028174337, 1829397621378838530, 1.00, NULL, 'kucun', '2024-08-30 15:20:29.435', 'kucun', '2024-08-30 15:20:29.435');
+INSERT INTO `wms_inventory` (`id`, `sku_id`, `warehouse_id`, `area_id`, `quantity`, `remark`, `create_by`, `create_time`, `update_by`, `update_time`) VALUES (1829418900244852737, 1829399118304964610, 1828364740028174337, 1829397621378838530, 1.00, NULL, 'kucun', '2024-08-30 15:20:29.436', 'kucun', '2024-08-30 15:20:29.436');
 
 -- ----------------------------
 -- Table structure for wms_inventory_detail
@@ -2585,7 +2635,9 @@ CREATE TABLE `wms_inventory_detail`  (
   `create_by` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
   `create_time` datetime(3) NULL DEFAULT NULL,
   `update_by` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
-  `update_time` datetime(3) NULL DEFAULT NULL
+  `update_time` datetime(3) NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_place_sku`(`warehouse_id` ASC, `area_id` ASC, `sku_id` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -2615,6 +2667,10 @@ INSERT INTO `wms_inventory_detail` VALUES (1829418900894969859, 1829418487672139
 -- ----------------------------
 -- Table structure for wms_inventory_history
 -- ----------------------------
+-- uk_order_line 使预写日志重放时 insert ignore 不会重复写入流水，已有库执行（历史数据 line_no 为空，不影响建索引）：
+--   ALTER TABLE `wms_inventory_history`
+--     ADD COLUMN `line_no` int NULL DEFAULT NULL COMMENT '单据内行号' AFTER `order_type`,
+--     ADD UNIQUE INDEX `uk_order_line`(`order_id`, `line_no`);
 DROP TABLE IF EXISTS `wms_inventory_history`;
 CREATE TABLE `wms_inventory_history`  (
   `id` bigint NOT NULL,
@@ -2630,53 +2686,57 @@ CREATE TABLE `wms_inventory_history`  (
   `order_id` bigint NULL DEFAULT NULL,
   `order_no` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NULL DEFAULT NULL,
   `order_type` int NULL DEFAULT NULL,
-  `create_time` datetime(3) NULL DEFAULT NULL
+  `line_no` int NULL DEFAULT NULL COMMENT '单据内行号',
+  `create_time` datetime(3) NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_order_line`(`order_id` ASC, `line_no` ASC) USING BTREE,
+  INDEX `idx_create_time`(`create_time` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of wms_inventory_history
 -- ----------------------------
-INSERT INTO `wms_inventory_history` VALUES (1828410752604250113, 1828364609002311682, 1828364666585911297, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, '2024-08-27 20:34:28.311');
-INSERT INTO `wms_inventory_history` VALUES (1828410752604250114, 1828364609002311682, 1828364666585911297, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, '2024-08-27 20:34:28.312');
-INSERT INTO `wms_inventory_history` VALUES (1828410752604250115, 1828364609002311682, 1828364666585911297, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, '2024-08-27 20:34:28.313');
-INSERT INTO `wms_inventory_history` VALUES (1828631500056895489, 1828364459110469633, 1828364518342430721, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828631500056895490, 1828364459110469633, 1828364518342430721, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828631500056895491, 1828364459110469633, 1828364518342430721, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828632674210357249, 1828364459110469633, 1828364518342430721, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828632674210357250, 1828364459110469633, 1828364518342430721, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828632674210357251, 1828364459110469633, 1828364518342430721, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, '2024-08-28 11:11:22.000');
-INSERT INTO `wms_inventory_history` VALUES (1828633048333885442, 1828364609002311682, 1828364666585911297, 1828408321522700289, 2.00, NULL, NULL, NULL, NULL, NULL, NULL, 'PK08283199', 4, '2024-08-28 11:17:34.000');
-INSERT INTO `wms_inventory_history` VALUES (1828633439272378369, 1828364459110469633, 1828364518342430721, 1828408796968030210, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, '2024-08-28 11:19:20.946');
-INSERT INTO `wms_inventory_history` VALUES (1828633439272378370, 1828364459110469633, 1828364518342430721, 1828408796968030210, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, '2024-08-28 11:19:20.946');
-INSERT INTO `wms_inventory_history` VALUES (1828633439272378371, 1828364459110469633, 1828364518342430721, 1828408796968030211, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, '2024-08-28 11:19:20.947');
-INSERT INTO `wms_inventory_history` VALUES (1828682790845751297, 1828364609002311682, 1828364666585911297, 1828408321522700289, -1.00, NULL, NULL, NULL, NULL, NULL, 1828682788358529025, 'YK08281599', 3, '2024-08-28 14:35:27.279');
-INSERT INTO `wms_inventory_history` VALUES (1828682790845751298, 1828364459110469633, 1828364518342430721, 1828408321522700289, 1.00, NULL, NULL, NULL, NULL, NULL, 1828682788358529025, 'YK08281599', 3, '2024-08-28 14:35:27.280');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918082, 1828364740028174337, 1829397566185992193, 1829399118304964609, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.957');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918083, 1828364740028174337, 1829397566185992193, 1829399118304964610, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.957');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918084, 1828364740028174337, 1829397661719654401, 1829398702011904001, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.957');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918085, 1828364740028174337, 1829397661719654401, 1829398702011904002, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.958');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918086, 1828364740028174337, 1829397621378838530, 1829398492779048962, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.958');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918087, 1828364740028174337, 1829397621378838530, 1829398492779048963, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.959');
-INSERT INTO `wms_inventory_history` VALUES (1829399583423918088, 1828364740028174337, 1829397707726974978, 1829398333903007745, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.960');
-INSERT INTO `wms_inventory_history` VALUES (1829399583486832642, 1828364740028174337, 1829397707726974978, 1829398333903007746, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.963');
-INSERT INTO `wms_inventory_history` VALUES (1829399583486832643, 1828364740028174337, 1829397742493560833, 1829398193024724993, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.963');
-INSERT INTO `wms_inventory_history` VALUES (1829399583486832644, 1828364740028174337, 1829397742493560833, 1829398193024724994, 101.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, '2024-08-30 14:03:43.964');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799042, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.691');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799043, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.692');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799044, 1828364740028174337, 1829397621378838530, 1829398492779048962, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.692');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799045, 1828364740028174337, 1829397621378838530, 1829398492779048963, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.693');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799046, 1828364740028174337, 1829397661719654401, 1829398702011904001, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.693');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799047, 1828364740028174337, 1829397661719654401, 1829398702011904002, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.695');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799048, 1828364740028174337, 1829397707726974978, 1829398333903007745, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.696');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799049, 1828364740028174337, 1829397707726974978, 1829398333903007746, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.697');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799050, 1828364740028174337, 1829397742493560833, 1829398193024724993, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.697');
-INSERT INTO `wms_inventory_history` VALUES (1829406293219799051, 1828364740028174337, 1829397742493560833, 1829398193024724994, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, '2024-08-30 14:30:23.698');
-INSERT INTO `wms_inventory_history` VALUES (1829407249542082561, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829407217174638593, 'CK08304574', 2, '2024-08-30 14:34:11.704');
-INSERT INTO `wms_inventory_history` VALUES (1829407249542082562, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829407217174638593, 'CK08304574', 2, '2024-08-30 14:34:11.704');
-INSERT INTO `wms_inventory_history` VALUES (1829418901289234433, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, '2024-08-30 15:20:29.686');
-INSERT INTO `wms_inventory_history` VALUES (1829418901289234434, 1828364740028174337, 1829397621378838530, 1829399118304964609, 1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, '2024-08-30 15:20:29.686');
-INSERT INTO `wms_inventory_history` VALUES (1829418901289234435, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, '2024-08-30 15:20:29.686');
-INSERT INTO `wms_inventory_history` VALUES (1829418901289234436, 1828364740028174337, 1829397621378838530, 1829399118304964610, 1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, '2024-08-30 15:20:29.687');
+INSERT INTO `wms_inventory_history` VALUES (1828410752604250113, 1828364609002311682, 1828364666585911297, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, NULL, '2024-08-27 20:34:28.311');
+INSERT INTO `wms_inventory_history` VALUES (1828410752604250114, 1828364609002311682, 1828364666585911297, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, NULL, '2024-08-27 20:34:28.312');
+INSERT INTO `wms_inventory_history` VALUES (1828410752604250115, 1828364609002311682, 1828364666585911297, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828410750511292417, 'RK08270491', 1, NULL, '2024-08-27 20:34:28.313');
+INSERT INTO `wms_inventory_history` VALUES (1828631500056895489, 1828364459110469633, 1828364518342430721, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828631500056895490, 1828364459110469633, 1828364518342430721, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828631500056895491, 1828364459110469633, 1828364518342430721, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828631466955448321, 'PK08286054', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828632674210357249, 1828364459110469633, 1828364518342430721, 1828408796968030210, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828632674210357250, 1828364459110469633, 1828364518342430721, 1828408796968030211, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828632674210357251, 1828364459110469633, 1828364518342430721, 1828408796968030212, 1.00, NULL, NULL, NULL, NULL, NULL, 1828632546531549185, 'PK08288055', 4, NULL, '2024-08-28 11:11:22.000');
+INSERT INTO `wms_inventory_history` VALUES (1828633048333885442, 1828364609002311682, 1828364666585911297, 1828408321522700289, 2.00, NULL, NULL, NULL, NULL, NULL, NULL, 'PK08283199', 4, NULL, '2024-08-28 11:17:34.000');
+INSERT INTO `wms_inventory_history` VALUES (1828633439272378369, 1828364459110469633, 1828364518342430721, 1828408796968030210, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, NULL, '2024-08-28 11:19:20.946');
+INSERT INTO `wms_inventory_history` VALUES (1828633439272378370, 1828364459110469633, 1828364518342430721, 1828408796968030210, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, NULL, '2024-08-28 11:19:20.946');
+INSERT INTO `wms_inventory_history` VALUES (1828633439272378371, 1828364459110469633, 1828364518342430721, 1828408796968030211, -1.00, NULL, NULL, NULL, NULL, NULL, 1828633402429612034, 'CK08286097', 2, NULL, '2024-08-28 11:19:20.947');
+INSERT INTO `wms_inventory_history` VALUES (1828682790845751297, 1828364609002311682, 1828364666585911297, 1828408321522700289, -1.00, NULL, NULL, NULL, NULL, NULL, 1828682788358529025, 'YK08281599', 3, NULL, '2024-08-28 14:35:27.279');
+INSERT INTO `wms_inventory_history` VALUES (1828682790845751298, 1828364459110469633, 1828364518342430721, 1828408321522700289, 1.00, NULL, NULL, NULL, NULL, NULL, 1828682788358529025, 'YK08281599', 3, NULL, '2024-08-28 14:35:27.280');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918082, 1828364740028174337, 1829397566185992193, 1829399118304964609, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.957');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918083, 1828364740028174337, 1829397566185992193, 1829399118304964610, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.957');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918084, 1828364740028174337, 1829397661719654401, 1829398702011904001, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.957');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918085, 1828364740028174337, 1829397661719654401, 1829398702011904002, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.958');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918086, 1828364740028174337, 1829397621378838530, 1829398492779048962, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.958');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918087, 1828364740028174337, 1829397621378838530, 1829398492779048963, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.959');
+INSERT INTO `wms_inventory_history` VALUES (1829399583423918088, 1828364740028174337, 1829397707726974978, 1829398333903007745, 99.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.960');
+INSERT INTO `wms_inventory_history` VALUES (1829399583486832642, 1828364740028174337, 1829397707726974978, 1829398333903007746, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.963');
+INSERT INTO `wms_inventory_history` VALUES (1829399583486832643, 1828364740028174337, 1829397742493560833, 1829398193024724993, 100.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.963');
+INSERT INTO `wms_inventory_history` VALUES (1829399583486832644, 1828364740028174337, 1829397742493560833, 1829398193024724994, 101.00, NULL, NULL, NULL, NULL, NULL, 1829399579699376129, 'RK08302046', 1, NULL, '2024-08-30 14:03:43.964');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799042, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.691');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799043, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.692');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799044, 1828364740028174337, 1829397621378838530, 1829398492779048962, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.692');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799045, 1828364740028174337, 1829397621378838530, 1829398492779048963, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.693');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799046, 1828364740028174337, 1829397661719654401, 1829398702011904001, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.693');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799047, 1828364740028174337, 1829397661719654401, 1829398702011904002, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.695');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799048, 1828364740028174337, 1829397707726974978, 1829398333903007745, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.696');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799049, 1828364740028174337, 1829397707726974978, 1829398333903007746, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.697');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799050, 1828364740028174337, 1829397742493560833, 1829398193024724993, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.697');
+INSERT INTO `wms_inventory_history` VALUES (1829406293219799051, 1828364740028174337, 1829397742493560833, 1829398193024724994, -1.00, NULL, NULL, NULL, NULL, NULL, 1829405767363129345, 'CK08305241', 2, NULL, '2024-08-30 14:30:23.698');
+INSERT INTO `wms_inventory_history` VALUES (1829407249542082561, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829407217174638593, 'CK08304574', 2, NULL, '2024-08-30 14:34:11.704');
+INSERT INTO `wms_inventory_history` VALUES (1829407249542082562, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829407217174638593, 'CK08304574', 2, NULL, '2024-08-30 14:34:11.704');
+INSERT INTO `wms_inventory_history` VALUES (1829418901289234433, 1828364740028174337, 1829397566185992193, 1829399118304964609, -1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, NULL, '2024-08-30 15:20:29.686');
+INSERT INTO `wms_inventory_history` VALUES (1829418901289234434, 1828364740028174337, 1829397621378838530, 1829399118304964609, 1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, NULL, '2024-08-30 15:20:29.686');
+INSERT INTO `wms_inventory_history` VALUES (1829418901289234435, 1828364740028174337, 1829397566185992193, 1829399118304964610, -1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, NULL, '2024-08-30 15:20:29.686');
+INSERT INTO `wms_inventory_history` VALUES (1829418901289234436, 1828364740028174337, 1829397621378838530, 1829399118304964610, 1.00, NULL, NULL, NULL, NULL, NULL, 1829418487672139777, 'YK08301821', 3, NULL, '2024-08-30 15:20:29.687');
 
 -- ----------------------------
 -- Table structure for wms_item